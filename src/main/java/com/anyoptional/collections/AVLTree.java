@@ -47,6 +47,42 @@ public class AVLTree<K, V> extends BinarySearchTree<K, V> {
         return tuple3.first;
     }
 
+    /**
+     * 拆分，当前树只保留小于key的词条，其余词条移入一颗新的树并返回，O(logn)
+     */
+    public AVLTree<K, V> split(K key) {
+        return (AVLTree<K, V>) doSplit(key);
+    }
+
+    /**
+     * 合并，要求当前树中的键都不大于key，right中的键都不小于key，
+     * 合并之后right被清空，O(|h(this) - h(right)|)
+     */
+    public void join(K key, @Nullable V value, AVLTree<K, V> right) {
+        doJoin(key, value, right);
+    }
+
+    /**
+     * 并集，两颗树中都有的键保留当前树的词条，运算之后other被清空
+     */
+    public void union(AVLTree<K, V> other) {
+        doUnion(other);
+    }
+
+    /**
+     * 交集，只保留other中也有的键，运算之后other被清空
+     */
+    public void intersection(AVLTree<K, V> other) {
+        doIntersection(other);
+    }
+
+    /**
+     * 差集，删除other中也有的键，运算之后other被清空
+     */
+    public void difference(AVLTree<K, V> other) {
+        doDifference(other);
+    }
+
     @SuppressWarnings("all")
     private void rotateAt(BinaryNode<K, V> g) {
         // 若g失衡，p、v必然存在
@@ -62,6 +98,73 @@ public class AVLTree<K, V> extends BinarySearchTree<K, V> {
         return new Node<>(key, value, parent);
     }
 
+    @Override
+    protected BinarySearchTree<K, V> newTree() {
+        Comparator<? super K> comparator = comparator();
+        return comparator == null ? new AVLTree<>() : new AVLTree<>(comparator);
+    }
+
+    /**
+     * 两侧高度相差不超过1时直接以middle为根；否则沿较高一侧的外侧链下行，
+     * 找到与较矮一侧高度相当的子树c，以middle为根把c与较矮一侧合并，
+     * 再自下而上做至多一次单旋或双旋恢复平衡，O(|h(left) - h(right)|)
+     */
+    @Override
+    protected BinaryNode<K, V> joinTrees(@Nullable BinaryNode<K, V> left, BinaryNode<K, V> middle,
+                                         @Nullable BinaryNode<K, V> right) {
+        int lh = heightOf(left);
+        int rh = heightOf(right);
+        if (lh > rh + 1) {
+            return joinRight(left, middle, right);
+        }
+        if (rh > lh + 1) {
+            return joinLeft(left, middle, right);
+        }
+        return link(middle, left, right);
+    }
+
+    /**
+     * left比right高出不止1，沿left的右侧链下行
+     */
+    private BinaryNode<K, V> joinRight(BinaryNode<K, V> left, BinaryNode<K, V> middle, @Nullable BinaryNode<K, V> right) {
+        BinaryNode<K, V> ll = left.left;
+        BinaryNode<K, V> c = left.right;
+        if (heightOf(c) <= heightOf(right) + 1) {
+            BinaryNode<K, V> t = link(middle, c, right);
+            if (t.height <= heightOf(ll) + 1) {
+                return link(left, ll, t);
+            }
+            // t的左侧偏高，双旋
+            return rotateLeft(link(left, ll, rotateRight(t)));
+        }
+        BinaryNode<K, V> t = joinRight(c, middle, right);
+        BinaryNode<K, V> root = link(left, ll, t);
+        return t.height <= heightOf(ll) + 1 ? root : rotateLeft(root);
+    }
+
+    /**
+     * right比left高出不止1，沿right的左侧链下行
+     */
+    private BinaryNode<K, V> joinLeft(@Nullable BinaryNode<K, V> left, BinaryNode<K, V> middle, BinaryNode<K, V> right) {
+        BinaryNode<K, V> rr = right.right;
+        BinaryNode<K, V> c = right.left;
+        if (heightOf(c) <= heightOf(left) + 1) {
+            BinaryNode<K, V> t = link(middle, left, c);
+            if (t.height <= heightOf(rr) + 1) {
+                return link(right, t, rr);
+            }
+            // t的右侧偏高，双旋
+            return rotateRight(link(right, rotateLeft(t), rr));
+        }
+        BinaryNode<K, V> t = joinLeft(left, middle, c);
+        BinaryNode<K, V> root = link(right, t, rr);
+        return t.height <= heightOf(rr) + 1 ? root : rotateRight(root);
+    }
+
+    private static int heightOf(@Nullable BinaryNode<?, ?> node) {
+        return node != null ? node.height : -1;
+    }
+
     static class Node<K, V> extends BinaryNode<K, V> {
 
         Node(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent) {
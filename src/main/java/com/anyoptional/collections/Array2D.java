@@ -3,15 +3,20 @@ package com.anyoptional.collections;
 import com.anyoptional.lang.Nullable;
 import com.anyoptional.util.Assert;
 
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Two-dimensional array with a fixed number of rows and columns.
  * This is mostly handy for games that are played on a grid, such as chess.
  * Performance is always O(1).
  *
+ * 除了独立的二维数组以外，Array2D也可以是另一个二维数组中某个矩形区域的视图
+ * （{@link #subGrid(int, int, int, int)}、{@link #row(int)}、{@link #column(int)}），
+ * 视图与原数组共享存储，相互之间的修改立即可见。
+ *
  * @apiNote Array2D permit null element.
  */
 public class Array2D<E> implements Iterable<E> {
@@ -24,6 +29,12 @@ public class Array2D<E> implements Iterable<E> {
 
     private final Object[] _storage;
 
+    /** 第一个元素在存储中的偏移量 */
+    private final int _offset;
+
+    /** 相邻两行在存储中的距离 */
+    private final int _stride;
+
     /**
      * 初始化一个指定行、列数的二维数组，数组中的元素用null填充。
      *
@@ -50,10 +61,20 @@ public class Array2D<E> implements Iterable<E> {
         Object[] storage = new Object[size];
         Arrays.fill(storage, initialValue);
         _storage = storage;
+        _offset = 0;
+        _stride = columns;
+    }
+
+    private Array2D(Object[] storage, int offset, int stride, int rows, int columns) {
+        _columns = columns;
+        _rows = rows;
+        _storage = storage;
+        _offset = offset;
+        _stride = stride;
     }
 
     public int size() {
-        return _storage.length;
+        return _rows * _columns;
     }
 
     public int getColumns() {
@@ -70,18 +91,105 @@ public class Array2D<E> implements Iterable<E> {
     @Nullable
     @SuppressWarnings("unchecked")
     public E get(int row, int column) {
-        Assert.isTrue(row < _rows, "row[{}] out of range", row);
-        Assert.isTrue(column < _columns, "column[{}] out of range", column);
-        return (E) _storage[row * _columns + column];
+        return (E) _storage[offset(row, column)];
     }
 
     /**
      * 设置某个位置的值
      */
     public void set(int row, int column, @Nullable E newValue) {
-        Assert.isTrue(row < _rows, "row[{}] out of range", row);
-        Assert.isTrue(column < _columns, "column[{}] out of range", column);
-        _storage[row * _columns + column] = newValue;
+        _storage[offset(row, column)] = newValue;
+    }
+
+    /**
+     * 以(fromRow, fromColumn)为左上角、rows行columns列的矩形区域的视图，不复制元素
+     */
+    public Array2D<E> subGrid(int fromRow, int fromColumn, int rows, int columns) {
+        checkRegion(fromRow, fromColumn, rows, columns);
+        return new Array2D<>(_storage, _offset + fromRow * _stride + fromColumn, _stride, rows, columns);
+    }
+
+    /**
+     * 第row行的视图，一个1行的二维数组
+     */
+    public Array2D<E> row(int row) {
+        return subGrid(row, 0, 1, _columns);
+    }
+
+    /**
+     * 第column列的视图，一个1列的二维数组
+     */
+    public Array2D<E> column(int column) {
+        return subGrid(0, column, _rows, 1);
+    }
+
+    /**
+     * 用value填充整个数组（或视图）
+     */
+    public void fill(@Nullable E value) {
+        for (int i = 0; i < _rows; i++) {
+            int start = _offset + i * _stride;
+            Arrays.fill(_storage, start, start + _columns, value);
+        }
+    }
+
+    /**
+     * 用value填充以(fromRow, fromColumn)为左上角、rows行columns列的矩形区域
+     */
+    public void fill(int fromRow, int fromColumn, int rows, int columns, @Nullable E value) {
+        subGrid(fromRow, fromColumn, rows, columns).fill(value);
+    }
+
+    /**
+     * 将source整体复制到以(toRow, toColumn)为左上角的区域，复制其中一部分时
+     * 可以先通过{@link #subGrid(int, int, int, int)}截取。
+     *
+     * 逐行调用System.arraycopy；source与当前数组共享存储且区域重叠时，
+     * 按照合适的方向逐行复制，结果与先复制一份再写入相同。
+     */
+    public void copyRegion(Array2D<? extends E> source, int toRow, int toColumn) {
+        Assert.notNull(source, "source is required");
+        int rows = source._rows;
+        int columns = source._columns;
+        checkRegion(toRow, toColumn, rows, columns);
+        int target = _offset + toRow * _stride + toColumn;
+        if (source._storage == _storage && target > source._offset) {
+            // 目标位于源之后，自下而上复制，以免源中尚未复制的行被覆盖
+            for (int i = rows - 1; i >= 0; i--) {
+                System.arraycopy(_storage, source._offset + i * source._stride, _storage, target + i * _stride, columns);
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                System.arraycopy(source._storage, source._offset + i * source._stride, _storage, target + i * _stride, columns);
+            }
+        }
+    }
+
+    /**
+     * 越界检查，直接比较而不是借助Assert，以免每次访问都因可变参数而装箱
+     */
+    private int offset(int row, int column) {
+        if (row < 0 || row >= _rows) {
+            throw new IllegalArgumentException("row[" + row + "] out of range");
+        }
+        if (column < 0 || column >= _columns) {
+            throw new IllegalArgumentException("column[" + column + "] out of range");
+        }
+        return _offset + row * _stride + column;
+    }
+
+    private void checkRegion(int fromRow, int fromColumn, int rows, int columns) {
+        Assert.isTrue(fromRow >= 0 && rows >= 0 && fromRow + rows <= _rows,
+                "rows[{}, {}) out of range", fromRow, fromRow + rows);
+        Assert.isTrue(fromColumn >= 0 && columns >= 0 && fromColumn + columns <= _columns,
+                "columns[{}, {}) out of range", fromColumn, fromColumn + columns);
+    }
+
+    /**
+     * 逐行输出的第index个元素在存储中的偏移量
+     */
+    private int offsetOf(int index) {
+        return _offset + index / _columns * _stride + index % _columns;
     }
 
     /**
@@ -92,20 +200,47 @@ public class Array2D<E> implements Iterable<E> {
         return new Itr();
     }
 
+    /**
+     * 逐行输出的Spliterator，可以按下标区间对半切分，用于并行流
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Spl(0, size());
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Array2D<?> array2D = (Array2D<?>) o;
-        return _columns == array2D._columns &&
-                _rows == array2D._rows &&
-                Arrays.equals(_storage, array2D._storage);
+        if (_columns != array2D._columns || _rows != array2D._rows) return false;
+        for (int i = 0; i < _rows; i++) {
+            for (int j = 0; j < _columns; j++) {
+                if (!Objects.equals(get(i, j), array2D.get(i, j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
         int result = Objects.hash(_columns, _rows);
-        result = 31 * result + Arrays.hashCode(_storage);
+        // 与Arrays.hashCode一致
+        int hash = 1;
+        for (E e : this) {
+            hash = 31 * hash + (e == null ? 0 : e.hashCode());
+        }
+        result = 31 * result + hash;
         return result;
     }
 
@@ -143,7 +278,69 @@ public class Array2D<E> implements Iterable<E> {
         @Override
         @SuppressWarnings("unchecked")
         public E next() {
-            return (E) _storage[curIndex++];
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (E) _storage[offsetOf(curIndex++)];
+        }
+    }
+
+    private class Spl implements Spliterator<E> {
+
+        private int _index;
+
+        private final int _fence;
+
+        Spl(int index, int fence) {
+            _index = index;
+            _fence = fence;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Assert.notNull(action, "action is required");
+            if (_index >= _fence) return false;
+            action.accept((E) _storage[offsetOf(_index++)]);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            Assert.notNull(action, "action is required");
+            int index = _index;
+            _index = _fence;
+            // 逐行扫描，行内是连续的存储
+            while (index < _fence) {
+                int column = index % _columns;
+                int start = offsetOf(index);
+                int end = start + Math.min(_columns - column, _fence - index);
+                for (int k = start; k < end; k++) {
+                    action.accept((E) _storage[k]);
+                }
+                index += end - start;
+            }
+        }
+
+        @Nullable
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (_index + _fence) >>> 1;
+            if (mid <= _index) return null;
+            Spliterator<E> prefix = new Spl(_index, mid);
+            _index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return _fence - _index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
         }
     }
 
@@ -6,7 +6,11 @@ import com.anyoptional.util.Assert;
 import com.anyoptional.util.Comparators;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 所谓m阶BTree，是说它除根节点外，其它节点
@@ -295,6 +299,51 @@ public class BTree<K, V> implements Iterable<Entry<K, V>> {
         return new Iter();
     }
 
+    /**
+     * 按节点内的孩子和词条拆分的Spliterator
+     *
+     * 节点不记录子树规模，拆分后的规模是估计值（每次折半），只有整棵树对应的
+     * Spliterator报告SIZED
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        if (isEmpty()) {
+            return Spliterators.emptySpliterator();
+        }
+        return new Spliter(_root, 0, _root.entries.size() * 2 + 1, _size, Spliter.BASE | Spliterator.SIZED);
+    }
+
+    /**
+     * 中序遍历次序的顺序流
+     */
+    public Stream<Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 中序遍历次序的并行流
+     */
+    public Stream<Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * 并行的中序遍历，各个子任务内部保持中序次序，子任务之间不保证先后，consumer需要是线程安全的
+     */
+    public void parallelTraverseInOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        parallelStream().forEach(consumer);
+    }
+
+    /**
+     * 并行归约，各个子任务以identity为初值用accumulator累积，再用combiner合并
+     */
+    public <R> R reduce(R identity, BiFunction<R, ? super Entry<K, V>, R> accumulator, BinaryOperator<R> combiner) {
+        Assert.notNull(accumulator, "accumulator is required");
+        Assert.notNull(combiner, "combiner is required");
+        return parallelStream().reduce(identity, accumulator, combiner);
+    }
+
 
     public boolean equals(Object o) {
         if (o == this) return true;
@@ -427,4 +476,137 @@ public class BTree<K, V> implements Iterable<Entry<K, V>> {
 
     }
 
+    /**
+     * 把节点看作交替排列的位置序列：偶数位置2i是第i个孩子（整棵子树），奇数位置2i+1
+     * 是第i个词条，Spliter负责node上[from, to)这段位置。拆分时从中间切开，
+     * 只剩一颗子树时先下降到该子树再切。一旦开始逐个遍历便不再拆分。
+     */
+    private final class Spliter implements Spliterator<Entry<K, V>> {
+
+        static final int BASE = ORDERED | SORTED | NONNULL;
+
+        private Node<K, V> _node;
+
+        private int _from;
+
+        private int _to;
+
+        private long _estimate;
+
+        private int _characteristics;
+
+        /**
+         * 逐个遍历时的帧栈，null表示尚未开始
+         */
+        @Nullable
+        private Deque<Frame<K, V>> _frames;
+
+        private Spliter(Node<K, V> node, int from, int to, long estimate, int characteristics) {
+            _node = node;
+            _from = from;
+            _to = to;
+            _estimate = estimate;
+            _characteristics = characteristics;
+        }
+
+        @Override
+        @Nullable
+        public Spliterator<Entry<K, V>> trySplit() {
+            if (_frames != null) return null;
+            // 只剩一颗子树，下降到它的根节点
+            while (_to - _from == 1 && (_from & 1) == 0) {
+                Node<K, V> child = _node.children.get(_from >> 1);
+                if (child == null) return null;
+                _node = child;
+                _from = 0;
+                _to = child.entries.size() * 2 + 1;
+            }
+            if (_to - _from < 2) return null;
+            int mid = (_from + _to) >>> 1;
+            Spliter prefix = new Spliter(_node, _from, mid, _estimate >>>= 1, BASE);
+            _from = mid;
+            _characteristics = BASE;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            Assert.notNull(action, "action is required");
+            if (_frames == null) {
+                _frames = new ArrayDeque<>();
+                _frames.push(new Frame<>(_node, _from, _to));
+                _from = _to;
+            }
+            while (!_frames.isEmpty()) {
+                Frame<K, V> frame = _frames.peek();
+                if (frame.position == frame.end) {
+                    _frames.pop();
+                    continue;
+                }
+                int position = frame.position++;
+                if ((position & 1) == 1) {
+                    if (_estimate > 0) _estimate--;
+                    action.accept(frame.node.entries.get(position >> 1));
+                    return true;
+                }
+                Node<K, V> child = frame.node.children.get(position >> 1);
+                if (child != null) {
+                    _frames.push(new Frame<>(child, 0, child.entries.size() * 2 + 1));
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            Assert.notNull(action, "action is required");
+            if (_frames != null) {
+                while (tryAdvance(action)) ;
+                return;
+            }
+            for (int position = _from; position < _to; position++) {
+                if ((position & 1) == 1) {
+                    action.accept(_node.entries.get(position >> 1));
+                } else {
+                    Node<K, V> child = _node.children.get(position >> 1);
+                    if (child != null) {
+                        child.traverseInOrder(action::accept);
+                    }
+                }
+            }
+            _from = _to;
+            _estimate = 0;
+        }
+
+        @Override
+        public long estimateSize() {
+            return _estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return _characteristics;
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return Entry.comparingKey(_comparator);
+        }
+    }
+
+    private static final class Frame<K, V> {
+
+        final Node<K, V> node;
+
+        int position;
+
+        final int end;
+
+        Frame(Node<K, V> node, int position, int end) {
+            this.node = node;
+            this.position = position;
+            this.end = end;
+        }
+    }
+
 }
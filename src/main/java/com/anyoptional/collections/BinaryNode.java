@@ -35,6 +35,12 @@ class BinaryNode<K, V> {
      */
     int height = 0;
 
+    /**
+     * 以当前节点为根的子树规模，随插入、删除、旋转一同维护
+     * @see #updateSize(), {@link #updateSizeAbove()}
+     */
+    int subtreeSize = 1;
+
     /**
      * 初始化根节点
      */
@@ -51,7 +57,7 @@ class BinaryNode<K, V> {
     }
 
     /**
-     * 以当前节点为根的子树规模
+     * 以当前节点为根的子树规模，逐个节点统计，不依赖{@link #subtreeSize}
      */
     int size() {
         int ls = left != null ? left.size() : 0;
@@ -211,16 +217,54 @@ class BinaryNode<K, V> {
     }
 
     /**
-     * 更新当前节点及历代祖先的高度
+     * 更新当前节点及历代祖先的高度，顺带更新子树规模
      */
     void updateHeightAbove() {
         BinaryNode<K, V> cur = this;
         while (cur != null) {
             cur.updateHeight();
+            cur.updateSize();
             cur = cur.parent;
         }
     }
 
+    /**
+     * 更新当前节点的子树规模
+     * 子树规模 = 左子树规模 + 右子树规模 + 1
+     */
+    void updateSize() {
+        subtreeSize = sizeOf(left) + sizeOf(right) + 1;
+        updateAugmentation();
+    }
+
+    /**
+     * 更新子树上的附加信息，默认没有附加信息。
+     *
+     * 附加信息只能由当前节点的词条与左、右孩子的附加信息算出（例如子树中区间右端点的最大值、
+     * 子树中所有值的和），它与子树规模一同维护：{@link #updateSize()}、{@link #updateHeightAbove()}、
+     * 旋转以及批量构建都会经过这里，调用时孩子的附加信息已经就绪。
+     */
+    void updateAugmentation() {
+    }
+
+    /**
+     * 更新当前节点及历代祖先的子树规模
+     */
+    void updateSizeAbove() {
+        BinaryNode<K, V> cur = this;
+        while (cur != null) {
+            cur.updateSize();
+            cur = cur.parent;
+        }
+    }
+
+    /**
+     * 子树规模，约定空树为0
+     */
+    static int sizeOf(@Nullable BinaryNode<?, ?> node) {
+        return node != null ? node.subtreeSize : 0;
+    }
+
     /**
      * 左、右孩子中最高的那个节点
      */
@@ -267,6 +311,9 @@ class BinaryNode<K, V> {
         // g成为p的右孩子
         p.right = g;
         g.parent = p;
+        // 旋转只改变g、p的子树规模，先下后上
+        g.updateSize();
+        p.updateSize();
     }
 
     /**
@@ -293,6 +340,9 @@ class BinaryNode<K, V> {
         // g成为p的左孩子
         p.left = g;
         g.parent = p;
+        // 旋转只改变g、p的子树规模，先下后上
+        g.updateSize();
+        p.updateSize();
     }
 
     /**
@@ -5,9 +5,17 @@ import com.anyoptional.lang.VisibleForTesting;
 import com.anyoptional.util.Assert;
 import com.anyoptional.util.Comparators;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
 
 /**
@@ -17,6 +25,17 @@ import java.util.function.Consumer;
  */
 public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
 
+    /**
+     * 集合运算中，两颗子树的规模之和不小于此值时才拆分成并行的子任务
+     */
+    static final int PARALLEL_GRAIN = 1 << 12;
+
+    private static final int UNION = 0;
+
+    private static final int INTERSECTION = 1;
+
+    private static final int DIFFERENCE = 2;
+
     private int _size = 0;
 
     @Nullable
@@ -45,6 +64,32 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         return _root == null;
     }
 
+    /**
+     * 清空整棵树
+     */
+    public void clear() {
+        _root = null;
+        _size = 0;
+    }
+
+    /**
+     * 比较键所用的比较器，null表示键的自然次序
+     */
+    @Nullable
+    public Comparator<? super K> comparator() {
+        return _comparator;
+    }
+
+    /**
+     * 以{@link NavigableMap}的形式访问这棵树，视图上的修改会直接作用于树本身。
+     *
+     * 与{@link java.util.TreeMap}一样，视图要求键互不相同：通过视图put一个已经存在的键
+     * 只会替换它的值。若绕过视图直接向树中插入了重复的键，视图的行为是未定义的。
+     */
+    public NavigableMap<K, V> asNavigableMap() {
+        return new NavigableTreeMap<>(this);
+    }
+
     /**
      * 查询树中是否包含指定key
      */
@@ -81,12 +126,75 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         doInsert(key, value);
     }
 
+    /**
+     * 批量插入
+     *
+     * 树为空，或者新词条不少于已有词条时，不再逐个插入，而是将新、旧词条归并成
+     * 一个有序序列，再以中点为根递归地构建一颗完全平衡的树，代价为O(n)（输入无序时
+     * 需要先做一次O(nlogn)的稳定排序）。构建出的树各叶子的深度至多相差1，
+     * AVL树的平衡因子、红黑树的颜色均由{@link #newBinaryNode(Object, Object, BinaryNode, int, int)}
+     * 以及自底向上的{@link BinaryNode#updateHeight()}确定，不需要任何旋转。
+     * 相等的键按照已有词条在前、新词条在后的次序排列，与逐个插入的结果一致。
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public void addAll(Collection<? extends Entry<K, V>> entries) {
         Assert.notEmpty(entries, "entries is required");
-        for (Entry<K, V> entry : entries) {
-            insert(entry.getKey(), entry.getValue());
+        if (!isEmpty() && entries.size() < _size) {
+            for (Entry<K, V> entry : entries) {
+                insert(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        Entry<K, V>[] batch = entries.toArray((Entry<K, V>[]) new Entry<?, ?>[0]);
+        boolean sorted = true;
+        for (int i = 0; i < batch.length; i++) {
+            Assert.notNull(batch[i].getKey(), "key is required");
+            if (i > 0 && sorted && compareKeys(batch[i - 1], batch[i]) > 0) {
+                sorted = false;
+            }
         }
+        if (!sorted) {
+            // 稳定排序
+            Arrays.sort(batch, this::compareKeys);
+        }
+        Entry<K, V>[] merged = batch;
+        if (!isEmpty()) {
+            Entry<K, V>[] existing = (Entry<K, V>[]) new Entry<?, ?>[_size];
+            int[] index = {0};
+            _root.traverseInOrder($0 -> existing[index[0]++] = $0.entry);
+            merged = (Entry<K, V>[]) new Entry<?, ?>[existing.length + batch.length];
+            int i = 0, j = 0, k = 0;
+            while (i < existing.length && j < batch.length) {
+                merged[k++] = compareKeys(existing[i], batch[j]) <= 0 ? existing[i++] : batch[j++];
+            }
+            while (i < existing.length) merged[k++] = existing[i++];
+            while (j < batch.length) merged[k++] = batch[j++];
+        }
+        int maxDepth = 31 - Integer.numberOfLeadingZeros(merged.length);
+        _root = build(merged, 0, merged.length, null, 0, maxDepth);
+        _size = merged.length;
+    }
+
+    /**
+     * 以merged[mid]为根递归构建[from, to)，返回子树的根
+     */
+    @Nullable
+    private BinaryNode<K, V> build(Entry<K, V>[] merged, int from, int to,
+                                   @Nullable BinaryNode<K, V> parent, int depth, int maxDepth) {
+        if (from >= to) return null;
+        int mid = (from + to) >>> 1;
+        BinaryNode<K, V> node = newBinaryNode(merged[mid].getKey(), merged[mid].getValue(), parent, depth, maxDepth);
+        node.left = build(merged, from, mid, node, depth + 1, maxDepth);
+        node.right = build(merged, mid + 1, to, node, depth + 1, maxDepth);
+        // 自底向上，孩子的高度和规模都已就绪
+        node.updateHeight();
+        node.updateSize();
+        return node;
+    }
+
+    private int compareKeys(Entry<K, V> lhs, Entry<K, V> rhs) {
+        return Comparators.compare(lhs.getKey(), rhs.getKey(), _comparator);
     }
 
     /**
@@ -98,6 +206,93 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         return doRemove(key, true).first;
     }
 
+    /**
+     * 树中小于key的键的个数，O(logn)
+     */
+    public int rank(K key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * 中序遍历次序下的第index个（从0开始）词条，O(logn)
+     */
+    @SuppressWarnings("all")
+    public Entry<K, V> select(int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("index[" + index + "] out of range");
+        }
+        BinaryNode<K, V> cur = _root;
+        while (true) {
+            int leftSize = BinaryNode.sizeOf(cur.left);
+            if (index < leftSize) {
+                cur = cur.left;
+            } else if (index == leftSize) {
+                return cur.entry;
+            } else {
+                index -= leftSize + 1;
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * 树中落在[lo, hi)之间的键的个数，O(logn)
+     */
+    public int countRange(K lo, K hi) {
+        Assert.notNull(lo, "lo is required");
+        Assert.notNull(hi, "hi is required");
+        if (Comparators.compare(lo, hi, _comparator) >= 0) return 0;
+        return rank(hi) - rank(lo);
+    }
+
+    /**
+     * 最小的词条，树为空时返回null
+     */
+    @Nullable
+    public Entry<K, V> firstEntry() {
+        return entryOf(firstNode());
+    }
+
+    /**
+     * 最大的词条，树为空时返回null
+     */
+    @Nullable
+    public Entry<K, V> lastEntry() {
+        return entryOf(lastNode());
+    }
+
+    /**
+     * 键不大于key的最大词条
+     */
+    @Nullable
+    public Entry<K, V> floorEntry(K key) {
+        return entryOf(floorNode(key, true));
+    }
+
+    /**
+     * 键小于key的最大词条
+     */
+    @Nullable
+    public Entry<K, V> lowerEntry(K key) {
+        return entryOf(floorNode(key, false));
+    }
+
+    /**
+     * 键不小于key的最小词条
+     */
+    @Nullable
+    public Entry<K, V> ceilingEntry(K key) {
+        return entryOf(ceilingNode(key, true));
+    }
+
+    /**
+     * 键大于key的最小词条
+     */
+    @Nullable
+    public Entry<K, V> higherEntry(K key) {
+        return entryOf(ceilingNode(key, false));
+    }
+
     /**
      * 先序遍历
      */
@@ -146,6 +341,98 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         return new Iter();
     }
 
+    /**
+     * 按子树拆分的Spliterator，拆分时借助{@link BinaryNode#subtreeSize}给出精确规模
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return new Spliter(null, _root, _size);
+    }
+
+    /**
+     * 基于路径栈的游标，可以反复seek并双向移动，移动过程中不分配对象
+     */
+    public TreeCursor<K, V> cursor() {
+        return new TreeCursor<>(this);
+    }
+
+    /**
+     * 树中小于（inclusive时为不大于）key的键的个数
+     */
+    int countBelow(K key, boolean inclusive) {
+        Assert.notNull(key, "key is required");
+        int count = 0;
+        BinaryNode<K, V> cur = _root;
+        while (cur != null) {
+            int order = Comparators.compare(key, cur.entry.getKey(), _comparator);
+            if (order < 0 || (order == 0 && !inclusive)) {
+                cur = cur.left;
+            } else {
+                // 左子树和cur都计入
+                count += BinaryNode.sizeOf(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return count;
+    }
+
+    @Nullable
+    BinaryNode<K, V> firstNode() {
+        return _root != null ? _root.minimum() : null;
+    }
+
+    @Nullable
+    BinaryNode<K, V> lastNode() {
+        return _root != null ? _root.maximum() : null;
+    }
+
+    /**
+     * 键不大于（exclusive时为小于）key的最大节点，有多个时取中序次序下最后一个
+     */
+    @Nullable
+    BinaryNode<K, V> floorNode(K key, boolean inclusive) {
+        Assert.notNull(key, "key is required");
+        BinaryNode<K, V> candidate = null;
+        BinaryNode<K, V> cur = _root;
+        while (cur != null) {
+            int order = Comparators.compare(cur.entry.getKey(), key, _comparator);
+            if (order < 0 || (order == 0 && inclusive)) {
+                // cur满足条件，继续在右子树中寻找更大的
+                candidate = cur;
+                cur = cur.right;
+            } else {
+                cur = cur.left;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * 键不小于（exclusive时为大于）key的最小节点，有多个时取中序次序下第一个
+     */
+    @Nullable
+    BinaryNode<K, V> ceilingNode(K key, boolean inclusive) {
+        Assert.notNull(key, "key is required");
+        BinaryNode<K, V> candidate = null;
+        BinaryNode<K, V> cur = _root;
+        while (cur != null) {
+            int order = Comparators.compare(cur.entry.getKey(), key, _comparator);
+            if (order > 0 || (order == 0 && inclusive)) {
+                // cur满足条件，继续在左子树中寻找更小的
+                candidate = cur;
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        return candidate;
+    }
+
+    @Nullable
+    private static <K, V> Entry<K, V> entryOf(@Nullable BinaryNode<K, V> node) {
+        return node != null ? node.entry : null;
+    }
+
     @SuppressWarnings("all")
     protected BinaryNode<K, V> findInsertionPoint(K key) {
         BinaryNode<K, V> hot = null;
@@ -248,8 +535,11 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
                 node.parent.right = replacement;
             }
             // 红黑树并不能立即更新高度
+            // 但子树规模总是可以立即更新
             if (automaticallyUpdate) {
                 node.parent.updateHeightAbove();
+            } else {
+                node.parent.updateSizeAbove();
             }
         }
         // 规模递减
@@ -266,6 +556,270 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         return new BinaryNode<>(key, value, parent);
     }
 
+    /**
+     * 就地替换节点的值，返回旧值。值参与附加信息的子类需要覆写，沿路径重新计算附加信息
+     */
+    @Nullable
+    protected V replaceValue(BinaryNode<K, V> node, @Nullable V value) {
+        return node.entry.setValue(value);
+    }
+
+    /**
+     * 创建一颗与当前树同类型、同比较器的空树
+     */
+    protected BinarySearchTree<K, V> newTree() {
+        return _comparator == null ? new BinarySearchTree<>() : new BinarySearchTree<>(_comparator);
+    }
+
+    /**
+     * 以{@link #joinTrees(BinaryNode, BinaryNode, BinaryNode)}为唯一的平衡原语，
+     * 拆分、合并以及并、交、差运算都可以由它组合出来（Blelloch等，Just Join for Parallel Ordered Sets）：
+     *  1. split(T, k)沿着查找k的路径自上而下拆开T，再自下而上把路径两侧的子树逐一join起来
+     *  2. union(A, B)以A的根r为界拆分B，递归地求出两侧的并，再以r为中间节点join
+     *  3. intersection、difference与union同理，只是视r是否在另一颗树中出现决定保留还是丢弃它
+     * 两颗规模分别为m、n（m <= n）的树做集合运算的代价为O(m * log(n / m + 1))，
+     * 而递归的左、右两半互不相交，可以交给{@link ForkJoinPool}并行执行。
+     *
+     * 默认实现直接以middle为根，不做任何平衡；平衡树需要覆写此方法，
+     * 要求left中的键都不大于middle，right中的键都不小于middle。
+     *
+     * @param left 左子树，可以为空
+     * @param middle 游离的节点，没有父亲和孩子
+     * @param right 右子树，可以为空
+     * @return 合并之后的子树的根
+     */
+    protected BinaryNode<K, V> joinTrees(@Nullable BinaryNode<K, V> left, BinaryNode<K, V> middle,
+                                         @Nullable BinaryNode<K, V> right) {
+        return link(middle, left, right);
+    }
+
+    /**
+     * 以rootNode为新的根，并根据其子树规模更新树的规模
+     */
+    protected void resetRoot(@Nullable BinaryNode<K, V> rootNode) {
+        if (rootNode != null) {
+            rootNode.parent = null;
+        }
+        _root = rootNode;
+        _size = BinaryNode.sizeOf(rootNode);
+    }
+
+    /**
+     * 拆分，当前树只保留小于key的词条，其余词条移入一颗新的树并返回，O(logn)
+     */
+    protected BinarySearchTree<K, V> doSplit(K key) {
+        Assert.notNull(key, "key is required");
+        Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> parts = splitNode(_root, key);
+        BinaryNode<K, V> right = parts.third;
+        if (parts.second != null) {
+            right = joinTrees(null, parts.second, right);
+        }
+        BinarySearchTree<K, V> tree = newTree();
+        tree.resetRoot(right);
+        resetRoot(parts.first);
+        return tree;
+    }
+
+    /**
+     * 合并，要求当前树中的键都不大于key，right中的键都不小于key，
+     * 合并之后right被清空，O(|h(this) - h(right)|)
+     */
+    protected void doJoin(K key, @Nullable V value, BinarySearchTree<K, V> right) {
+        Assert.notNull(key, "key is required");
+        checkCompatible(right);
+        BinaryNode<K, V> last = lastNode();
+        Assert.isTrue(last == null || Comparators.compare(last.entry.getKey(), key, _comparator) <= 0,
+                "keys of this tree must not be greater than key");
+        BinaryNode<K, V> first = right.firstNode();
+        Assert.isTrue(first == null || Comparators.compare(key, first.entry.getKey(), _comparator) <= 0,
+                "keys of the right tree must not be less than key");
+        BinaryNode<K, V> middle = newBinaryNode(key, value, null);
+        resetRoot(joinTrees(_root, middle, right._root));
+        right.clear();
+    }
+
+    /**
+     * 并集，两颗树中都有的键保留当前树的词条，运算之后other被清空
+     */
+    protected void doUnion(BinarySearchTree<K, V> other) {
+        doSetOperation(UNION, other);
+    }
+
+    /**
+     * 交集，只保留other中也有的键，运算之后other被清空
+     */
+    protected void doIntersection(BinarySearchTree<K, V> other) {
+        doSetOperation(INTERSECTION, other);
+    }
+
+    /**
+     * 差集，删除other中也有的键，运算之后other被清空
+     */
+    protected void doDifference(BinarySearchTree<K, V> other) {
+        doSetOperation(DIFFERENCE, other);
+    }
+
+    private void doSetOperation(int operation, BinarySearchTree<K, V> other) {
+        checkCompatible(other);
+        BinaryNode<K, V> root = _root;
+        BinaryNode<K, V> otherRoot = other._root;
+        other.clear();
+        if (_size + BinaryNode.sizeOf(otherRoot) < PARALLEL_GRAIN) {
+            resetRoot(setOperation(operation, root, otherRoot));
+        } else {
+            resetRoot(ForkJoinPool.commonPool().invoke(new SetOperation(operation, root, otherRoot)));
+        }
+    }
+
+    void checkCompatible(BinarySearchTree<K, V> other) {
+        Assert.notNull(other, "other tree is required");
+        Assert.isTrue(other != this, "other tree must not be this tree");
+        Assert.isTrue(other.getClass() == getClass(), "trees must be of the same type");
+        Assert.isTrue(Objects.equals(_comparator, other._comparator), "trees must share the same comparator");
+    }
+
+    @Nullable
+    private BinaryNode<K, V> setOperation(int operation, @Nullable BinaryNode<K, V> a, @Nullable BinaryNode<K, V> b) {
+        if (operation == DIFFERENCE) {
+            if (a == null || b == null) return a;
+            // 以b的根为界拆分a，与b的根相等的节点被丢弃
+            Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> parts = splitNode(a, b.entry.getKey());
+            BinaryNode<K, V> left = b.left;
+            BinaryNode<K, V> right = b.right;
+            detach(b);
+            Tuple<BinaryNode<K, V>, BinaryNode<K, V>> halves = bothHalves(operation, parts.first, left, parts.third, right);
+            return joinTwo(halves.first, halves.second);
+        }
+        if (a == null) return operation == UNION ? b : null;
+        if (b == null) return operation == UNION ? a : null;
+        // 以a的根为界拆分b
+        Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> parts = splitNode(b, a.entry.getKey());
+        BinaryNode<K, V> left = a.left;
+        BinaryNode<K, V> right = a.right;
+        detach(a);
+        Tuple<BinaryNode<K, V>, BinaryNode<K, V>> halves = bothHalves(operation, left, parts.first, right, parts.third);
+        if (operation == UNION || parts.second != null) {
+            return joinTrees(halves.first, a, halves.second);
+        }
+        return joinTwo(halves.first, halves.second);
+    }
+
+    /**
+     * 分别对(a1, b1)、(a2, b2)做集合运算，规模足够大时并行执行
+     */
+    private Tuple<BinaryNode<K, V>, BinaryNode<K, V>> bothHalves(int operation,
+                                                                 @Nullable BinaryNode<K, V> a1, @Nullable BinaryNode<K, V> b1,
+                                                                 @Nullable BinaryNode<K, V> a2, @Nullable BinaryNode<K, V> b2) {
+        int size = BinaryNode.sizeOf(a1) + BinaryNode.sizeOf(b1) + BinaryNode.sizeOf(a2) + BinaryNode.sizeOf(b2);
+        if (size < PARALLEL_GRAIN || !ForkJoinTask.inForkJoinPool()) {
+            return new Tuple<>(setOperation(operation, a1, b1), setOperation(operation, a2, b2));
+        }
+        SetOperation left = new SetOperation(operation, a1, b1);
+        SetOperation right = new SetOperation(operation, a2, b2);
+        ForkJoinTask.invokeAll(left, right);
+        return new Tuple<>(left.join(), right.join());
+    }
+
+    /**
+     * 将node为根的子树拆分成小于key、等于key、大于等于key的三部分，
+     * 第二部分是中序次序下第一个等于key的节点，不存在时为null，O(logn)
+     */
+    Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> splitNode(@Nullable BinaryNode<K, V> node, K key) {
+        if (node == null) return Tuple3.empty();
+        BinaryNode<K, V> left = node.left;
+        BinaryNode<K, V> right = node.right;
+        detach(node);
+        int order = Comparators.compare(key, node.entry.getKey(), _comparator);
+        if (order > 0) {
+            Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> parts = splitNode(right, key);
+            return new Tuple3<>(joinTrees(left, node, parts.first), parts.second, parts.third);
+        }
+        // 左子树中可能还有相等的键
+        Tuple3<BinaryNode<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> parts = splitNode(left, key);
+        if (order == 0 && parts.second == null) {
+            return new Tuple3<>(parts.first, node, right);
+        }
+        return new Tuple3<>(parts.first, parts.second, joinTrees(parts.third, node, right));
+    }
+
+    /**
+     * 合并两颗子树，要求left中的键都不大于right中的键
+     */
+    @Nullable
+    private BinaryNode<K, V> joinTwo(@Nullable BinaryNode<K, V> left, @Nullable BinaryNode<K, V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        // 摘下left中最大的节点作为中间节点
+        Tuple<BinaryNode<K, V>, BinaryNode<K, V>> parts = splitLast(left);
+        return joinTrees(parts.first, parts.second, right);
+    }
+
+    private Tuple<BinaryNode<K, V>, BinaryNode<K, V>> splitLast(BinaryNode<K, V> node) {
+        BinaryNode<K, V> left = node.left;
+        BinaryNode<K, V> right = node.right;
+        detach(node);
+        if (right == null) {
+            return new Tuple<>(left, node);
+        }
+        Tuple<BinaryNode<K, V>, BinaryNode<K, V>> parts = splitLast(right);
+        return new Tuple<>(joinTrees(left, node, parts.first), parts.second);
+    }
+
+    /**
+     * 令node成为left、right的父亲，重新计算高度与规模，返回node
+     */
+    static <K, V> BinaryNode<K, V> link(BinaryNode<K, V> node,
+                                        @Nullable BinaryNode<K, V> left, @Nullable BinaryNode<K, V> right) {
+        node.parent = null;
+        node.left = left;
+        node.right = right;
+        if (left != null) left.parent = node;
+        if (right != null) right.parent = node;
+        node.updateHeight();
+        node.updateSize();
+        return node;
+    }
+
+    /**
+     * 在游离的子树根节点g处右旋，更新高度与规模，返回新的根
+     */
+    @SuppressWarnings("all")
+    static <K, V> BinaryNode<K, V> rotateRight(BinaryNode<K, V> g) {
+        BinaryNode<K, V> p = g.left;
+        g.zig();
+        g.updateHeight();
+        p.updateHeight();
+        return p;
+    }
+
+    /**
+     * 在游离的子树根节点g处左旋，更新高度与规模，返回新的根
+     */
+    @SuppressWarnings("all")
+    static <K, V> BinaryNode<K, V> rotateLeft(BinaryNode<K, V> g) {
+        BinaryNode<K, V> p = g.right;
+        g.zag();
+        g.updateHeight();
+        p.updateHeight();
+        return p;
+    }
+
+    private static <K, V> void detach(BinaryNode<K, V> node) {
+        if (node.left != null) node.left.parent = null;
+        if (node.right != null) node.right.parent = null;
+        node.parent = null;
+        node.left = null;
+        node.right = null;
+    }
+
+    /**
+     * 批量构建时创建节点，depth为节点的深度，maxDepth为整棵树最深的叶子的深度
+     */
+    protected BinaryNode<K, V> newBinaryNode(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent,
+                                             int depth, int maxDepth) {
+        return newBinaryNode(key, value, parent);
+    }
+
     /**
      * 视g、p、v的相对位置做一次等价的旋转变换
      * @param g 祖父节点
@@ -302,6 +856,30 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         return vertex;
     }
 
+    private class SetOperation extends RecursiveTask<BinaryNode<K, V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int _operation;
+
+        @Nullable
+        private final BinaryNode<K, V> _a;
+
+        @Nullable
+        private final BinaryNode<K, V> _b;
+
+        SetOperation(int operation, @Nullable BinaryNode<K, V> a, @Nullable BinaryNode<K, V> b) {
+            _operation = operation;
+            _a = a;
+            _b = b;
+        }
+
+        @Override
+        protected BinaryNode<K, V> compute() {
+            return setOperation(_operation, _a, _b);
+        }
+    }
+
     private class Iter implements Iterator<Entry<K, V>> {
 
         @Nullable
@@ -331,6 +909,118 @@ public class BinarySearchTree<K, V> implements BinaryTree<K, V> {
         }
     }
 
+    /**
+     * 剩余元素是中序次序下的first节点，后面接着整棵subtree。
+     *
+     * 拆分时，若subtree的左、右子树为L、R，则前半部分为first + L，
+     * 自身变为subtree + R，两边的规模都可以由subtreeSize精确算出。
+     * 一旦开始逐个遍历便不再拆分。
+     */
+    private final class Spliter implements Spliterator<Entry<K, V>> {
+
+        @Nullable
+        private BinaryNode<K, V> _first;
+
+        @Nullable
+        private BinaryNode<K, V> _subtree;
+
+        private long _remaining;
+
+        /**
+         * 逐个遍历时的路径栈，null表示尚未开始
+         */
+        @Nullable
+        private ArrayDeque<BinaryNode<K, V>> _stack;
+
+        private Spliter(@Nullable BinaryNode<K, V> first, @Nullable BinaryNode<K, V> subtree, long remaining) {
+            _first = first;
+            _subtree = subtree;
+            _remaining = remaining;
+        }
+
+        @Override
+        @Nullable
+        public Spliterator<Entry<K, V>> trySplit() {
+            if (_stack != null) return null;
+            while (_subtree != null) {
+                BinaryNode<K, V> subtree = _subtree;
+                long prefixSize = (_first != null ? 1 : 0) + BinaryNode.sizeOf(subtree.left);
+                Spliter prefix = prefixSize > 0 ? new Spliter(_first, subtree.left, prefixSize) : null;
+                _first = subtree;
+                _subtree = subtree.right;
+                _remaining -= prefixSize;
+                if (prefix != null) {
+                    return prefix;
+                }
+                // 前半部分为空，继续在右子树上拆分
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+            Assert.notNull(action, "action is required");
+            BinaryNode<K, V> node;
+            if (_first != null) {
+                node = _first;
+                _first = null;
+            } else {
+                if (_stack == null) {
+                    _stack = new ArrayDeque<>();
+                    pushLeftSpine(_subtree);
+                    _subtree = null;
+                }
+                node = _stack.poll();
+                if (node == null) return false;
+                pushLeftSpine(node.right);
+            }
+            _remaining--;
+            action.accept(node.entry);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+            Assert.notNull(action, "action is required");
+            if (_stack != null) {
+                while (tryAdvance(action)) ;
+                return;
+            }
+            if (_first != null) {
+                action.accept(_first.entry);
+                _first = null;
+            }
+            if (_subtree != null) {
+                _subtree.traverseInOrder($0 -> action.accept($0.entry));
+                _subtree = null;
+            }
+            _remaining = 0;
+        }
+
+        @Override
+        public long estimateSize() {
+            return _remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return Entry.comparingKey(_comparator);
+        }
+
+        @SuppressWarnings("all")
+        private void pushLeftSpine(@Nullable BinaryNode<K, V> node) {
+            while (node != null) {
+                _stack.push(node);
+                node = node.left;
+            }
+        }
+    }
+
     public boolean equals(Object o) {
         if (o == this) return true;
         if (!(o instanceof BinaryTree)) return false;
@@ -1,9 +1,16 @@
 package com.anyoptional.collections;
 
 import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
 
 import java.util.Collection;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface BinaryTree<K, V> extends Iterable<Entry<K, V>> {
 
@@ -70,4 +77,45 @@ public interface BinaryTree<K, V> extends Iterable<Entry<K, V>> {
      */
     void traverseLevel(Consumer<Entry<K, V>> consumer);
 
+    /**
+     * 中序遍历次序的Spliterator
+     *
+     * 默认实现按迭代器分批拆分，能够维护子树规模的实现应当按子树拆分
+     */
+    @Override
+    default Spliterator<Entry<K, V>> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * 中序遍历次序的顺序流
+     */
+    default Stream<Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 中序遍历次序的并行流
+     */
+    default Stream<Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * 并行的中序遍历，各个子任务内部保持中序次序，子任务之间不保证先后，consumer需要是线程安全的
+     */
+    default void parallelTraverseInOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        parallelStream().forEach(consumer);
+    }
+
+    /**
+     * 并行归约，各个子任务以identity为初值用accumulator累积，再用combiner合并
+     */
+    default <R> R reduce(R identity, BiFunction<R, ? super Entry<K, V>, R> accumulator, BinaryOperator<R> combiner) {
+        Assert.notNull(accumulator, "accumulator is required");
+        Assert.notNull(combiner, "combiner is required");
+        return parallelStream().reduce(identity, accumulator, combiner);
+    }
+
 }
@@ -0,0 +1,527 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 以数组存储节点的AVL树，语义与{@link AVLTree}相同。
+ *
+ * {@link BinaryNode}的每个节点都是一个独立的对象，加上left、right、parent三个引用、
+ * height、subtreeSize以及一个单独的{@link Entry}，在键和值之外每个词条就要七十多个字节，
+ * 数百万个词条时GC需要追踪同样多的对象。这里改为结构体数组（struct of arrays）：
+ * 第i个节点的键、值、左右孩子、父亲、高度分别存放在各个数组的第i个位置，孩子、父亲用int下标表示，
+ * {@link #NIL}表示空，高度用一个byte就足够了。每个词条只需要约21个字节（两个压缩引用、三个int、一个byte），
+ * 整棵树也只有寥寥几个数组对象。
+ *
+ * 被删除的节点串成一个空闲链表（借用left数组作为next指针），插入时优先复用，
+ * 数组只在空闲链表为空且已满时才成倍扩容。
+ *
+ * 紧凑存储目前只有AVL这一种平衡策略，{@link RedBlackTree}仍然使用{@link BinaryNode}。
+ *
+ * 节点本身不是对象，查询、遍历、迭代时返回的词条都是临时创建的拷贝，每个词条分配一个
+ * {@link Entry}，修改它们不会影响树。
+ *
+ * @apiNote CompactAVLTree do not permit null key.
+ */
+public class CompactAVLTree<K, V> implements BinaryTree<K, V> {
+
+    static final int NIL = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] _keys;
+
+    private Object[] _values;
+
+    @VisibleForTesting
+    int[] _left;
+
+    @VisibleForTesting
+    int[] _right;
+
+    @VisibleForTesting
+    int[] _parent;
+
+    /**
+     * 树高，约定叶子节点为0，空树为-1
+     */
+    @VisibleForTesting
+    byte[] _heights;
+
+    @VisibleForTesting
+    int _root = NIL;
+
+    private int _size = 0;
+
+    /**
+     * 从未使用过的第一个位置
+     */
+    private int _used = 0;
+
+    /**
+     * 空闲链表的表头
+     */
+    private int _free = NIL;
+
+    @Nullable
+    private final Comparator<? super K> _comparator;
+
+    public CompactAVLTree() {
+        this(DEFAULT_CAPACITY, null);
+    }
+
+    public CompactAVLTree(int initialCapacity) {
+        this(initialCapacity, null);
+    }
+
+    public CompactAVLTree(Comparator<? super K> comparator) {
+        this(DEFAULT_CAPACITY, comparator);
+        Assert.notNull(comparator, "comparator is required");
+    }
+
+    private CompactAVLTree(int initialCapacity, @Nullable Comparator<? super K> comparator) {
+        Assert.isTrue(initialCapacity > 0, "initialCapacity[{}] must be positive", initialCapacity);
+        _keys = new Object[initialCapacity];
+        _values = new Object[initialCapacity];
+        _left = new int[initialCapacity];
+        _right = new int[initialCapacity];
+        _parent = new int[initialCapacity];
+        _heights = new byte[initialCapacity];
+        _comparator = comparator;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _root == NIL;
+    }
+
+    /**
+     * 已分配的节点槽位数
+     */
+    public int capacity() {
+        return _keys.length;
+    }
+
+    /**
+     * 清空整棵树，保留已分配的数组
+     */
+    public void clear() {
+        Arrays.fill(_keys, 0, _used, null);
+        Arrays.fill(_values, 0, _used, null);
+        _root = NIL;
+        _size = 0;
+        _used = 0;
+        _free = NIL;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return searchIndex(key) != NIL;
+    }
+
+    @Nullable
+    @Override
+    public V searchValue(K key) {
+        int index = searchIndex(key);
+        return index != NIL ? valueAt(index) : null;
+    }
+
+    @Nullable
+    @Override
+    public Entry<K, V> search(K key) {
+        int index = searchIndex(key);
+        return index != NIL ? entryAt(index) : null;
+    }
+
+    /**
+     * 向树中插入一对键值对，与{@link AVLTree}一样允许重复的键
+     */
+    @Override
+    public void insert(K key, @Nullable V value) {
+        Assert.notNull(key, "key is required");
+        int hot = NIL;
+        int cur = _root;
+        boolean right = false;
+        while (cur != NIL) {
+            hot = cur;
+            right = compare(key, keyAt(cur)) >= 0;
+            cur = right ? _right[cur] : _left[cur];
+        }
+        int node = allocate(key, value, hot);
+        if (hot == NIL) {
+            _root = node;
+        } else if (right) {
+            _right[hot] = node;
+        } else {
+            _left[hot] = node;
+        }
+        _size += 1;
+        rebalance(hot);
+    }
+
+    /**
+     * 批量插入
+     */
+    @Override
+    public void addAll(Collection<? extends Entry<K, V>> entries) {
+        Assert.notEmpty(entries, "entries is required");
+        for (Entry<K, V> entry : entries) {
+            insert(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 删除树中`最高`的、拥有指定key的节点
+     */
+    @Nullable
+    @Override
+    public Entry<K, V> remove(K key) {
+        int node = searchIndex(key);
+        if (node == NIL) return null;
+        Entry<K, V> entry = entryAt(node);
+        if (_left[node] != NIL && _right[node] != NIL) {
+            // 与后继交换词条，退化成至多一个孩子的情况
+            int next = _right[node];
+            while (_left[next] != NIL) {
+                next = _left[next];
+            }
+            _keys[node] = _keys[next];
+            _values[node] = _values[next];
+            node = next;
+        }
+        int replacement = _left[node] != NIL ? _left[node] : _right[node];
+        int hot = _parent[node];
+        if (replacement != NIL) {
+            _parent[replacement] = hot;
+        }
+        replaceChild(hot, node, replacement);
+        release(node);
+        _size -= 1;
+        rebalance(hot);
+        return entry;
+    }
+
+    /**
+     * 先序遍历
+     */
+    @Override
+    public void traversePreOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        if (isEmpty()) return;
+        int[] stack = new int[2 * heightOf(_root) + 2];
+        int top = 0;
+        stack[top++] = _root;
+        while (top > 0) {
+            int node = stack[--top];
+            consumer.accept(entryAt(node));
+            if (_right[node] != NIL) stack[top++] = _right[node];
+            if (_left[node] != NIL) stack[top++] = _left[node];
+        }
+    }
+
+    /**
+     * 中序遍历
+     */
+    @Override
+    public void traverseInOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        for (int node = first(); node != NIL; node = successor(node)) {
+            consumer.accept(entryAt(node));
+        }
+    }
+
+    /**
+     * 后序遍历
+     */
+    @Override
+    public void traversePostOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        int node = _root;
+        int prev = NIL;
+        // 借助父指针，不需要额外的栈
+        while (node != NIL) {
+            if (prev == _parent[node]) {
+                // 自上而下到达，先左后右
+                prev = node;
+                if (_left[node] != NIL) {
+                    node = _left[node];
+                } else if (_right[node] != NIL) {
+                    node = _right[node];
+                } else {
+                    consumer.accept(entryAt(node));
+                    node = _parent[node];
+                }
+            } else if (prev == _left[node] && _right[node] != NIL) {
+                // 从左子树返回，转向右子树
+                prev = node;
+                node = _right[node];
+            } else {
+                // 左右子树都已完成
+                consumer.accept(entryAt(node));
+                prev = node;
+                node = _parent[node];
+            }
+        }
+    }
+
+    /**
+     * 层次遍历
+     */
+    @Override
+    public void traverseLevel(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        if (isEmpty()) return;
+        int[] queue = new int[_size];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = _root;
+        while (head < tail) {
+            int node = queue[head++];
+            consumer.accept(entryAt(node));
+            if (_left[node] != NIL) queue[tail++] = _left[node];
+            if (_right[node] != NIL) queue[tail++] = _right[node];
+        }
+    }
+
+    /**
+     * 中序遍历次序的迭代器
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new Iter();
+    }
+
+    private int searchIndex(K key) {
+        Assert.notNull(key, "key is required");
+        int cur = _root;
+        while (cur != NIL) {
+            int order = compare(key, keyAt(cur));
+            if (order == 0) {
+                return cur;
+            }
+            cur = order > 0 ? _right[cur] : _left[cur];
+        }
+        return NIL;
+    }
+
+    private int allocate(K key, @Nullable V value, int parent) {
+        int node;
+        if (_free != NIL) {
+            node = _free;
+            _free = _left[node];
+        } else {
+            if (_used == _keys.length) {
+                grow();
+            }
+            node = _used++;
+        }
+        _keys[node] = key;
+        _values[node] = value;
+        _left[node] = NIL;
+        _right[node] = NIL;
+        _parent[node] = parent;
+        _heights[node] = 0;
+        return node;
+    }
+
+    private void release(int node) {
+        // 方便GC
+        _keys[node] = null;
+        _values[node] = null;
+        _right[node] = NIL;
+        _parent[node] = NIL;
+        _left[node] = _free;
+        _free = node;
+    }
+
+    private void grow() {
+        int capacity = _keys.length << 1;
+        Assert.isTrue(capacity > 0, "capacity overflow");
+        _keys = Arrays.copyOf(_keys, capacity);
+        _values = Arrays.copyOf(_values, capacity);
+        _left = Arrays.copyOf(_left, capacity);
+        _right = Arrays.copyOf(_right, capacity);
+        _parent = Arrays.copyOf(_parent, capacity);
+        _heights = Arrays.copyOf(_heights, capacity);
+    }
+
+    /**
+     * 自node起向上更新高度，失衡时旋转
+     */
+    private void rebalance(int node) {
+        while (node != NIL) {
+            int balance = heightOf(_left[node]) - heightOf(_right[node]);
+            if (balance > 1) {
+                int p = _left[node];
+                if (heightOf(_left[p]) < heightOf(_right[p])) {
+                    rotateLeft(p);
+                }
+                node = rotateRight(node);
+            } else if (balance < -1) {
+                int p = _right[node];
+                if (heightOf(_right[p]) < heightOf(_left[p])) {
+                    rotateRight(p);
+                }
+                node = rotateLeft(node);
+            } else {
+                updateHeight(node);
+            }
+            node = _parent[node];
+        }
+    }
+
+    /**
+     * 右旋，返回上浮的节点
+     *
+     * @see BinaryNode#zig()
+     */
+    private int rotateRight(int g) {
+        int p = _left[g];
+        int parent = _parent[g];
+        _left[g] = _right[p];
+        if (_right[p] != NIL) {
+            _parent[_right[p]] = g;
+        }
+        _right[p] = g;
+        _parent[g] = p;
+        _parent[p] = parent;
+        replaceChild(parent, g, p);
+        updateHeight(g);
+        updateHeight(p);
+        return p;
+    }
+
+    /**
+     * 左旋，返回上浮的节点
+     *
+     * @see BinaryNode#zag()
+     */
+    private int rotateLeft(int g) {
+        int p = _right[g];
+        int parent = _parent[g];
+        _right[g] = _left[p];
+        if (_left[p] != NIL) {
+            _parent[_left[p]] = g;
+        }
+        _left[p] = g;
+        _parent[g] = p;
+        _parent[p] = parent;
+        replaceChild(parent, g, p);
+        updateHeight(g);
+        updateHeight(p);
+        return p;
+    }
+
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NIL) {
+            _root = newChild;
+        } else if (_left[parent] == oldChild) {
+            _left[parent] = newChild;
+        } else {
+            _right[parent] = newChild;
+        }
+    }
+
+    private void updateHeight(int node) {
+        _heights[node] = (byte) (Math.max(heightOf(_left[node]), heightOf(_right[node])) + 1);
+    }
+
+    private int heightOf(int node) {
+        return node != NIL ? _heights[node] : -1;
+    }
+
+    private int first() {
+        int node = _root;
+        while (node != NIL && _left[node] != NIL) {
+            node = _left[node];
+        }
+        return node;
+    }
+
+    /**
+     * 中序遍历次序下的后继
+     *
+     * @see BinaryNode#successor()
+     */
+    private int successor(int node) {
+        if (_right[node] != NIL) {
+            node = _right[node];
+            while (_left[node] != NIL) {
+                node = _left[node];
+            }
+            return node;
+        }
+        int parent = _parent[node];
+        while (parent != NIL && _right[parent] == node) {
+            node = parent;
+            parent = _parent[node];
+        }
+        return parent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int node) {
+        return (K) _keys[node];
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V valueAt(int node) {
+        return (V) _values[node];
+    }
+
+    private Entry<K, V> entryAt(int node) {
+        return new Entry<>(keyAt(node), valueAt(node));
+    }
+
+    private int compare(K lhs, K rhs) {
+        return Comparators.compare(lhs, rhs, _comparator);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int node = first(); node != NIL; node = successor(node)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(keyAt(node)).append("=").append(valueAt(node));
+        }
+        return sb.append("]").toString();
+    }
+
+    private class Iter implements Iterator<Entry<K, V>> {
+
+        private int _next = first();
+
+        @Override
+        public boolean hasNext() {
+            return _next != NIL;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (_next == NIL) {
+                throw new NoSuchElementException();
+            }
+            int node = _next;
+            _next = successor(node);
+            return entryAt(node);
+        }
+    }
+
+}
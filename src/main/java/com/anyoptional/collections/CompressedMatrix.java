@@ -0,0 +1,151 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * {@link CsrMatrix}与{@link CscMatrix}的公共部分。
+ *
+ * 两者的存储结构完全一样，只是主、次两个维度对调：CSR的主维度是行，CSC的主维度是列。
+ * 主维度上第m个向量的非零元素存放在[pointers[m], pointers[m + 1])中，
+ * indices记录它们在次维度上的下标（严格递增），values记录对应的值。
+ */
+abstract class CompressedMatrix implements SparseMatrix {
+
+    /** 主维度的长度 */
+    final int _majors;
+
+    /** 次维度的长度 */
+    final int _minors;
+
+    final int[] _pointers;
+
+    final int[] _indices;
+
+    final double[] _values;
+
+    CompressedMatrix(int majors, int minors, int[] pointers, int[] indices, double[] values) {
+        _majors = majors;
+        _minors = minors;
+        _pointers = pointers;
+        _indices = indices;
+        _values = values;
+    }
+
+    @Override
+    public int nnz() {
+        return _pointers[_majors] - _pointers[0];
+    }
+
+    /**
+     * 在主维度major上二分查找次维度下标minor
+     */
+    final double valueAt(int major, int minor) {
+        int index = Arrays.binarySearch(_indices, _pointers[major], _pointers[major + 1], minor);
+        return index >= 0 ? _values[index] : 0;
+    }
+
+    /**
+     * 截取主维度上的[from, to)
+     */
+    final <M> M slice(int from, int to, Factory<M> factory) {
+        Assert.isTrue(from >= 0 && from <= to && to <= _majors, "range[{}, {}) out of bounds", from, to);
+        int first = _pointers[from];
+        int[] pointers = new int[to - from + 1];
+        for (int m = from; m <= to; m++) {
+            pointers[m - from] = _pointers[m] - first;
+        }
+        int last = _pointers[to];
+        return factory.create(pointers,
+                Arrays.copyOfRange(_indices, first, last),
+                Arrays.copyOfRange(_values, first, last));
+    }
+
+    /**
+     * 对调主、次维度重新压缩，即CSR与CSC之间的转换
+     */
+    final <M> M transpose(Factory<M> factory) {
+        int count = nnz();
+        int[] majors = new int[count];
+        int[] minors = new int[count];
+        double[] values = new double[count];
+        int k = 0;
+        for (int m = 0; m < _majors; m++) {
+            for (int p = _pointers[m]; p < _pointers[m + 1]; p++) {
+                majors[k] = m;
+                minors[k] = _indices[p];
+                values[k++] = _values[p];
+            }
+        }
+        return compress(_minors, _majors, count, minors, majors, values, factory);
+    }
+
+    final void checkIndex(int row, int column, int rows, int columns) {
+        if (row < 0 || row >= rows) {
+            throw new IllegalArgumentException("row[" + row + "] out of range");
+        }
+        if (column < 0 || column >= columns) {
+            throw new IllegalArgumentException("column[" + column + "] out of range");
+        }
+    }
+
+    /**
+     * 将count个三元组按主维度压缩，重复的位置累加
+     *
+     * 先按次维度、再按主维度做两趟稳定的计数排序，总代价为O(nnz + majors + minors)，
+     * 排序后每个主维度向量中的次维度下标自然有序。
+     */
+    static <M> M compress(int majors, int minors, int count,
+                          int[] majorOf, int[] minorOf, double[] valueOf, Factory<M> factory) {
+        // 第一趟：按次维度排序
+        int[] next = new int[Math.max(majors, minors) + 1];
+        for (int e = 0; e < count; e++) {
+            next[minorOf[e] + 1] += 1;
+        }
+        for (int i = 0; i < minors; i++) {
+            next[i + 1] += next[i];
+        }
+        int[] byMinor = new int[count];
+        for (int e = 0; e < count; e++) {
+            byMinor[next[minorOf[e]]++] = e;
+        }
+        // 第二趟：按主维度稳定地排序
+        int[] pointers = new int[majors + 1];
+        for (int e = 0; e < count; e++) {
+            pointers[majorOf[e] + 1] += 1;
+        }
+        for (int i = 0; i < majors; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+        System.arraycopy(pointers, 0, next, 0, majors);
+        int[] order = new int[count];
+        for (int e : byMinor) {
+            order[next[majorOf[e]]++] = e;
+        }
+        // 合并重复的位置
+        int[] indices = new int[count];
+        double[] values = new double[count];
+        int k = 0;
+        for (int m = 0; m < majors; m++) {
+            int start = k;
+            for (int p = pointers[m]; p < pointers[m + 1]; p++) {
+                int e = order[p];
+                if (k > start && indices[k - 1] == minorOf[e]) {
+                    values[k - 1] += valueOf[e];
+                } else {
+                    indices[k] = minorOf[e];
+                    values[k++] = valueOf[e];
+                }
+            }
+            pointers[m] = start;
+        }
+        pointers[majors] = k;
+        return factory.create(pointers, Arrays.copyOf(indices, k), Arrays.copyOf(values, k));
+    }
+
+    interface Factory<M> {
+        M create(int[] pointers, int[] indices, double[] values);
+    }
+
+}
@@ -0,0 +1,513 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 读多写少场景下的并发AVL树，键互不相同，读操作不加锁，思路来自Bronson等人的
+ * A Practical Concurrent Binary Search Tree（乐观的版本校验）。
+ *
+ * 每个节点带有一个版本号，写者在改变节点所覆盖的键区间之前先令版本号变为奇数，
+ * 改完之后再变为偶数：
+ *  1. 旋转时下沉的节点，它覆盖的区间收缩（shrink），需要改版本；上浮的节点区间扩张，
+ *     对读者无害，不需要改版本
+ *  2. 被摘除的节点版本号置为{@link #UNLINKED}，此后不再使用
+ * 读者自上而下交替校验（hand-over-hand）：读出孩子及其版本号之后，确认孩子仍是当前节点的孩子、
+ * 当前节点的版本号也没有变化，才前进到孩子；遇见奇数版本就等待，校验失败就从根重新开始。
+ * 这样读者看到的每一段路径都对应着树在某一时刻的真实形状，查找不需要任何锁。
+ *
+ * 为了使键不在节点之间移动，删除拥有两个孩子的节点时只将其标记为路由节点（保留键、去掉值），
+ * 路由节点在此后的调整中一旦只剩下不多于一个孩子就被摘除。
+ *
+ * 写者之间由一把锁串行化，它们只与读者并发。遍历、迭代同样需要这把锁，
+ * 得到的是某一时刻的一致快照，返回的词条都是拷贝。
+ *
+ * @apiNote ConcurrentAVLTree do not permit null key.
+ */
+public class ConcurrentAVLTree<K, V> implements BinaryTree<K, V> {
+
+    /**
+     * 已被摘除的节点的版本号
+     */
+    static final long UNLINKED = -1L;
+
+    /**
+     * 路由节点的值
+     */
+    private static final Object ROUTING = new Object();
+
+    /**
+     * 哨兵，根节点是它的右孩子，版本号始终为0
+     */
+    @VisibleForTesting
+    final Node<K, V> _holder = new Node<>(null, null, null);
+
+    private final ReentrantLock _writeLock = new ReentrantLock();
+
+    private volatile int _size = 0;
+
+    @Nullable
+    private final Comparator<? super K> _comparator;
+
+    public ConcurrentAVLTree() {
+        _comparator = null;
+    }
+
+    public ConcurrentAVLTree(Comparator<? super K> comparator) {
+        Assert.notNull(comparator, "comparator is required");
+        _comparator = comparator;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return getValue(key) != ROUTING;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V searchValue(K key) {
+        Object value = getValue(key);
+        return value != ROUTING ? (V) value : null;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> search(K key) {
+        Object value = getValue(key);
+        return value != ROUTING ? new Entry<>(key, (V) value) : null;
+    }
+
+    /**
+     * 插入一对键值对，键已存在时只替换值
+     */
+    @Override
+    public void insert(K key, @Nullable V value) {
+        Assert.notNull(key, "key is required");
+        _writeLock.lock();
+        try {
+            Node<K, V> parent = _holder;
+            Node<K, V> cur = _holder.right;
+            int order = 1;
+            while (cur != null) {
+                order = compare(key, cur.key);
+                if (order == 0) {
+                    if (cur.value == ROUTING) {
+                        _size += 1;
+                    }
+                    cur.value = value;
+                    return;
+                }
+                parent = cur;
+                cur = order < 0 ? cur.left : cur.right;
+            }
+            Node<K, V> node = new Node<>(key, value, parent);
+            // 新节点对读者可见之前已经完成初始化
+            if (order < 0) {
+                parent.left = node;
+            } else {
+                parent.right = node;
+            }
+            _size += 1;
+            fixUp(parent);
+        } finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * 批量插入
+     */
+    @Override
+    public void addAll(Collection<? extends Entry<K, V>> entries) {
+        Assert.notEmpty(entries, "entries is required");
+        for (Entry<K, V> entry : entries) {
+            insert(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 删除key对应的节点，返回被删除的词条
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> remove(K key) {
+        Assert.notNull(key, "key is required");
+        _writeLock.lock();
+        try {
+            Node<K, V> node = _holder.right;
+            while (node != null) {
+                int order = compare(key, node.key);
+                if (order == 0) break;
+                node = order < 0 ? node.left : node.right;
+            }
+            if (node == null || node.value == ROUTING) return null;
+            Entry<K, V> entry = new Entry<>(key, (V) node.value);
+            _size -= 1;
+            if (node.left != null && node.right != null) {
+                // 键不能移动，只标记为路由节点
+                node.value = ROUTING;
+                return entry;
+            }
+            Node<K, V> parent = node.parent;
+            unlink(node);
+            fixUp(parent);
+            return entry;
+        } finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * 先序遍历
+     */
+    @Override
+    public void traversePreOrder(Consumer<Entry<K, V>> consumer) {
+        forEach(consumer, 0);
+    }
+
+    /**
+     * 中序遍历
+     */
+    @Override
+    public void traverseInOrder(Consumer<Entry<K, V>> consumer) {
+        forEach(consumer, 1);
+    }
+
+    /**
+     * 后序遍历
+     */
+    @Override
+    public void traversePostOrder(Consumer<Entry<K, V>> consumer) {
+        forEach(consumer, 2);
+    }
+
+    /**
+     * 层次遍历
+     */
+    @Override
+    public void traverseLevel(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        List<Entry<K, V>> entries = new ArrayList<>();
+        _writeLock.lock();
+        try {
+            Queue<Node<K, V>> queue = new Queue<>();
+            if (_holder.right != null) {
+                queue.enqueue(_holder.right);
+            }
+            while (!queue.isEmpty()) {
+                Node<K, V> node = queue.dequeue();
+                addEntry(entries, node);
+                if (node.left != null) queue.enqueue(node.left);
+                if (node.right != null) queue.enqueue(node.right);
+            }
+        } finally {
+            _writeLock.unlock();
+        }
+        entries.forEach(consumer);
+    }
+
+    /**
+     * 中序遍历次序的迭代器，迭代的是创建时的快照
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return snapshot().iterator();
+    }
+
+    /**
+     * 基于快照的Spliterator，快照是数组，可以按下标精确拆分
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return snapshot().spliterator();
+    }
+
+    private List<Entry<K, V>> snapshot() {
+        List<Entry<K, V>> entries = new ArrayList<>(_size);
+        traverseInOrder(entries::add);
+        return entries;
+    }
+
+    /**
+     * 无锁查找，返回key对应的值，不存在时返回{@link #ROUTING}
+     */
+    @Nullable
+    private Object getValue(K key) {
+        Assert.notNull(key, "key is required");
+        retry:
+        while (true) {
+            // 从哨兵出发，它的版本号始终为0，根节点在它的右侧
+            Node<K, V> node = _holder;
+            long version = 0;
+            int order = 1;
+            while (true) {
+                Node<K, V> child = order < 0 ? node.left : node.right;
+                if (node.version != version) continue retry;
+                if (child == null) return ROUTING;
+                long childVersion = child.version;
+                if (childVersion == UNLINKED || (childVersion & 1) != 0) {
+                    // 孩子正在收缩或者已被摘除，等它稳定下来重新读取
+                    waitUntilChanged(child, childVersion);
+                    continue;
+                }
+                if (child != (order < 0 ? node.left : node.right)) continue;
+                if (node.version != version) continue retry;
+                // 此时child及其版本号对应着node在version时的孩子
+                node = child;
+                version = childVersion;
+                order = compare(key, node.key);
+                if (order == 0) {
+                    // 键不会在节点之间移动，值是原子读出的
+                    return node.value;
+                }
+            }
+        }
+    }
+
+    private static void waitUntilChanged(Node<?, ?> node, long version) {
+        if (version == UNLINKED) return;
+        while (node.version == version) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 自node起向上更新高度、恢复平衡，顺带摘除只剩下不多于一个孩子的路由节点
+     */
+    private void fixUp(Node<K, V> node) {
+        while (node != _holder) {
+            if (isRedundant(node)) {
+                Node<K, V> parent = node.parent;
+                unlink(node);
+                node = parent;
+                continue;
+            }
+            int balance = heightOf(node.left) - heightOf(node.right);
+            if (balance >= -1 && balance <= 1) {
+                node.updateHeight();
+                node = node.parent;
+                continue;
+            }
+            // 下沉的节点可能因此失去孩子
+            Node<K, V> demoted = null;
+            Node<K, V> pivot;
+            if (balance > 1) {
+                if (heightOf(node.left.left) < heightOf(node.left.right)) {
+                    demoted = node.left;
+                    rotateLeft(demoted);
+                }
+                pivot = rotateRight(node);
+            } else {
+                if (heightOf(node.right.right) < heightOf(node.right.left)) {
+                    demoted = node.right;
+                    rotateRight(demoted);
+                }
+                pivot = rotateLeft(node);
+            }
+            // 下沉的节点都是pivot的孩子，摘除之后重新调整pivot
+            boolean unlinked = unlinkIfRedundant(node);
+            if (demoted != null) {
+                unlinked |= unlinkIfRedundant(demoted);
+            }
+            node = unlinked ? pivot : pivot.parent;
+        }
+    }
+
+    /**
+     * 只剩下不多于一个孩子的路由节点是多余的
+     */
+    private boolean isRedundant(Node<K, V> node) {
+        return node.isRouting() && (node.left == null || node.right == null);
+    }
+
+    private boolean unlinkIfRedundant(Node<K, V> node) {
+        if (!isRedundant(node)) return false;
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * 摘除至多只有一个孩子的节点，由孩子顶替它的位置
+     */
+    private void unlink(Node<K, V> node) {
+        Node<K, V> child = node.left != null ? node.left : node.right;
+        Node<K, V> parent = node.parent;
+        node.version = UNLINKED;
+        if (child != null) {
+            child.parent = parent;
+        }
+        replaceChild(parent, node, child);
+    }
+
+    /**
+     * 右旋，node下沉、其左孩子上浮，返回上浮的节点
+     *
+     * @see BinaryNode#zig()
+     */
+    private Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = node.left;
+        Node<K, V> parent = node.parent;
+        // node覆盖的区间收缩，先令版本号变为奇数
+        node.version += 1;
+        node.left = pivot.right;
+        if (pivot.right != null) {
+            pivot.right.parent = node;
+        }
+        pivot.right = node;
+        node.parent = pivot;
+        pivot.parent = parent;
+        replaceChild(parent, node, pivot);
+        node.updateHeight();
+        pivot.updateHeight();
+        node.version += 1;
+        return pivot;
+    }
+
+    /**
+     * 左旋，node下沉、其右孩子上浮，返回上浮的节点
+     *
+     * @see BinaryNode#zag()
+     */
+    private Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = node.right;
+        Node<K, V> parent = node.parent;
+        node.version += 1;
+        node.right = pivot.left;
+        if (pivot.left != null) {
+            pivot.left.parent = node;
+        }
+        pivot.left = node;
+        node.parent = pivot;
+        pivot.parent = parent;
+        replaceChild(parent, node, pivot);
+        node.updateHeight();
+        pivot.updateHeight();
+        node.version += 1;
+        return pivot;
+    }
+
+    private void replaceChild(Node<K, V> parent, Node<K, V> oldChild, @Nullable Node<K, V> newChild) {
+        if (parent.left == oldChild) {
+            parent.left = newChild;
+        } else {
+            parent.right = newChild;
+        }
+    }
+
+    private void forEach(Consumer<Entry<K, V>> consumer, int order) {
+        Assert.notNull(consumer, "consumer is required");
+        List<Entry<K, V>> entries = new ArrayList<>();
+        _writeLock.lock();
+        try {
+            collect(_holder.right, entries, order);
+        } finally {
+            _writeLock.unlock();
+        }
+        entries.forEach(consumer);
+    }
+
+    private void collect(@Nullable Node<K, V> node, List<Entry<K, V>> entries, int order) {
+        if (node == null) return;
+        if (order == 0) addEntry(entries, node);
+        collect(node.left, entries, order);
+        if (order == 1) addEntry(entries, node);
+        collect(node.right, entries, order);
+        if (order == 2) addEntry(entries, node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addEntry(List<Entry<K, V>> entries, Node<K, V> node) {
+        if (node.value != ROUTING) {
+            entries.add(new Entry<>(node.key, (V) node.value));
+        }
+    }
+
+    private int compare(K lhs, K rhs) {
+        return Comparators.compare(lhs, rhs, _comparator);
+    }
+
+    private static int heightOf(@Nullable Node<?, ?> node) {
+        return node != null ? node.height : -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Entry<K, V> e : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append("=").append(e.getValue());
+        }
+        return sb.append("}").toString();
+    }
+
+    @VisibleForTesting
+    static final class Node<K, V> {
+
+        final K key;
+
+        /**
+         * 节点的值，路由节点为{@link #ROUTING}
+         */
+        @Nullable
+        volatile Object value;
+
+        /**
+         * 偶数表示稳定，奇数表示正在收缩，{@link #UNLINKED}表示已被摘除
+         */
+        volatile long version;
+
+        @Nullable
+        volatile Node<K, V> left;
+
+        @Nullable
+        volatile Node<K, V> right;
+
+        /**
+         * 以下字段只由持有写锁的线程访问
+         */
+        Node<K, V> parent;
+
+        int height = 0;
+
+        Node(K key, @Nullable V value, @Nullable Node<K, V> parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+        }
+
+        boolean isRouting() {
+            return value == ROUTING;
+        }
+
+        void updateHeight() {
+            height = Math.max(heightOf(left), heightOf(right)) + 1;
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 坐标格式（COO）的稀疏矩阵，以三元组（row, column, value）的列表存储，
+ * 添加元素的代价为均摊O(1)，适合用来构建矩阵，构建完成后通过
+ * {@link #toCsr()}、{@link #toCsc()}转换为压缩格式再做运算。
+ *
+ * 允许在同一位置多次添加，它们的值会被累加。
+ */
+public class CooMatrix implements SparseMatrix {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** 行数 */
+    private final int _rows;
+
+    /** 列数 */
+    private final int _columns;
+
+    private int[] _rowIndices;
+
+    private int[] _columnIndices;
+
+    private double[] _values;
+
+    private int _size = 0;
+
+    public CooMatrix(int rows, int columns) {
+        Assert.isTrue(rows >= 0, "rows[{}] must be positive", rows);
+        Assert.isTrue(columns >= 0, "columns[{}] must be positive", columns);
+        _rows = rows;
+        _columns = columns;
+        _rowIndices = new int[DEFAULT_CAPACITY];
+        _columnIndices = new int[DEFAULT_CAPACITY];
+        _values = new double[DEFAULT_CAPACITY];
+    }
+
+    @Override
+    public int getRows() {
+        return _rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return _columns;
+    }
+
+    /**
+     * 在指定位置累加value
+     */
+    public void add(int row, int column, double value) {
+        checkIndex(row, column);
+        if (_size == _values.length) {
+            int capacity = _size + (_size >> 1);
+            _rowIndices = Arrays.copyOf(_rowIndices, capacity);
+            _columnIndices = Arrays.copyOf(_columnIndices, capacity);
+            _values = Arrays.copyOf(_values, capacity);
+        }
+        _rowIndices[_size] = row;
+        _columnIndices[_size] = column;
+        _values[_size] = value;
+        _size += 1;
+    }
+
+    /**
+     * 获取某个位置的值，需要扫描所有三元组，O(nnz)
+     */
+    @Override
+    public double get(int row, int column) {
+        checkIndex(row, column);
+        double sum = 0;
+        for (int i = 0; i < _size; i++) {
+            if (_rowIndices[i] == row && _columnIndices[i] == column) {
+                sum += _values[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 三元组的个数，同一位置多次添加时会被重复计数
+     */
+    @Override
+    public int nnz() {
+        return _size;
+    }
+
+    /**
+     * 按添加的次序访问所有三元组
+     */
+    @Override
+    public void forEachNonZero(NonZeroConsumer consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        for (int i = 0; i < _size; i++) {
+            consumer.accept(_rowIndices[i], _columnIndices[i], _values[i]);
+        }
+    }
+
+    public CsrMatrix toCsr() {
+        return CompressedMatrix.compress(_rows, _columns, _size, _rowIndices, _columnIndices, _values,
+                (pointers, indices, values) -> new CsrMatrix(_rows, _columns, pointers, indices, values));
+    }
+
+    public CscMatrix toCsc() {
+        return CompressedMatrix.compress(_columns, _rows, _size, _columnIndices, _rowIndices, _values,
+                (pointers, indices, values) -> new CscMatrix(_rows, _columns, pointers, indices, values));
+    }
+
+    private void checkIndex(int row, int column) {
+        if (row < 0 || row >= _rows) {
+            throw new IllegalArgumentException("row[" + row + "] out of range");
+        }
+        if (column < 0 || column >= _columns) {
+            throw new IllegalArgumentException("column[" + column + "] out of range");
+        }
+    }
+
+}
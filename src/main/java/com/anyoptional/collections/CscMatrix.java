@@ -0,0 +1,87 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+/**
+ * 按列压缩（CSC）的稀疏矩阵，构建完成后不可修改。
+ *
+ * 第j列的非零元素存放在[pointers[j], pointers[j + 1])中，按行下标递增排列，
+ * 适合按列访问，以及向量乘矩阵这类按列累加的运算。
+ */
+public class CscMatrix extends CompressedMatrix {
+
+    CscMatrix(int rows, int columns, int[] pointers, int[] indices, double[] values) {
+        super(columns, rows, pointers, indices, values);
+    }
+
+    @Override
+    public int getRows() {
+        return _minors;
+    }
+
+    @Override
+    public int getColumns() {
+        return _majors;
+    }
+
+    /**
+     * 获取某个位置的值，在该列中二分查找，O(log(nnz of column))
+     */
+    @Override
+    public double get(int row, int column) {
+        checkIndex(row, column, _minors, _majors);
+        return valueAt(column, row);
+    }
+
+    /**
+     * 逐列访问所有非零元素
+     */
+    @Override
+    public void forEachNonZero(NonZeroConsumer consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        for (int j = 0; j < _majors; j++) {
+            for (int p = _pointers[j]; p < _pointers[j + 1]; p++) {
+                consumer.accept(_indices[p], j, _values[p]);
+            }
+        }
+    }
+
+    /**
+     * 截取[from, to)这些列
+     */
+    public CscMatrix columns(int from, int to) {
+        return slice(from, to, (pointers, indices, values) -> new CscMatrix(_minors, to - from, pointers, indices, values));
+    }
+
+    /**
+     * 转置，A的CSC恰好就是A^T的CSR，与当前矩阵共享存储，O(1)
+     */
+    public CsrMatrix transpose() {
+        return new CsrMatrix(_majors, _minors, _pointers, _indices, _values);
+    }
+
+    /**
+     * 转换为按行压缩的格式，O(nnz + rows + columns)
+     */
+    public CsrMatrix toCsr() {
+        return transpose((pointers, indices, values) -> new CsrMatrix(_minors, _majors, pointers, indices, values));
+    }
+
+    /**
+     * 矩阵乘向量，逐列将vector[j]倍的第j列累加到结果中
+     */
+    public double[] multiply(double[] vector) {
+        Assert.notNull(vector, "vector is required");
+        Assert.isTrue(vector.length == _majors, "columns[{}] does not match length[{}]", _majors, vector.length);
+        double[] result = new double[_minors];
+        for (int j = 0; j < _majors; j++) {
+            double x = vector[j];
+            if (x == 0) continue;
+            for (int p = _pointers[j]; p < _pointers[j + 1]; p++) {
+                result[_indices[p]] += _values[p] * x;
+            }
+        }
+        return result;
+    }
+
+}
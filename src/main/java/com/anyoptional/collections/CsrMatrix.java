@@ -0,0 +1,192 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 按行压缩（CSR）的稀疏矩阵，构建完成后不可修改。
+ *
+ * 第i行的非零元素存放在[pointers[i], pointers[i + 1])中，按列下标递增排列。
+ * 按行访问、矩阵乘向量、矩阵乘矩阵的代价都只与非零元素的个数有关。
+ */
+public class CsrMatrix extends CompressedMatrix {
+
+    CsrMatrix(int rows, int columns, int[] pointers, int[] indices, double[] values) {
+        super(rows, columns, pointers, indices, values);
+    }
+
+    /**
+     * 由稠密的二维数组构建，只保留非零的元素
+     */
+    public static CsrMatrix fromDense(DoubleArray2D dense) {
+        Assert.notNull(dense, "dense is required");
+        int rows = dense.getRows();
+        int columns = dense.getColumns();
+        int[] pointers = new int[rows + 1];
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                double value = dense.get(i, j);
+                if (value == 0) continue;
+                if (k == values.length) {
+                    indices = Arrays.copyOf(indices, k << 1);
+                    values = Arrays.copyOf(values, k << 1);
+                }
+                indices[k] = j;
+                values[k++] = value;
+            }
+            pointers[i + 1] = k;
+        }
+        return new CsrMatrix(rows, columns, pointers, Arrays.copyOf(indices, k), Arrays.copyOf(values, k));
+    }
+
+    @Override
+    public int getRows() {
+        return _majors;
+    }
+
+    @Override
+    public int getColumns() {
+        return _minors;
+    }
+
+    /**
+     * 获取某个位置的值，在该行中二分查找，O(log(nnz of row))
+     */
+    @Override
+    public double get(int row, int column) {
+        checkIndex(row, column, _majors, _minors);
+        return valueAt(row, column);
+    }
+
+    /**
+     * 逐行访问所有非零元素
+     */
+    @Override
+    public void forEachNonZero(NonZeroConsumer consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        for (int i = 0; i < _majors; i++) {
+            for (int p = _pointers[i]; p < _pointers[i + 1]; p++) {
+                consumer.accept(i, _indices[p], _values[p]);
+            }
+        }
+    }
+
+    /**
+     * 截取[from, to)这些行
+     */
+    public CsrMatrix rows(int from, int to) {
+        return slice(from, to, (pointers, indices, values) -> new CsrMatrix(to - from, _minors, pointers, indices, values));
+    }
+
+    /**
+     * 转置，A的CSR恰好就是A^T的CSC，与当前矩阵共享存储，O(1)
+     */
+    public CscMatrix transpose() {
+        return new CscMatrix(_minors, _majors, _pointers, _indices, _values);
+    }
+
+    /**
+     * 转换为按列压缩的格式，O(nnz + rows + columns)
+     */
+    public CscMatrix toCsc() {
+        return transpose((pointers, indices, values) -> new CscMatrix(_majors, _minors, pointers, indices, values));
+    }
+
+    /**
+     * 矩阵乘向量
+     */
+    public double[] multiply(double[] vector) {
+        Assert.notNull(vector, "vector is required");
+        Assert.isTrue(vector.length == _minors, "columns[{}] does not match length[{}]", _minors, vector.length);
+        double[] result = new double[_majors];
+        for (int i = 0; i < _majors; i++) {
+            double sum = 0;
+            for (int p = _pointers[i]; p < _pointers[i + 1]; p++) {
+                sum += _values[p] * vector[_indices[p]];
+            }
+            result[i] = sum;
+        }
+        return result;
+    }
+
+    /**
+     * 稀疏矩阵乘稠密矩阵，第i行的结果是第i行的非零元素对dense中相应行的线性组合
+     */
+    public DoubleArray2D multiply(DoubleArray2D dense) {
+        Assert.notNull(dense, "dense is required");
+        Assert.isTrue(dense.getRows() == _minors, "columns[{}] does not match rows[{}]", _minors, dense.getRows());
+        int columns = dense.getColumns();
+        DoubleArray2D result = new DoubleArray2D(_majors, columns);
+        double[] sum = new double[columns];
+        for (int i = 0; i < _majors; i++) {
+            Arrays.fill(sum, 0);
+            for (int p = _pointers[i]; p < _pointers[i + 1]; p++) {
+                int k = _indices[p];
+                double a = _values[p];
+                for (int j = 0; j < columns; j++) {
+                    sum[j] += a * dense.get(k, j);
+                }
+            }
+            for (int j = 0; j < columns; j++) {
+                result.set(i, j, sum[j]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 稀疏矩阵乘稀疏矩阵（Gustavson算法）
+     *
+     * 逐行计算结果：第i行是this第i行的非零元素对other中相应行的线性组合，
+     * 用一个稠密的累加器加上标记数组收集这一行出现过的列，代价与实际参与
+     * 运算的非零元素乘积的个数成正比。
+     */
+    public CsrMatrix multiply(CsrMatrix other) {
+        Assert.notNull(other, "other is required");
+        Assert.isTrue(other._majors == _minors, "columns[{}] does not match rows[{}]", _minors, other._majors);
+        int columns = other._minors;
+        double[] sum = new double[columns];
+        // marker[j] == i 表示第i行中已经出现过第j列
+        int[] marker = new int[columns];
+        Arrays.fill(marker, -1);
+        int[] touched = new int[columns];
+        int[] pointers = new int[_majors + 1];
+        int[] indices = new int[Math.max(16, nnz())];
+        double[] values = new double[indices.length];
+        int k = 0;
+        for (int i = 0; i < _majors; i++) {
+            int count = 0;
+            for (int p = _pointers[i]; p < _pointers[i + 1]; p++) {
+                int row = _indices[p];
+                double a = _values[p];
+                for (int q = other._pointers[row]; q < other._pointers[row + 1]; q++) {
+                    int j = other._indices[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        sum[j] = 0;
+                        touched[count++] = j;
+                    }
+                    sum[j] += a * other._values[q];
+                }
+            }
+            // 保持列下标有序
+            Arrays.sort(touched, 0, count);
+            if (k + count > indices.length) {
+                int capacity = Math.max(k + count, indices.length << 1);
+                indices = Arrays.copyOf(indices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            for (int t = 0; t < count; t++) {
+                indices[k] = touched[t];
+                values[k++] = sum[touched[t]];
+            }
+            pointers[i + 1] = k;
+        }
+        return new CsrMatrix(_majors, columns, pointers, Arrays.copyOf(indices, k), Arrays.copyOf(values, k));
+    }
+
+}
@@ -2,7 +2,9 @@ package com.anyoptional.collections;
 
 import com.anyoptional.lang.Nullable;
 import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Comparators;
 
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 
@@ -47,18 +49,24 @@ public class Entry<K, V> implements Map.Entry<K, V> {
         return old;
     }
 
+    /**
+     * 遵循{@link Map.Entry#equals(Object)}的约定，可以与其它Map.Entry实现比较
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Entry<?, ?> entry = (Entry<?, ?>) o;
-        return _key.equals(entry._key) &&
-                Objects.equals(_value, entry._value);
+        if (!(o instanceof Map.Entry)) return false;
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        return _key.equals(entry.getKey()) &&
+                Objects.equals(_value, entry.getValue());
     }
 
+    /**
+     * 遵循{@link Map.Entry#hashCode()}的约定
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(_key, _value);
+        return Objects.hashCode(_key) ^ Objects.hashCode(_value);
     }
 
     @Override
@@ -69,4 +77,11 @@ public class Entry<K, V> implements Map.Entry<K, V> {
         return "(" + _key + ", " + _value + ")";
     }
 
+    /**
+     * 按键比较词条的比较器，comparator为null时使用键的自然次序
+     */
+    static <K, V> Comparator<Entry<K, V>> comparingKey(@Nullable Comparator<? super K> comparator) {
+        return (lhs, rhs) -> Comparators.compare(lhs.getKey(), rhs.getKey(), comparator);
+    }
+
 }
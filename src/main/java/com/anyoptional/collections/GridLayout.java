@@ -0,0 +1,25 @@
+package com.anyoptional.collections;
+
+/**
+ * 二维数组中元素在一维存储上的排列方式
+ */
+public enum GridLayout {
+
+    /**
+     * 逐行存放，同一行相邻的元素在内存中也相邻
+     */
+    ROW_MAJOR,
+
+    /**
+     * 逐列存放，同一列相邻的元素在内存中也相邻
+     */
+    COLUMN_MAJOR,
+
+    /**
+     * 分块存放，网格被划分为32 * 32的块，块与块之间逐行排列，块内也逐行存放，
+     * 行、列数会被补齐到32的倍数。无论按行还是按列访问，一个块内的元素都集中在
+     * 一段连续的内存中，适合转置、矩阵乘法等同时需要两个方向访问的运算
+     */
+    TILED
+
+}
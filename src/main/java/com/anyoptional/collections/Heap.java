@@ -6,6 +6,8 @@ import com.anyoptional.util.Assert;
 import com.anyoptional.util.Comparators;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * 堆在逻辑上等同于一颗完全二叉树，物理上使用数组来表示。
@@ -21,6 +23,17 @@ import java.util.*;
  */
 public class Heap<E> {
 
+    /**
+     * 批量建堆时，元素个数超过该阈值才会启用并行的弗洛伊德建堆算法
+     */
+    @VisibleForTesting
+    static final int PARALLEL_HEAPIFY_THRESHOLD = 1 << 16;
+
+    /**
+     * 并行建堆时，规模不超过该阈值的子树将不再拆分，直接串行处理
+     */
+    private static final int SEQUENTIAL_SUBTREE_THRESHOLD = 1 << 13;
+
     @VisibleForTesting
     final List<E> _storage = new ArrayList<>();
 
@@ -74,6 +87,25 @@ public class Heap<E> {
         return result;
     }
 
+    /**
+     * 替换顶端元素，返回被替换的元素
+     *
+     * 等价于先remove()再insert(element)，但只需要一次下滤。
+     * 多路归并时，每输出一个元素就用同一路的下一个元素顶替它，
+     * 这正是replace-top的用武之地。
+     */
+    @Nullable
+    public E replaceTop(E element) {
+        Assert.notNull(element, "element is required");
+        if (isEmpty()) {
+            insert(element);
+            return null;
+        }
+        E result = _storage.set(0, element);
+        shiftDown(0, size());
+        return result;
+    }
+
     /**
      * 删除指定位置的元素
      */
@@ -122,6 +154,18 @@ public class Heap<E> {
 //        }
         // 弗洛伊德建堆算法 O(n)
         _storage.addAll(c);
+        if (size() < PARALLEL_HEAPIFY_THRESHOLD) {
+            heapify();
+        } else {
+            parallelHeapify();
+        }
+    }
+
+    /**
+     * 串行的弗洛伊德建堆
+     */
+    @VisibleForTesting
+    void heapify() {
         // 从最后一个内部节点开始，局部下滤调整
         // 每一次下滤调整都会获得一个局部有效的
         // 堆，直至下滤到根节点，整堆也必然有序
@@ -130,6 +174,71 @@ public class Heap<E> {
         }
     }
 
+    /**
+     * 并行的弗洛伊德建堆
+     *
+     * 以不同节点为根的子树互不相交，它们的下滤调整互不干扰，
+     * 因此可以先并行地将左、右子树各自调整为堆，再由当前
+     * 节点下滤完成合并。越靠近根节点，可并行的子树越少，
+     * 顶部的若干层实际上是在fork/join的汇合过程中串行完成的。
+     *
+     * @apiNote comparator必须是线程安全的
+     */
+    @VisibleForTesting
+    void parallelHeapify() {
+        if (size() < 2) return;
+        ForkJoinPool.commonPool().invoke(new HeapifyAction(0));
+    }
+
+    /**
+     * 串行地将以index为根的子树调整为堆
+     *
+     * 子树中同一层的节点在数组中是连续的，自底向上逐层下滤，
+     * 对缓存更加友好
+     */
+    private void heapifySubtree(int index) {
+        int endIndex = _storage.size();
+        // 找出子树中最深的一层
+        int depth = 0;
+        long first = index;
+        while (2 * first + 1 < endIndex) {
+            first = 2 * first + 1;
+            depth += 1;
+        }
+        // 叶子所在层无需下滤
+        for (int d = depth - 1; d >= 0; d--) {
+            int from = (int) (((long) index + 1 << d) - 1);
+            int to = (int) Math.min((long) from + (1L << d), endIndex);
+            for (int i = to - 1; i >= from; i--) {
+                shiftDown(i, endIndex);
+            }
+        }
+    }
+
+    private class HeapifyAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+
+        HeapifyAction(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            // 以index为根的子树规模大约为 size / (index + 1)
+            if (size() / (index + 1) <= SEQUENTIAL_SUBTREE_THRESHOLD) {
+                heapifySubtree(index);
+                return;
+            }
+            // 左、右子树必然存在
+            invokeAll(new HeapifyAction(leftChildIndexOf(index)),
+                    new HeapifyAction(rightChildIndexOf(index)));
+            shiftDown(index, _storage.size());
+        }
+    }
+
     /**
      * 堆合并（左式堆可实现更高效的合并策略）
      */
@@ -163,26 +272,37 @@ public class Heap<E> {
      * 下滤
      */
     private void shiftDown(int parentIndex, int endIndex) {
-        // 找到左右节点的位置
-        int leftChildIndex = leftChildIndexOf(parentIndex);
-        int rightChildIndex = rightChildIndexOf(parentIndex);
-        // 在parent、left child和right child三者中取优先级最大的做新的parent
-        int greatestIndex = parentIndex;
-        if (leftChildIndex < endIndex &&
-                Comparators.compare(_storage.get(leftChildIndex), _storage.get(greatestIndex), _comparator) > 0) {
-            greatestIndex = leftChildIndex;
-        }
-        if (rightChildIndex < endIndex &&
-                Comparators.compare(_storage.get(rightChildIndex), _storage.get(greatestIndex), _comparator) > 0) {
-            greatestIndex = rightChildIndex;
+        // 待下滤的节点
+        E parent = _storage.get(parentIndex);
+        while (true) {
+            // 找到左右节点的位置
+            int leftChildIndex = leftChildIndexOf(parentIndex);
+            int rightChildIndex = leftChildIndex + 1;
+            // 在parent、left child和right child三者中取优先级最大的做新的parent
+            int greatestIndex = parentIndex;
+            E greatest = parent;
+            if (leftChildIndex < endIndex) {
+                E leftChild = _storage.get(leftChildIndex);
+                if (Comparators.compare(leftChild, greatest, _comparator) > 0) {
+                    greatestIndex = leftChildIndex;
+                    greatest = leftChild;
+                }
+            }
+            if (rightChildIndex < endIndex) {
+                E rightChild = _storage.get(rightChildIndex);
+                if (Comparators.compare(rightChild, greatest, _comparator) > 0) {
+                    greatestIndex = rightChildIndex;
+                    greatest = rightChild;
+                }
+            }
+            // 如果parent就是最大的，说明已经满足条件
+            if (greatestIndex == parentIndex) break;
+            // 否则孩子节点上移，继续往下看看是否需要交换
+            _storage.set(parentIndex, greatest);
+            parentIndex = greatestIndex;
         }
-        // 如果parent就是最大的，说明已经满足条件
-        if (greatestIndex == parentIndex) return;
-        // 否则将parent与新顶点交换位置
-        E oldParent = _storage.set(parentIndex, _storage.get(greatestIndex));
-        _storage.set(greatestIndex, oldParent);
-        // 继续往下看看是否需要交换
-        shiftDown(greatestIndex, endIndex);
+        // 此时parentIndex就是parent该处的位置了
+        _storage.set(parentIndex, parent);
     }
 
     /**
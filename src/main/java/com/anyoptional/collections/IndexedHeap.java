@@ -0,0 +1,212 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 索引堆，堆中的元素是[0, capacity)范围内的整数索引，每个索引关联一个long型的键，
+ * 键越小优先级越高。
+ *
+ * 和{@link Heap}相比，索引堆额外记录了每个索引在堆中的位置，因此可以在O(logn)的
+ * 时间内调整任意元素的键（decrease-key），这正是Dijkstra、Prim等算法所需要的。
+ * 所有数据都保存在基本类型数组中，既没有装箱，也不需要比较器。
+ */
+public class IndexedHeap {
+
+    private static final int ABSENT = -1;
+
+    /**
+     * 依层次遍历次序存放的索引
+     */
+    @VisibleForTesting
+    final int[] _heap;
+
+    /**
+     * 索引在_heap中的位置，不在堆中时为ABSENT
+     */
+    private final int[] _positions;
+
+    /**
+     * 索引关联的键
+     */
+    private final long[] _keys;
+
+    private int _size = 0;
+
+    public IndexedHeap(int capacity) {
+        Assert.isTrue(capacity >= 0, "capacity[{}] must be positive", capacity);
+        _heap = new int[capacity];
+        _positions = new int[capacity];
+        _keys = new long[capacity];
+        Arrays.fill(_positions, ABSENT);
+    }
+
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    public int capacity() {
+        return _heap.length;
+    }
+
+    /**
+     * 索引是否在堆中
+     */
+    public boolean contains(int index) {
+        checkIndex(index);
+        return _positions[index] != ABSENT;
+    }
+
+    /**
+     * 索引关联的键
+     */
+    public long keyOf(int index) {
+        Assert.isTrue(contains(index), "index[{}] is not in heap", index);
+        return _keys[index];
+    }
+
+    /**
+     * 插入一个索引
+     */
+    public void insert(int index, long key) {
+        Assert.isTrue(!contains(index), "index[{}] is already in heap", index);
+        _heap[_size] = index;
+        _positions[index] = _size;
+        _keys[index] = key;
+        shiftUp(_size++);
+    }
+
+    /**
+     * 将索引关联的键调小
+     */
+    public void decreaseKey(int index, long key) {
+        Assert.isTrue(contains(index), "index[{}] is not in heap", index);
+        Assert.isTrue(key <= _keys[index], "key[{}] must not be greater than current key[{}]", key, _keys[index]);
+        _keys[index] = key;
+        shiftUp(_positions[index]);
+    }
+
+    /**
+     * 插入索引，若已在堆中且新键更小则调小其键，
+     * 返回堆是否发生了变化
+     */
+    public boolean insertOrDecrease(int index, long key) {
+        if (!contains(index)) {
+            insert(index, key);
+            return true;
+        }
+        if (key < _keys[index]) {
+            decreaseKey(index, key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 读取键最小的索引
+     */
+    public int peek() {
+        Assert.isTrue(!isEmpty(), "heap is empty");
+        return _heap[0];
+    }
+
+    /**
+     * 最小的键
+     */
+    public long peekKey() {
+        return _keys[peek()];
+    }
+
+    /**
+     * 删除键最小的索引
+     */
+    public int remove() {
+        int result = peek();
+        _positions[result] = ABSENT;
+        // 选取最后一个元素来充当根节点，如此不破坏整体结构性
+        int last = _heap[--_size];
+        if (_size > 0) {
+            _heap[0] = last;
+            _positions[last] = 0;
+            shiftDown(0);
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < _size; i++) {
+            _positions[_heap[i]] = ABSENT;
+        }
+        _size = 0;
+    }
+
+    /**
+     * 上滤
+     */
+    private void shiftUp(int childIndex) {
+        int child = _heap[childIndex];
+        long key = _keys[child];
+        while (childIndex > 0) {
+            int parentIndex = (childIndex - 1) >>> 1;
+            int parent = _heap[parentIndex];
+            if (_keys[parent] <= key) break;
+            // 父节点下移
+            _heap[childIndex] = parent;
+            _positions[parent] = childIndex;
+            childIndex = parentIndex;
+        }
+        _heap[childIndex] = child;
+        _positions[child] = childIndex;
+    }
+
+    /**
+     * 下滤
+     */
+    private void shiftDown(int parentIndex) {
+        int parent = _heap[parentIndex];
+        long key = _keys[parent];
+        while (true) {
+            int childIndex = 2 * parentIndex + 1;
+            if (childIndex >= _size) break;
+            // 选取键较小的孩子
+            if (childIndex + 1 < _size && _keys[_heap[childIndex + 1]] < _keys[_heap[childIndex]]) {
+                childIndex += 1;
+            }
+            int child = _heap[childIndex];
+            if (_keys[child] >= key) break;
+            // 孩子节点上移
+            _heap[parentIndex] = child;
+            _positions[child] = parentIndex;
+            parentIndex = childIndex;
+        }
+        _heap[parentIndex] = parent;
+        _positions[parent] = parentIndex;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= _heap.length) {
+            throw new IllegalArgumentException("index[" + index + "] out of range");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < _size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("(").append(_heap[i]).append(", ").append(_keys[_heap[i]]).append(")");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
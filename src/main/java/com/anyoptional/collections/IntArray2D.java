@@ -0,0 +1,254 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 元素为int的二维数组，是{@link Array2D}针对基本类型的特化版本。
+ *
+ * 支持逐行、逐列两种布局，元素既可以存放在堆上的int[]中，也可以通过
+ * {@link #offHeap(int, int, GridLayout)}存放在堆外的direct buffer中，
+ * 后者不占用Java堆，适合超出堆大小的网格，但元素个数同样不能超过Integer.MAX_VALUE - 8。
+ *
+ * 转置、矩阵乘法以及{@link #mapInPlace(IntUnaryOperator)}都针对缓存做了分块，
+ * 规模较大时并行执行。
+ */
+public class IntArray2D extends PrimitiveArray2D {
+
+    /**
+     * 矩阵乘法分块的边长
+     */
+    private static final int MULTIPLY_BLOCK = 64;
+
+    @Nullable
+    private final int[] _array;
+
+    @Nullable
+    private final IntBuffer[] _buffers;
+
+    /**
+     * 初始化一个指定行、列数的二维数组，逐行存放，数组中的元素用0填充。
+     */
+    public IntArray2D(int rows, int columns) {
+        this(rows, columns, GridLayout.ROW_MAJOR);
+    }
+
+    /**
+     * 初始化一个指定行、列数、布局的二维数组，数组中的元素用0填充。
+     */
+    public IntArray2D(int rows, int columns, GridLayout layout) {
+        this(rows, columns, layout, false);
+    }
+
+    private IntArray2D(int rows, int columns, GridLayout layout, boolean offHeap) {
+        super(rows, columns, layout);
+        _array = offHeap ? null : new int[capacity()];
+        _buffers = offHeap ? allocateBuffers(capacity()) : null;
+    }
+
+    /**
+     * 初始化一个元素存放在堆外内存中的二维数组，数组中的元素用0填充。
+     */
+    public static IntArray2D offHeap(int rows, int columns, GridLayout layout) {
+        return new IntArray2D(rows, columns, layout, true);
+    }
+
+    public boolean isOffHeap() {
+        return _buffers != null;
+    }
+
+    /**
+     * 获取某个位置的值
+     */
+    public int get(int row, int column) {
+        int offset = offset(row, column);
+        return _array != null ? _array[offset] : _buffers[offset >>> BUFFER_SHIFT].get(offset & BUFFER_MASK);
+    }
+
+    /**
+     * 设置某个位置的值
+     */
+    public void set(int row, int column, int newValue) {
+        int offset = offset(row, column);
+        if (_array != null) {
+            _array[offset] = newValue;
+        } else {
+            _buffers[offset >>> BUFFER_SHIFT].put(offset & BUFFER_MASK, newValue);
+        }
+    }
+
+    /**
+     * 用value填充整个数组
+     */
+    public void fill(int value) {
+        if (_array != null) {
+            Arrays.fill(_array, value);
+        } else {
+            for (IntBuffer buffer : _buffers) {
+                for (int i = 0; i < buffer.capacity(); i++) {
+                    buffer.put(i, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 对每个元素应用operator，并用结果替换原值，规模较大时并行执行
+     */
+    public void mapInPlace(IntUnaryOperator operator) {
+        Assert.notNull(operator, "operator is required");
+        if (_array != null) {
+            int[] array = _array;
+            forEachOffset(offset -> array[offset] = operator.applyAsInt(array[offset]));
+        } else {
+            IntBuffer[] buffers = _buffers;
+            forEachOffset(offset -> {
+                IntBuffer buffer = buffers[offset >>> BUFFER_SHIFT];
+                int index = offset & BUFFER_MASK;
+                buffer.put(index, operator.applyAsInt(buffer.get(index)));
+            });
+        }
+    }
+
+    /**
+     * 转置，返回一个新的、布局及存储方式相同的二维数组
+     */
+    public IntArray2D transpose() {
+        IntArray2D result = newArray(_columns, _rows);
+        transposeInto(result, 0, _rows, 0, _columns);
+        return result;
+    }
+
+    /**
+     * 矩阵乘法this * other，返回一个新的、布局及存储方式与this相同的二维数组
+     *
+     * 每个任务负责结果中至多MULTIPLY_BLOCK个相邻的行，先在局部缓冲区中累加，
+     * 最后一次写回；k、j两个方向同样按MULTIPLY_BLOCK分块，使得参与运算的
+     * 三个子块能够同时留在缓存中。
+     */
+    public IntArray2D multiply(IntArray2D other) {
+        Assert.notNull(other, "other is required");
+        Assert.isTrue(_columns == other._rows, "columns[{}] does not match rows[{}]", _columns, other._rows);
+        IntArray2D result = newArray(_rows, other._columns);
+        int n = _columns;
+        int p = other._columns;
+        forkJoin(0, _rows, MULTIPLY_BLOCK, (from, to) -> {
+            int[] sum = new int[(to - from) * p];
+            for (int kk = 0; kk < n; kk += MULTIPLY_BLOCK) {
+                int kEnd = Math.min(n, kk + MULTIPLY_BLOCK);
+                for (int jj = 0; jj < p; jj += MULTIPLY_BLOCK) {
+                    int jEnd = Math.min(p, jj + MULTIPLY_BLOCK);
+                    for (int i = from; i < to; i++) {
+                        int base = (i - from) * p;
+                        for (int k = kk; k < kEnd; k++) {
+                            int a = get(i, k);
+                            for (int j = jj; j < jEnd; j++) {
+                                sum[base + j] += a * other.get(k, j);
+                            }
+                        }
+                    }
+                }
+            }
+            for (int i = from; i < to; i++) {
+                for (int j = 0; j < p; j++) {
+                    result.set(i, j, sum[(i - from) * p + j]);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 逐行输出所有元素
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int k = 0;
+        for (int i = 0; i < _rows; i++) {
+            for (int j = 0; j < _columns; j++) {
+                result[k++] = get(i, j);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    void transposeBlock(PrimitiveArray2D target, int fromRow, int toRow, int fromColumn, int toColumn) {
+        IntArray2D result = (IntArray2D) target;
+        for (int i = fromRow; i < toRow; i++) {
+            for (int j = fromColumn; j < toColumn; j++) {
+                result.set(j, i, get(i, j));
+            }
+        }
+    }
+
+    private static IntBuffer[] allocateBuffers(int cells) {
+        ByteBuffer[] bytes = allocateDirect(cells, Integer.BYTES);
+        IntBuffer[] buffers = new IntBuffer[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            buffers[i] = bytes[i].asIntBuffer();
+        }
+        return buffers;
+    }
+
+    private IntArray2D newArray(int rows, int columns) {
+        return isOffHeap() ? offHeap(rows, columns, _layout) : new IntArray2D(rows, columns, _layout);
+    }
+
+    /**
+     * 行、列数以及每个位置的值都相同即相等，与布局、存储方式无关
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntArray2D that = (IntArray2D) o;
+        if (_rows != that._rows || _columns != that._columns) return false;
+        for (int i = 0; i < _rows; i++) {
+            for (int j = 0; j < _columns; j++) {
+                if (Integer.compare(get(i, j), that.get(i, j)) != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * _columns + _rows;
+        for (int i = 0; i < _rows; i++) {
+            for (int j = 0; j < _columns; j++) {
+                result = 31 * result + Integer.hashCode(get(i, j));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < _rows; ++i) {
+            sb.append("[");
+            for (int j = 0; j < _columns; j++) {
+                sb.append(get(i, j));
+                if (j != _columns - 1) {
+                    sb.append(",").append(" ");
+                }
+            }
+            sb.append("]");
+            if (i != _rows - 1) {
+                sb.append(",").append(" ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
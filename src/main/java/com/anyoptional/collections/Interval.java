@@ -0,0 +1,65 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Objects;
+
+/**
+ * 闭区间[lo, hi]，先按左端点、再按右端点排序
+ *
+ * @apiNote Interval do not permit null endpoint.
+ */
+public final class Interval<T extends Comparable<? super T>> implements Comparable<Interval<T>> {
+
+    private final T _lo;
+
+    private final T _hi;
+
+    public Interval(T lo, T hi) {
+        Assert.notNull(lo, "lo is required");
+        Assert.notNull(hi, "hi is required");
+        Assert.isTrue(lo.compareTo(hi) <= 0, "lo must not be greater than hi");
+        _lo = lo;
+        _hi = hi;
+    }
+
+    public T getLo() {
+        return _lo;
+    }
+
+    public T getHi() {
+        return _hi;
+    }
+
+    /**
+     * 是否与闭区间[lo, hi]有交集
+     */
+    public boolean overlaps(T lo, T hi) {
+        return _lo.compareTo(hi) <= 0 && lo.compareTo(_hi) <= 0;
+    }
+
+    @Override
+    public int compareTo(Interval<T> o) {
+        int order = _lo.compareTo(o._lo);
+        return order != 0 ? order : _hi.compareTo(o._hi);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Interval)) return false;
+        Interval<?> interval = (Interval<?>) o;
+        return _lo.equals(interval._lo) && _hi.equals(interval._hi);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(_lo, _hi);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + _lo + ", " + _hi + "]";
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 区间树，以区间为键的AVL树，每个节点额外记录子树中区间右端点的最大值。
+ *
+ * 查询与[lo, hi]相交的区间时，右端点最大值小于lo的子树整个跳过，左端点大于hi的
+ * 节点之后的部分也不再访问，因此只沿命中区间所在的路径下行。
+ *
+ * @apiNote IntervalTree do not permit null endpoint.
+ */
+public class IntervalTree<T extends Comparable<? super T>, V> extends AVLTree<Interval<T>, V> {
+
+    /**
+     * 插入区间[lo, hi]
+     */
+    public void insert(T lo, T hi, @Nullable V value) {
+        insert(new Interval<>(lo, hi), value);
+    }
+
+    /**
+     * 删除区间[lo, hi]
+     */
+    @Nullable
+    public Entry<Interval<T>, V> remove(T lo, T hi) {
+        return remove(new Interval<>(lo, hi));
+    }
+
+    /**
+     * 是否存在与[lo, hi]相交的区间，O(logn)
+     */
+    public boolean overlaps(T lo, T hi) {
+        return anyOverlapping(lo, hi) != null;
+    }
+
+    /**
+     * 任意一个与[lo, hi]相交的区间，O(logn)
+     */
+    @Nullable
+    @SuppressWarnings("all")
+    public Entry<Interval<T>, V> anyOverlapping(T lo, T hi) {
+        checkBounds(lo, hi);
+        BinaryNode<Interval<T>, V> cur = _root;
+        while (cur != null) {
+            if (cur.entry.getKey().overlaps(lo, hi)) {
+                return cur.entry;
+            }
+            // 左子树中有右端点不小于lo的区间时，若它们都不与[lo, hi]相交，
+            // 则它们的左端点都大于hi，右子树中的区间更是如此
+            if (cur.left != null && maxHiOf(cur.left).compareTo(lo) >= 0) {
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按中序次序（左端点升序）访问所有与[lo, hi]相交的区间，
+     * 至多访问O((k + 1)logn)个节点，k为相交的区间数
+     */
+    public void overlapping(T lo, T hi, Consumer<Entry<Interval<T>, V>> consumer) {
+        checkBounds(lo, hi);
+        Assert.notNull(consumer, "consumer is required");
+        collect(_root, lo, hi, consumer);
+    }
+
+    /**
+     * 所有与[lo, hi]相交的区间，按左端点升序排列
+     */
+    public List<Entry<Interval<T>, V>> overlapping(T lo, T hi) {
+        List<Entry<Interval<T>, V>> entries = new ArrayList<>();
+        overlapping(lo, hi, entries::add);
+        return entries;
+    }
+
+    @Override
+    protected BinaryNode<Interval<T>, V> newBinaryNode(Interval<T> key, @Nullable V value,
+                                                        @Nullable BinaryNode<Interval<T>, V> parent) {
+        return new Node<>(key, value, parent);
+    }
+
+    @Override
+    protected BinarySearchTree<Interval<T>, V> newTree() {
+        return new IntervalTree<>();
+    }
+
+    private void collect(@Nullable BinaryNode<Interval<T>, V> node, T lo, T hi,
+                         Consumer<Entry<Interval<T>, V>> consumer) {
+        // 子树中的区间都在lo的左侧
+        if (node == null || maxHiOf(node).compareTo(lo) < 0) return;
+        collect(node.left, lo, hi, consumer);
+        Interval<T> interval = node.entry.getKey();
+        // 右子树中区间的左端点都不小于它，同样在hi的右侧
+        if (interval.getLo().compareTo(hi) > 0) return;
+        if (lo.compareTo(interval.getHi()) <= 0) {
+            consumer.accept(node.entry);
+        }
+        collect(node.right, lo, hi, consumer);
+    }
+
+    private static <T extends Comparable<? super T>> void checkBounds(T lo, T hi) {
+        Assert.notNull(lo, "lo is required");
+        Assert.notNull(hi, "hi is required");
+        Assert.isTrue(lo.compareTo(hi) <= 0, "lo must not be greater than hi");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<? super T>> T maxHiOf(BinaryNode<Interval<T>, ?> node) {
+        return ((Node<T, ?>) node).maxHi;
+    }
+
+    static class Node<T extends Comparable<? super T>, V> extends AVLTree.Node<Interval<T>, V> {
+
+        /**
+         * 子树中区间右端点的最大值
+         */
+        T maxHi;
+
+        Node(Interval<T> key, @Nullable V value, @Nullable BinaryNode<Interval<T>, V> parent) {
+            super(key, value, parent);
+            maxHi = key.getHi();
+        }
+
+        @Override
+        void updateAugmentation() {
+            T max = entry.getKey().getHi();
+            if (left != null && maxHiOf(left).compareTo(max) > 0) {
+                max = maxHiOf(left);
+            }
+            if (right != null && maxHiOf(right).compareTo(max) > 0) {
+                max = maxHiOf(right);
+            }
+            maxHi = max;
+        }
+
+    }
+
+}
@@ -0,0 +1,479 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 无锁的并发跳表，键互不相同，算法来自Herlihy、Shavit的The Art of Multiprocessor Programming。
+ *
+ * 每个节点在第0层到第topLevel - 1层各有一个后继指针，指针与一个删除标记一起
+ * 封装在{@link AtomicMarkableReference}中，所有的修改都是CAS：
+ *  1. 插入先CAS进第0层（此时即对外可见），再自下而上逐层链入
+ *  2. 删除先把节点的值CAS成DELETED（逻辑删除，CAS成功者即为删除的执行者），
+ *     再自上而下标记各层的后继指针，物理摘除由随后的查找顺手完成，
+ *     任何线程遇见被标记的节点都会帮忙把它摘掉
+ *  3. 查询不做任何写操作，直接跳过被标记或者值为DELETED的节点，是wait-free的
+ *
+ * 已存在的键再次插入时只替换值，替换同样是对值的CAS，遇到DELETED说明节点正在被删除，
+ * 帮忙标记之后重新定位、插入新的节点，因此替换与删除不会互相覆盖。遍历、迭代都是弱一致的：不抛出
+ * ConcurrentModificationException，能够看到迭代开始前已经完成的修改，
+ * 可能看到、也可能看不到迭代期间发生的修改。返回的词条都是拷贝，修改它们不会影响跳表。
+ *
+ * 跳表没有二叉树的形状，{@link BinaryTree}的几种遍历次序按如下方式解释：
+ * 把每个节点看作紧随其后、比它矮的那些节点的父亲，得到一颗多叉树，先序遍历就是升序，
+ * 后序遍历中节点排在它所覆盖的那些节点之后；层次遍历自顶向下逐层输出，
+ * 每个节点只在它最高的那一层出现一次。
+ *
+ * @apiNote LockFreeSkipList do not permit null key.
+ */
+public class LockFreeSkipList<K, V> implements BinaryTree<K, V> {
+
+    @VisibleForTesting
+    static final int MAX_LEVEL = 32;
+
+    /**
+     * 逻辑删除的标志，节点的值一旦变成它就不会再改变
+     */
+    private static final Object DELETED = new Object();
+
+    /**
+     * 头哨兵，键视为负无穷；尾哨兵用null表示，键视为正无穷
+     */
+    private final Node<K, V> _head = new Node<>(null, null, MAX_LEVEL);
+
+    private final LongAdder _size = new LongAdder();
+
+    @Nullable
+    private final Comparator<? super K> _comparator;
+
+    public LockFreeSkipList() {
+        _comparator = null;
+    }
+
+    public LockFreeSkipList(Comparator<? super K> comparator) {
+        Assert.notNull(comparator, "comparator is required");
+        _comparator = comparator;
+    }
+
+    /**
+     * 元素个数，并发修改时只是一个近似值
+     */
+    @Override
+    public int size() {
+        long size = _size.sum();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        Node<K, V> node = searchNode(key);
+        return node != null && node.value.get() != DELETED;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V searchValue(K key) {
+        Node<K, V> node = searchNode(key);
+        if (node == null) return null;
+        Object value = node.value.get();
+        return value != DELETED ? (V) value : null;
+    }
+
+    @Nullable
+    @Override
+    public Entry<K, V> search(K key) {
+        return entryOf(searchNode(key));
+    }
+
+    /**
+     * 插入一对键值对，键已存在时只替换值
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void insert(K key, @Nullable V value) {
+        Assert.notNull(key, "key is required");
+        Node<K, V>[] preds = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+        int topLevel = randomLevel();
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                Object current = node.value.get();
+                if (current == DELETED) {
+                    // 节点已被逻辑删除，帮忙标记，随后的查找会把它摘除
+                    markNode(node);
+                    continue;
+                }
+                if (node.value.compareAndSet(current, value)) return;
+                continue;
+            }
+            Node<K, V> node = new Node<>(key, value, topLevel);
+            for (int level = 0; level < topLevel; level++) {
+                node.next[level].set(succs[level], false);
+            }
+            // 链入第0层即插入成功
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) {
+                continue;
+            }
+            _size.increment();
+            for (int level = 1; level < topLevel; level++) {
+                while (true) {
+                    Node<K, V> succ = succs[level];
+                    // 链入之前节点就被删除了，不必再链入更高的层
+                    boolean[] marked = {false};
+                    Node<K, V> expected = node.next[level].get(marked);
+                    if (marked[0]) return;
+                    if (expected != succ && !node.next[level].compareAndSet(expected, succ, false, false)) return;
+                    if (preds[level].next[level].compareAndSet(succ, node, false, false)) break;
+                    find(key, preds, succs);
+                }
+            }
+            return;
+        }
+    }
+
+    /**
+     * 批量插入
+     */
+    @Override
+    public void addAll(Collection<? extends Entry<K, V>> entries) {
+        Assert.notEmpty(entries, "entries is required");
+        for (Entry<K, V> entry : entries) {
+            insert(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 删除key对应的节点，返回被删除的词条
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> remove(K key) {
+        Assert.notNull(key, "key is required");
+        Node<K, V>[] preds = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+        while (true) {
+            if (!find(key, preds, succs)) return null;
+            Node<K, V> victim = succs[0];
+            Object value = victim.value.get();
+            if (value == DELETED) {
+                // 别的线程抢先删除了它，帮忙标记之后重新定位
+                markNode(victim);
+                continue;
+            }
+            // 值CAS成DELETED的线程才是删除的执行者
+            if (!victim.value.compareAndSet(value, DELETED)) continue;
+            _size.decrement();
+            markNode(victim);
+            // 物理摘除
+            find(key, preds, succs);
+            return new Entry<>(key, (V) value);
+        }
+    }
+
+    /**
+     * 自上而下标记node各层的后继指针，重复标记没有副作用
+     */
+    private static <K, V> void markNode(Node<K, V> node) {
+        boolean[] marked = {false};
+        for (int level = node.topLevel - 1; level >= 0; level--) {
+            Node<K, V> succ = node.next[level].get(marked);
+            while (!marked[0]) {
+                node.next[level].compareAndSet(succ, succ, false, true);
+                succ = node.next[level].get(marked);
+            }
+        }
+    }
+
+    /**
+     * 先序遍历，即升序
+     */
+    @Override
+    public void traversePreOrder(Consumer<Entry<K, V>> consumer) {
+        traverseInOrder(consumer);
+    }
+
+    /**
+     * 中序遍历，即升序
+     */
+    @Override
+    public void traverseInOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        boolean[] marked = {false};
+        for (Node<K, V> node = nextNode(_head, 0, marked); node != null; node = nextNode(node, 0, marked)) {
+            acceptLive(node, consumer);
+        }
+    }
+
+    /**
+     * 后序遍历，节点排在紧随其后、比它矮的那些节点之后
+     */
+    @Override
+    public void traversePostOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        Stack<Node<K, V>> stack = new Stack<>();
+        boolean[] marked = {false};
+        for (Node<K, V> node = nextNode(_head, 0, marked); node != null; node = nextNode(node, 0, marked)) {
+            while (!stack.isEmpty() && stack.top().topLevel <= node.topLevel) {
+                acceptLive(stack.pop(), consumer);
+            }
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            acceptLive(stack.pop(), consumer);
+        }
+    }
+
+    /**
+     * 层次遍历，自顶向下逐层输出，每个节点只在它最高的那一层出现
+     */
+    @Override
+    public void traverseLevel(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        boolean[] marked = {false};
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            for (Node<K, V> node = nextNode(_head, level, marked); node != null; node = nextNode(node, level, marked)) {
+                if (node.topLevel == level + 1) {
+                    acceptLive(node, consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * 升序的弱一致迭代器
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new Iter(nextNode(_head, 0, new boolean[1]), null);
+    }
+
+    /**
+     * 基于弱一致迭代器的Spliterator，规模随并发修改变化，因此不报告SIZED
+     */
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+
+    /**
+     * 键落在[lo, hi)之间的词条的弱一致迭代器，先在各层中定位lo，再沿第0层前进
+     */
+    public Iterator<Entry<K, V>> range(K lo, K hi) {
+        Assert.notNull(lo, "lo is required");
+        Assert.notNull(hi, "hi is required");
+        return new Iter(ceilingNode(lo), hi);
+    }
+
+    /**
+     * 定位key在各层的前驱和后继，顺带摘除沿途被标记的节点，返回第0层的后继是否就是key
+     */
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<K, V> pred = _head;
+            for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+                Node<K, V> curr = pred.next[level].getReference();
+                while (curr != null) {
+                    Node<K, V> succ = curr.next[level].get(marked);
+                    if (marked[0]) {
+                        // curr已被逻辑删除，帮忙把它从这一层摘除，失败说明pred也变了，从头再来
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false)) {
+                            continue retry;
+                        }
+                        curr = succ;
+                    } else if (compare(curr.key, key) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return succs[0] != null && compare(succs[0].key, key) == 0;
+        }
+    }
+
+    /**
+     * 只读的查找，跳过被标记的节点
+     */
+    @Nullable
+    private Node<K, V> searchNode(K key) {
+        Node<K, V> node = ceilingNode(key);
+        return node != null && compare(node.key, key) == 0 ? node : null;
+    }
+
+    /**
+     * 第一个键不小于key、未被标记的节点
+     */
+    @Nullable
+    private Node<K, V> ceilingNode(K key) {
+        Assert.notNull(key, "key is required");
+        Node<K, V> pred = _head;
+        Node<K, V> curr = null;
+        boolean[] marked = {false};
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            curr = nextNode(pred, level, marked);
+            while (curr != null && compare(curr.key, key) < 0) {
+                pred = curr;
+                curr = nextNode(curr, level, marked);
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * node在level层上第一个未被标记的后继，marked由调用方提供，沿途逐步复用
+     */
+    @Nullable
+    private static <K, V> Node<K, V> nextNode(Node<K, V> node, int level, boolean[] marked) {
+        Node<K, V> curr = node.next[level].getReference();
+        while (curr != null) {
+            Node<K, V> succ = curr.next[level].get(marked);
+            if (!marked[0]) break;
+            curr = succ;
+        }
+        return curr;
+    }
+
+    private int compare(K lhs, K rhs) {
+        return Comparators.compare(lhs, rhs, _comparator);
+    }
+
+    /**
+     * 以1/2的概率逐层增高
+     */
+    private static int randomLevel() {
+        int random = ThreadLocalRandom.current().nextInt();
+        return Integer.numberOfTrailingZeros(random | (1 << (MAX_LEVEL - 1))) + 1;
+    }
+
+    /**
+     * node的词条拷贝，node为null或者已被逻辑删除时返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V> entryOf(@Nullable Node<K, V> node) {
+        if (node == null) return null;
+        Object value = node.value.get();
+        return value != DELETED ? new Entry<>(node.key, (V) value) : null;
+    }
+
+    private static <K, V> void acceptLive(Node<K, V> node, Consumer<Entry<K, V>> consumer) {
+        Entry<K, V> entry = entryOf(node);
+        if (entry != null) {
+            consumer.accept(entry);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Entry<K, V> e : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append("=").append(e.getValue());
+        }
+        return sb.append("}").toString();
+    }
+
+    private static class Node<K, V> {
+
+        final K key;
+
+        /**
+         * 节点的值，可能为null，逻辑删除之后为{@link #DELETED}
+         */
+        final AtomicReference<Object> value;
+
+        final AtomicMarkableReference<Node<K, V>>[] next;
+
+        final int topLevel;
+
+        @SuppressWarnings("unchecked")
+        Node(K key, @Nullable V value, int topLevel) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            this.topLevel = topLevel;
+            this.next = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference<?>[topLevel];
+            for (int i = 0; i < topLevel; i++) {
+                next[i] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+    }
+
+    private class Iter implements Iterator<Entry<K, V>> {
+
+        @Nullable
+        private Node<K, V> _next;
+
+        /**
+         * _next的词条，在前进时一并读出，跳过前进途中被逻辑删除的节点
+         */
+        @Nullable
+        private Entry<K, V> _nextEntry;
+
+        @Nullable
+        private final K _hi;
+
+        private final boolean[] _marked = {false};
+
+        Iter(@Nullable Node<K, V> first, @Nullable K hi) {
+            _hi = hi;
+            advance(first);
+        }
+
+        private void advance(@Nullable Node<K, V> node) {
+            _nextEntry = null;
+            while (node != null && (_hi == null || compare(node.key, _hi) < 0)) {
+                _nextEntry = entryOf(node);
+                if (_nextEntry != null) break;
+                node = nextNode(node, 0, _marked);
+            }
+            _next = _nextEntry != null ? node : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Node<K, V> node = _next;
+            Entry<K, V> entry = _nextEntry;
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            advance(nextNode(node, 0, _marked));
+            return entry;
+        }
+    }
+
+}
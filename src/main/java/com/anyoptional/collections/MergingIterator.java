@@ -0,0 +1,88 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 多路归并迭代器，将若干个各自有序的迭代器归并成一个有序的序列。
+ *
+ * 每一路迭代器的当前元素保存在一个{@link Heap}中，每输出一个元素，
+ * 就用同一路的下一个元素通过{@link Heap#replaceTop(Object)}顶替它，
+ * 因此每个元素只需要一次下滤，k路归并n个元素的代价为O(nlogk)。
+ * 相等的元素按照各路迭代器的先后次序输出，即归并是稳定的。
+ *
+ * @apiNote MergingIterator do not permit null element.
+ */
+public class MergingIterator<E> implements Iterator<E> {
+
+    private final Heap<Run<E>> _heap;
+
+    public MergingIterator(Collection<? extends Iterator<? extends E>> sources) {
+        this(sources, null);
+    }
+
+    public MergingIterator(Collection<? extends Iterator<? extends E>> sources,
+                           @Nullable Comparator<? super E> comparator) {
+        Assert.notNull(sources, "sources is required");
+        // Heap是大顶堆，元素越小优先级越高，相等时先来的优先
+        _heap = new Heap<>(($0, $1) -> {
+            int order = Comparators.compare($1.head, $0.head, comparator);
+            return order != 0 ? order : Integer.compare($1.index, $0.index);
+        });
+        int index = 0;
+        for (Iterator<? extends E> source : sources) {
+            Assert.notNull(source, "source is required");
+            if (source.hasNext()) {
+                _heap.insert(new Run<>(index, source, source.next()));
+            }
+            index += 1;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !_heap.isEmpty();
+    }
+
+    @Override
+    @SuppressWarnings("all")
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Run<E> top = _heap.peek();
+        E result = top.head;
+        if (top.source.hasNext()) {
+            // 同一路的下一个元素顶替堆顶
+            top.head = top.source.next();
+            _heap.replaceTop(top);
+        } else {
+            // 这一路已经耗尽
+            _heap.remove();
+        }
+        return result;
+    }
+
+    private static class Run<E> {
+
+        final int index;
+
+        final Iterator<? extends E> source;
+
+        E head;
+
+        Run(int index, Iterator<? extends E> source, E head) {
+            Assert.notNull(head, "element is required");
+            this.index = index;
+            this.source = source;
+            this.head = head;
+        }
+    }
+
+}
@@ -0,0 +1,772 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.*;
+
+/**
+ * 以{@link NavigableMap}的形式访问一颗{@link BinarySearchTree}（包括{@link AVLTree}、
+ * {@link RedBlackTree}），由{@link BinarySearchTree#asNavigableMap()}创建。
+ *
+ * 同一个类既表示整棵树，也表示它的子区间视图（subMap、headMap、tailMap）以及逆序视图
+ * （descendingMap），它们都直接作用于同一颗树。区间以升序下的上、下界表示，
+ * 逆序视图只是把各个导航操作的方向对调。
+ *
+ * 所有的定位操作（floor、ceiling、higher、lower、first、last）都是一次O(logn)的下行，
+ * 迭代则从定位到的节点出发沿successor或predecessor前进，每一步均摊O(1)，
+ * 不会遍历区间以外的节点。区间视图的size借助子树规模计算，同样是O(logn)。
+ *
+ * 导航方法返回的词条是快照，不支持setValue；迭代entrySet得到的词条则直接对应树中的节点，
+ * setValue会写回树中。迭代器不是fail-fast的，迭代过程中只应通过迭代器自身修改。
+ *
+ * @apiNote NavigableTreeMap do not permit null key.
+ */
+public class NavigableTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+    private final BinarySearchTree<K, V> _tree;
+
+    /** 是否是逆序视图 */
+    private final boolean _descending;
+
+    /** 升序下的下界，_fromStart为true时表示没有下界 */
+    private final boolean _fromStart;
+
+    @Nullable
+    private final K _lo;
+
+    private final boolean _loInclusive;
+
+    /** 升序下的上界，_toEnd为true时表示没有上界 */
+    private final boolean _toEnd;
+
+    @Nullable
+    private final K _hi;
+
+    private final boolean _hiInclusive;
+
+    @Nullable
+    private EntrySet _entrySet;
+
+    @Nullable
+    private KeySet<K> _keySet;
+
+    NavigableTreeMap(BinarySearchTree<K, V> tree) {
+        this(tree, false, true, null, false, true, null, false);
+    }
+
+    private NavigableTreeMap(BinarySearchTree<K, V> tree, boolean descending,
+                             boolean fromStart, @Nullable K lo, boolean loInclusive,
+                             boolean toEnd, @Nullable K hi, boolean hiInclusive) {
+        Assert.notNull(tree, "tree is required");
+        if (!fromStart && !toEnd) {
+            Assert.isTrue(compare(lo, hi, tree.comparator()) <= 0, "fromKey > toKey");
+        }
+        _tree = tree;
+        _descending = descending;
+        _fromStart = fromStart;
+        _lo = lo;
+        _loInclusive = loInclusive;
+        _toEnd = toEnd;
+        _hi = hi;
+        _hiInclusive = hiInclusive;
+    }
+
+    // ---------------------------------------------------------------- Map
+
+    @Override
+    public int size() {
+        if (_fromStart && _toEnd) {
+            return _tree.size();
+        }
+        // 借助子树规模，O(logn)
+        int above = _toEnd ? _tree.size() : _tree.countBelow(_hi, _hiInclusive);
+        int below = _fromStart ? 0 : _tree.countBelow(_lo, !_loInclusive);
+        return Math.max(0, above - below);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return absLowest() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return nodeOf(key) != null;
+    }
+
+    @Nullable
+    @Override
+    public V get(Object key) {
+        BinaryNode<K, V> node = nodeOf(key);
+        return node != null ? node.entry.getValue() : null;
+    }
+
+    /**
+     * 键已经存在时替换它的值，否则插入一个新的词条
+     */
+    @Nullable
+    @Override
+    public V put(K key, @Nullable V value) {
+        Assert.notNull(key, "key is required");
+        Assert.isTrue(inRange(key), "key out of range");
+        BinaryNode<K, V> node = _tree.searchBinaryNode(key);
+        if (node != null) {
+            return _tree.replaceValue(node, value);
+        }
+        _tree.insert(key, value);
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public V remove(Object key) {
+        BinaryNode<K, V> node = nodeOf(key);
+        if (node == null) return null;
+        V value = node.entry.getValue();
+        _tree.remove(node.entry.getKey());
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        if (_fromStart && _toEnd) {
+            _tree.clear();
+        } else {
+            for (BinaryNode<K, V> node = absLowest(); node != null; node = absLowest()) {
+                _tree.remove(node.entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        EntrySet entrySet = _entrySet;
+        return entrySet != null ? entrySet : (_entrySet = new EntrySet());
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    // ---------------------------------------------------------------- SortedMap
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public Comparator<? super K> comparator() {
+        Comparator<? super K> comparator = _tree.comparator();
+        if (!_descending) {
+            return comparator;
+        }
+        return comparator != null ?
+                Collections.reverseOrder(comparator) :
+                (Comparator<? super K>) Collections.reverseOrder();
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    // ---------------------------------------------------------------- NavigableMap
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return snapshot(_descending ? absHigher(key) : absLower(key));
+    }
+
+    @Nullable
+    @Override
+    public K lowerKey(K key) {
+        return keyOf(_descending ? absHigher(key) : absLower(key));
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return snapshot(_descending ? absCeiling(key) : absFloor(key));
+    }
+
+    @Nullable
+    @Override
+    public K floorKey(K key) {
+        return keyOf(_descending ? absCeiling(key) : absFloor(key));
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return snapshot(_descending ? absFloor(key) : absCeiling(key));
+    }
+
+    @Nullable
+    @Override
+    public K ceilingKey(K key) {
+        return keyOf(_descending ? absFloor(key) : absCeiling(key));
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return snapshot(_descending ? absLower(key) : absHigher(key));
+    }
+
+    @Nullable
+    @Override
+    public K higherKey(K key) {
+        return keyOf(_descending ? absLower(key) : absHigher(key));
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return snapshot(first());
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return snapshot(last());
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(first());
+    }
+
+    @Nullable
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(last());
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new NavigableTreeMap<>(_tree, !_descending,
+                _fromStart, _lo, _loInclusive, _toEnd, _hi, _hiInclusive);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        KeySet<K> keySet = _keySet;
+        return keySet != null ? keySet : (_keySet = new KeySet<>(this));
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (_descending) {
+            // 逆序视图中fromKey是升序下的上界
+            return newView(false, toKey, toInclusive, false, fromKey, fromInclusive);
+        }
+        return newView(false, fromKey, fromInclusive, false, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        if (_descending) {
+            return newView(false, toKey, inclusive, true, null, false);
+        }
+        return newView(true, null, false, false, toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        if (_descending) {
+            return newView(true, null, false, false, fromKey, inclusive);
+        }
+        return newView(false, fromKey, inclusive, true, null, false);
+    }
+
+    /**
+     * 与{@link Map#hashCode()}的约定一致
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<K, V> e : entrySet()) {
+            hash += Objects.hashCode(e.getKey()) ^ Objects.hashCode(e.getValue());
+        }
+        return hash;
+    }
+
+    // ---------------------------------------------------------------- 区间
+
+    /**
+     * 以升序下的上、下界创建一个子区间视图，新的区间必须落在当前区间之内
+     */
+    private NavigableMap<K, V> newView(boolean fromStart, @Nullable K lo, boolean loInclusive,
+                                       boolean toEnd, @Nullable K hi, boolean hiInclusive) {
+        if (fromStart) {
+            fromStart = _fromStart;
+            lo = _lo;
+            loInclusive = _loInclusive;
+        } else {
+            Assert.notNull(lo, "fromKey is required");
+            Assert.isTrue(inRange(lo, loInclusive), "fromKey out of range");
+        }
+        if (toEnd) {
+            toEnd = _toEnd;
+            hi = _hi;
+            hiInclusive = _hiInclusive;
+        } else {
+            Assert.notNull(hi, "toKey is required");
+            Assert.isTrue(inRange(hi, hiInclusive), "toKey out of range");
+        }
+        return new NavigableTreeMap<>(_tree, _descending, fromStart, lo, loInclusive, toEnd, hi, hiInclusive);
+    }
+
+    private boolean tooLow(K key) {
+        if (_fromStart) return false;
+        int order = compare(key, _lo, _tree.comparator());
+        return order < 0 || (order == 0 && !_loInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+        if (_toEnd) return false;
+        int order = compare(key, _hi, _tree.comparator());
+        return order > 0 || (order == 0 && !_hiInclusive);
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    /**
+     * inclusive为false时，区间的端点本身也视为在区间内
+     */
+    private boolean inRange(K key, boolean inclusive) {
+        if (inclusive) {
+            return inRange(key);
+        }
+        return (_fromStart || compare(key, _lo, _tree.comparator()) >= 0)
+                && (_toEnd || compare(key, _hi, _tree.comparator()) <= 0);
+    }
+
+    // ---------------------------------------------------------------- 升序下的定位
+
+    @Nullable
+    private BinaryNode<K, V> absLowest() {
+        BinaryNode<K, V> node = _fromStart ? _tree.firstNode() : _tree.ceilingNode(_lo, _loInclusive);
+        return node == null || tooHigh(node.entry.getKey()) ? null : node;
+    }
+
+    @Nullable
+    private BinaryNode<K, V> absHighest() {
+        BinaryNode<K, V> node = _toEnd ? _tree.lastNode() : _tree.floorNode(_hi, _hiInclusive);
+        return node == null || tooLow(node.entry.getKey()) ? null : node;
+    }
+
+    @Nullable
+    private BinaryNode<K, V> absCeiling(K key) {
+        if (tooLow(key)) return absLowest();
+        BinaryNode<K, V> node = _tree.ceilingNode(key, true);
+        return node == null || tooHigh(node.entry.getKey()) ? null : node;
+    }
+
+    @Nullable
+    private BinaryNode<K, V> absHigher(K key) {
+        if (tooLow(key)) return absLowest();
+        BinaryNode<K, V> node = _tree.ceilingNode(key, false);
+        return node == null || tooHigh(node.entry.getKey()) ? null : node;
+    }
+
+    @Nullable
+    private BinaryNode<K, V> absFloor(K key) {
+        if (tooHigh(key)) return absHighest();
+        BinaryNode<K, V> node = _tree.floorNode(key, true);
+        return node == null || tooLow(node.entry.getKey()) ? null : node;
+    }
+
+    @Nullable
+    private BinaryNode<K, V> absLower(K key) {
+        if (tooHigh(key)) return absHighest();
+        BinaryNode<K, V> node = _tree.floorNode(key, false);
+        return node == null || tooLow(node.entry.getKey()) ? null : node;
+    }
+
+    /**
+     * 当前视图次序下的第一个节点
+     */
+    @Nullable
+    private BinaryNode<K, V> first() {
+        return _descending ? absHighest() : absLowest();
+    }
+
+    /**
+     * 当前视图次序下的最后一个节点
+     */
+    @Nullable
+    private BinaryNode<K, V> last() {
+        return _descending ? absLowest() : absHighest();
+    }
+
+    /**
+     * 当前视图次序下的下一个节点，超出区间时返回null
+     */
+    @Nullable
+    private BinaryNode<K, V> next(BinaryNode<K, V> node) {
+        if (_descending) {
+            BinaryNode<K, V> prev = node.predecessor();
+            return prev == null || tooLow(prev.entry.getKey()) ? null : prev;
+        }
+        BinaryNode<K, V> next = node.successor();
+        return next == null || tooHigh(next.entry.getKey()) ? null : next;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private BinaryNode<K, V> nodeOf(@Nullable Object key) {
+        Assert.notNull(key, "key is required");
+        K k = (K) key;
+        return inRange(k) ? _tree.searchBinaryNode(k) : null;
+    }
+
+    @Nullable
+    private Map.Entry<K, V> poll(@Nullable BinaryNode<K, V> node) {
+        if (node == null) return null;
+        Map.Entry<K, V> result = snapshot(node);
+        _tree.remove(node.entry.getKey());
+        return result;
+    }
+
+    @Nullable
+    private static <K, V> Map.Entry<K, V> snapshot(@Nullable BinaryNode<K, V> node) {
+        return node != null ? new AbstractMap.SimpleImmutableEntry<>(node.entry) : null;
+    }
+
+    @Nullable
+    private static <K> K keyOf(@Nullable BinaryNode<K, ?> node) {
+        return node != null ? node.entry.getKey() : null;
+    }
+
+    private static <K> K keyOrThrow(@Nullable BinaryNode<K, ?> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.entry.getKey();
+    }
+
+    @SuppressWarnings("all")
+    private static <K> int compare(K lhs, K rhs, @Nullable Comparator<? super K> comparator) {
+        return Comparators.compare(lhs, rhs, comparator);
+    }
+
+    // ---------------------------------------------------------------- 视图
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new NodeIterator<Map.Entry<K, V>>(first()) {
+                @Override
+                Map.Entry<K, V> valueOf(BinaryNode<K, V> node) {
+                    return new NodeEntry(node);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return NavigableTreeMap.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return NavigableTreeMap.this.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            if (entry.getKey() == null) return false;
+            BinaryNode<K, V> node = nodeOf(entry.getKey());
+            return node != null && Objects.equals(node.entry.getValue(), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) return false;
+            NavigableTreeMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            NavigableTreeMap.this.clear();
+        }
+    }
+
+    /**
+     * 词条集合迭代出的词条，setValue经由{@link BinarySearchTree#replaceValue(BinaryNode, Object)}，
+     * 值参与附加信息的树因此能及时刷新
+     */
+    private final class NodeEntry implements Map.Entry<K, V> {
+
+        private final BinaryNode<K, V> _node;
+
+        NodeEntry(BinaryNode<K, V> node) {
+            _node = node;
+        }
+
+        @Override
+        public K getKey() {
+            return _node.entry.getKey();
+        }
+
+        @Override
+        @Nullable
+        public V getValue() {
+            return _node.entry.getValue();
+        }
+
+        @Override
+        @Nullable
+        public V setValue(V value) {
+            return _tree.replaceValue(_node, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return _node.entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return _node.entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * 从start出发，按当前视图的次序迭代
+     */
+    private abstract class NodeIterator<T> implements Iterator<T> {
+
+        @Nullable
+        private BinaryNode<K, V> _next;
+
+        @Nullable
+        private BinaryNode<K, V> _lastReturned;
+
+        NodeIterator(@Nullable BinaryNode<K, V> start) {
+            _next = start;
+        }
+
+        abstract T valueOf(BinaryNode<K, V> node);
+
+        @Override
+        public boolean hasNext() {
+            return _next != null;
+        }
+
+        @Override
+        public T next() {
+            BinaryNode<K, V> node = _next;
+            if (node == null) {
+                throw new NoSuchElementException();
+            }
+            _next = NavigableTreeMap.this.next(node);
+            _lastReturned = node;
+            return valueOf(node);
+        }
+
+        @Override
+        public void remove() {
+            BinaryNode<K, V> node = _lastReturned;
+            if (node == null) {
+                throw new IllegalStateException();
+            }
+            // 删除可能搬动词条或者旋转节点，不同的树做法不同，
+            // 因此先记下下一个键，删除之后再按键重新定位
+            K nextKey = _next != null ? _next.entry.getKey() : null;
+            _tree.remove(node.entry.getKey());
+            if (nextKey != null) {
+                _next = _descending ? _tree.floorNode(nextKey, true) : _tree.ceilingNode(nextKey, true);
+            }
+            _lastReturned = null;
+        }
+    }
+
+    /**
+     * 与{@link java.util.TreeMap}一样，键集合是对应map的视图
+     */
+    static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+
+        private final NavigableTreeMap<E, ?> _map;
+
+        KeySet(NavigableTreeMap<E, ?> map) {
+            _map = map;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return keyIterator(_map);
+        }
+
+        @Override
+        public Iterator<E> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return _map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return _map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return _map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!_map.containsKey(o)) return false;
+            _map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            _map.clear();
+        }
+
+        @Nullable
+        @Override
+        public Comparator<? super E> comparator() {
+            return _map.comparator();
+        }
+
+        @Override
+        public E first() {
+            return _map.firstKey();
+        }
+
+        @Override
+        public E last() {
+            return _map.lastKey();
+        }
+
+        @Nullable
+        @Override
+        public E lower(E e) {
+            return _map.lowerKey(e);
+        }
+
+        @Nullable
+        @Override
+        public E floor(E e) {
+            return _map.floorKey(e);
+        }
+
+        @Nullable
+        @Override
+        public E ceiling(E e) {
+            return _map.ceilingKey(e);
+        }
+
+        @Nullable
+        @Override
+        public E higher(E e) {
+            return _map.higherKey(e);
+        }
+
+        @Nullable
+        @Override
+        public E pollFirst() {
+            Map.Entry<E, ?> e = _map.pollFirstEntry();
+            return e != null ? e.getKey() : null;
+        }
+
+        @Nullable
+        @Override
+        public E pollLast() {
+            Map.Entry<E, ?> e = _map.pollLastEntry();
+            return e != null ? e.getKey() : null;
+        }
+
+        @Override
+        public NavigableSet<E> descendingSet() {
+            return _map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+            return _map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+            return _map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+            return _map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        private static <E, V> Iterator<E> keyIterator(NavigableTreeMap<E, V> map) {
+            return map.new NodeIterator<E>(map.first()) {
+                @Override
+                E valueOf(BinaryNode<E, V> node) {
+                    return node.entry.getKey();
+                }
+            };
+        }
+    }
+
+}
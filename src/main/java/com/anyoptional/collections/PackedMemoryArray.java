@@ -0,0 +1,399 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.*;
+
+/**
+ * 紧凑内存数组（Packed-Memory Array），一种留有间隙的有序数组，
+ * 是{@link SortedArray}的另一种存储方式。
+ *
+ * {@link SortedArray}中元素是连续存放的，在中间插入一个元素平均需要移动一半的元素。
+ * PMA则在元素之间均匀地预留一些空位（null），插入时只需要在局部范围内重新摆放元素。
+ *
+ * 整个数组被划分为若干长度为O(logn)的段（segment），这些段又两两组成一颗隐式的完全
+ * 二叉树，树中每一个节点对应一个窗口（window），也就是若干相邻的段。每一层窗口都有
+ * 各自的密度上、下限，越靠近根节点限制越严格：
+ *  叶子：上限1.0，下限0.125
+ *  树根：上限0.75，下限0.25
+ * 插入时从元素所在的段开始向上寻找第一个插入后密度不超过上限的窗口，然后将窗口内的
+ * 元素重新均匀摆放；若整个数组都超过了上限，则容量翻倍。删除时与之对称。如此，插入、
+ * 删除的均摊代价为O(log²n)，而元素在物理上依然几乎是连续的，二分查找和顺序扫描都能
+ * 很好地利用缓存。
+ *
+ * 由于存在间隙，按索引访问{@link #get(int)}需要O(n/logn)的时间。
+ *
+ * @apiNote PackedMemoryArray do not permit null element.
+ */
+public class PackedMemoryArray<E> extends AbstractCollection<E> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int MIN_SEGMENT_SIZE = 4;
+
+    private static final double UPPER_LEAF = 1.0;
+
+    private static final double UPPER_ROOT = 0.75;
+
+    private static final double LOWER_LEAF = 0.125;
+
+    private static final double LOWER_ROOT = 0.25;
+
+    @Nullable
+    private final Comparator<? super E> _comparator;
+
+    /**
+     * 存放元素的槽位，null表示间隙
+     */
+    @VisibleForTesting
+    Object[] _slots;
+
+    /**
+     * 每一段中的元素个数
+     */
+    @VisibleForTesting
+    int[] _counts;
+
+    @VisibleForTesting
+    int _segmentSize;
+
+    /**
+     * 窗口树的高度，树根（整个数组）位于第_height层，叶子（单个段）位于第0层
+     */
+    private int _height;
+
+    private int _size = 0;
+
+    /**
+     * 重新摆放元素时使用的缓冲区
+     */
+    private Object[] _buffer = new Object[0];
+
+    public PackedMemoryArray() {
+        _comparator = null;
+        allocate(MIN_CAPACITY);
+    }
+
+    public PackedMemoryArray(Comparator<? super E> comparator) {
+        Assert.notNull(comparator, "comparator must not be null");
+        _comparator = comparator;
+        allocate(MIN_CAPACITY);
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    public int capacity() {
+        return _slots.length;
+    }
+
+    /**
+     * 有序次序下的第index个元素
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("index[" + index + "] out of range");
+        }
+        // 先借助每一段的计数跳过前面的段
+        int segment = 0;
+        while (index >= _counts[segment]) {
+            index -= _counts[segment++];
+        }
+        for (int i = segment * _segmentSize; ; i++) {
+            if (_slots[i] != null && index-- == 0) {
+                return (E) _slots[i];
+            }
+        }
+    }
+
+    /**
+     * 插入一个元素，与{@link SortedArray#insert(Object)}一样，
+     * 新元素排在与之相等的元素之前
+     */
+    public void insert(E element) {
+        Assert.notNull(element, "element is required");
+        int slot = lowerBoundSlot(element);
+        int segment;
+        if (slot < _slots.length) {
+            segment = slot / _segmentSize;
+        } else {
+            // 比所有元素都大，放到最后一个元素所在的段中
+            int last = lastElementSlot();
+            segment = last < 0 ? 0 : last / _segmentSize;
+        }
+        // 自底向上找到第一个插入后不超过密度上限的窗口
+        for (int level = 0, width = 1; level <= _height; level++, width <<= 1) {
+            int first = segment / width * width;
+            if (countOf(first, width) + 1 <= upperThreshold(level) * width * _segmentSize) {
+                rebalance(first, width, element);
+                _size += 1;
+                return;
+            }
+        }
+        // 整个数组都超过了上限，扩容
+        resize(_slots.length << 1, element);
+        _size += 1;
+    }
+
+    @Override
+    public boolean add(E element) {
+        insert(element);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int slot = slotOf(o);
+        if (slot < 0) return false;
+        _slots[slot] = null;
+        int segment = slot / _segmentSize;
+        _counts[segment] -= 1;
+        _size -= 1;
+        // 自底向上找到第一个不低于密度下限的窗口
+        for (int level = 0, width = 1; level <= _height; level++, width <<= 1) {
+            int first = segment / width * width;
+            if (countOf(first, width) >= lowerThreshold(level) * width * _segmentSize) {
+                // 叶子本身没有低于下限，无需调整
+                if (level > 0) {
+                    rebalance(first, width, null);
+                }
+                return true;
+            }
+        }
+        // 整个数组都低于下限，缩容
+        if (_slots.length > MIN_CAPACITY) {
+            resize(_slots.length >> 1, null);
+        } else {
+            rebalance(0, _counts.length, null);
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        _size = 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * 元素所在的槽位，不存在时返回-1
+     */
+    @SuppressWarnings("unchecked")
+    private int slotOf(@Nullable Object o) {
+        if (o == null) return -1;
+        try {
+            E element = (E) o;
+            for (int i = lowerBoundSlot(element); i < _slots.length; i++) {
+                if (_slots[i] == null) continue;
+                // 比较意义上相等的元素中逐个检查equals
+                if (Comparators.compare((E) _slots[i], element, _comparator) != 0) break;
+                if (o.equals(_slots[i])) return i;
+            }
+        } catch (ClassCastException ex) {
+            // 类型不兼容，必然不存在
+        }
+        return -1;
+    }
+
+    /**
+     * 第一个不小于element的元素所在的槽位，不存在时返回capacity
+     */
+    @SuppressWarnings("unchecked")
+    private int lowerBoundSlot(E element) {
+        // 不变式：[0, lo)中的元素均小于element，[hi, capacity)中的元素均不小于element
+        int lo = 0;
+        int hi = _slots.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            // 跳过间隙，找到[mid, hi)中的第一个元素
+            int q = mid;
+            while (q < hi && _slots[q] == null) {
+                q++;
+            }
+            if (q == hi || Comparators.compare((E) _slots[q], element, _comparator) >= 0) {
+                hi = mid;
+            } else {
+                lo = q + 1;
+            }
+        }
+        while (lo < _slots.length && _slots[lo] == null) {
+            lo++;
+        }
+        return lo;
+    }
+
+    private int lastElementSlot() {
+        for (int i = _slots.length - 1; i >= 0; i--) {
+            if (_slots[i] != null) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 从第first段开始、共width段的窗口中的元素个数
+     */
+    private int countOf(int first, int width) {
+        int count = 0;
+        for (int i = first; i < first + width; i++) {
+            count += _counts[i];
+        }
+        return count;
+    }
+
+    private double upperThreshold(int level) {
+        if (_height == 0) return UPPER_ROOT;
+        return UPPER_LEAF - (UPPER_LEAF - UPPER_ROOT) * level / _height;
+    }
+
+    private double lowerThreshold(int level) {
+        if (_height == 0) return LOWER_ROOT;
+        return LOWER_LEAF + (LOWER_ROOT - LOWER_LEAF) * level / _height;
+    }
+
+    /**
+     * 将窗口内的元素（以及可能的一个新元素）重新均匀地摆放
+     */
+    @SuppressWarnings("unchecked")
+    private void rebalance(int firstSegment, int width, @Nullable E extra) {
+        int from = firstSegment * _segmentSize;
+        int to = from + width * _segmentSize;
+        int count = gather(from, to, extra);
+        Arrays.fill(_slots, from, to, null);
+        spread(from, to, count);
+    }
+
+    private void resize(int capacity, @Nullable E extra) {
+        int count = gather(0, _slots.length, extra);
+        allocate(capacity);
+        spread(0, _slots.length, count);
+    }
+
+    /**
+     * 将[from, to)中的元素按序收集到缓冲区，extra插入到合适的位置
+     */
+    @SuppressWarnings("unchecked")
+    private int gather(int from, int to, @Nullable E extra) {
+        if (_buffer.length < to - from + 1) {
+            _buffer = new Object[to - from + 1];
+        }
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            Object e = _slots[i];
+            if (e == null) continue;
+            // 新元素排在第一个不小于它的元素之前
+            if (extra != null && Comparators.compare((E) e, extra, _comparator) >= 0) {
+                _buffer[count++] = extra;
+                extra = null;
+            }
+            _buffer[count++] = e;
+        }
+        if (extra != null) {
+            _buffer[count++] = extra;
+        }
+        return count;
+    }
+
+    /**
+     * 将缓冲区中的count个元素均匀地摆放到[from, to)中
+     */
+    private void spread(int from, int to, int count) {
+        int width = to - from;
+        for (int s = from / _segmentSize; s < to / _segmentSize; s++) {
+            _counts[s] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int slot = from + (int) ((long) i * width / count);
+            _slots[slot] = _buffer[i];
+            _counts[slot / _segmentSize] += 1;
+            _buffer[i] = null;
+        }
+    }
+
+    /**
+     * 按容量重新划分段，段长取不小于log(capacity)的2的幂
+     */
+    private void allocate(int capacity) {
+        int logCapacity = Integer.numberOfTrailingZeros(capacity);
+        int segmentSize = Math.max(MIN_SEGMENT_SIZE, Integer.highestOneBit(logCapacity - 1) << 1);
+        segmentSize = Math.min(segmentSize, capacity);
+        int segments = capacity / segmentSize;
+        _slots = new Object[capacity];
+        _counts = new int[segments];
+        _segmentSize = segmentSize;
+        _height = Integer.numberOfTrailingZeros(segments);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PackedMemoryArray<?> that = (PackedMemoryArray<?>) o;
+        if (_size != that._size) return false;
+        Iterator<?> iter = that.iterator();
+        for (E e : this) {
+            if (!e.equals(iter.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (E e : this) {
+            hash = 31 * hash + e.hashCode();
+        }
+        return hash;
+    }
+
+    private class Itr implements Iterator<E> {
+
+        private int cursor = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return cursor < _slots.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E e = (E) _slots[cursor];
+            cursor = advance(cursor + 1);
+            return e;
+        }
+
+        private int advance(int slot) {
+            while (slot < _slots.length && _slots[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+
+}
@@ -0,0 +1,477 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * 持久化（不可变）的红黑树，键互不相同。
+ *
+ * 节点一经创建便不再修改，插入、删除时只复制从根到目标位置的路径上的O(logn)个节点，
+ * 路径以外的子树由新、旧两个版本共享（path copying），操作返回一颗新的树，
+ * 原来的树保持不变。因此任何一个版本都是一份O(1)的快照：读者持有某个版本即可
+ * 无锁地遍历，写者只需要发布新的版本，比如写入一个volatile字段或者AtomicReference。
+ *
+ * 平衡算法采用Okasaki的插入以及Kahrs的删除，两者都是纯函数式的：
+ *  1. 插入时新节点为红，自下而上用{@link #balance(boolean, Node, Object, Object, Node)}
+ *     把黑-红-红的四种形态统一改写成红-黑-黑，最后把根染黑
+ *  2. 删除时沿途保持"当前子树的根为红，或者目标在红节点之下"，被删除的节点由其左、右子树
+ *     {@link #fuse(Node, Node)}而成的子树顶替，黑高度的亏损由balanceLeft、balanceRight向上修正
+ *
+ * 节点记录了子树规模，因此{@link #rank(Object)}、{@link #select(int)}也是O(logn)。
+ *
+ * @apiNote PersistentRedBlackTree do not permit null key.
+ */
+public final class PersistentRedBlackTree<K, V> implements Iterable<Entry<K, V>> {
+
+    @Nullable
+    @VisibleForTesting
+    final Node<K, V> _root;
+
+    @Nullable
+    private final Comparator<? super K> _comparator;
+
+    public PersistentRedBlackTree() {
+        this(null, null);
+    }
+
+    public PersistentRedBlackTree(Comparator<? super K> comparator) {
+        this(null, checkComparator(comparator));
+    }
+
+    private PersistentRedBlackTree(@Nullable Node<K, V> root, @Nullable Comparator<? super K> comparator) {
+        _root = root;
+        _comparator = comparator;
+    }
+
+    public int size() {
+        return sizeOf(_root);
+    }
+
+    public boolean isEmpty() {
+        return _root == null;
+    }
+
+    @Nullable
+    public Comparator<? super K> comparator() {
+        return _comparator;
+    }
+
+    public boolean containsKey(K key) {
+        return searchNode(key) != null;
+    }
+
+    @Nullable
+    public V searchValue(K key) {
+        Node<K, V> node = searchNode(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * 查询key对应的词条，返回的是一份拷贝，修改它不会影响树
+     */
+    @Nullable
+    public Entry<K, V> search(K key) {
+        return entryOf(searchNode(key));
+    }
+
+    /**
+     * 插入或者替换key对应的值，返回新的版本，O(logn)
+     */
+    public PersistentRedBlackTree<K, V> insert(K key, @Nullable V value) {
+        Assert.notNull(key, "key is required");
+        return new PersistentRedBlackTree<>(blacken(insert(_root, key, value)), _comparator);
+    }
+
+    /**
+     * 删除key对应的词条，返回新的版本，key不存在时返回当前版本，O(logn)
+     */
+    public PersistentRedBlackTree<K, V> remove(K key) {
+        if (searchNode(key) == null) return this;
+        return new PersistentRedBlackTree<>(blacken(delete(_root, key)), _comparator);
+    }
+
+    /**
+     * 树中小于key的键的个数，O(logn)
+     */
+    public int rank(K key) {
+        Assert.notNull(key, "key is required");
+        int count = 0;
+        Node<K, V> cur = _root;
+        while (cur != null) {
+            if (Comparators.compare(key, cur.key, _comparator) <= 0) {
+                cur = cur.left;
+            } else {
+                count += sizeOf(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 中序遍历次序下的第index个（从0开始）词条，O(logn)
+     */
+    @SuppressWarnings("all")
+    public Entry<K, V> select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index[" + index + "] out of range");
+        }
+        Node<K, V> cur = _root;
+        while (true) {
+            int leftSize = sizeOf(cur.left);
+            if (index < leftSize) {
+                cur = cur.left;
+            } else if (index == leftSize) {
+                return entryOf(cur);
+            } else {
+                index -= leftSize + 1;
+                cur = cur.right;
+            }
+        }
+    }
+
+    /**
+     * 最小的词条，树为空时返回null
+     */
+    @Nullable
+    public Entry<K, V> firstEntry() {
+        Node<K, V> cur = _root;
+        while (cur != null && cur.left != null) {
+            cur = cur.left;
+        }
+        return entryOf(cur);
+    }
+
+    /**
+     * 最大的词条，树为空时返回null
+     */
+    @Nullable
+    public Entry<K, V> lastEntry() {
+        Node<K, V> cur = _root;
+        while (cur != null && cur.right != null) {
+            cur = cur.right;
+        }
+        return entryOf(cur);
+    }
+
+    /**
+     * 中序遍历
+     */
+    public void traverseInOrder(Consumer<Entry<K, V>> consumer) {
+        Assert.notNull(consumer, "consumer is required");
+        for (Entry<K, V> entry : this) {
+            consumer.accept(entry);
+        }
+    }
+
+    /**
+     * 中序遍历次序的迭代器，节点不可变，迭代期间无需加锁
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new Iter<>(_root);
+    }
+
+    @Nullable
+    private Node<K, V> searchNode(K key) {
+        Assert.notNull(key, "key is required");
+        Node<K, V> cur = _root;
+        while (cur != null) {
+            int order = Comparators.compare(key, cur.key, _comparator);
+            if (order == 0) {
+                return cur;
+            }
+            cur = order < 0 ? cur.left : cur.right;
+        }
+        return null;
+    }
+
+    private Node<K, V> insert(@Nullable Node<K, V> node, K key, @Nullable V value) {
+        if (node == null) {
+            return new Node<>(true, null, key, value, null);
+        }
+        int order = Comparators.compare(key, node.key, _comparator);
+        if (order < 0) {
+            return balance(node.red, insert(node.left, key, value), node.key, node.value, node.right);
+        }
+        if (order > 0) {
+            return balance(node.red, node.left, node.key, node.value, insert(node.right, key, value));
+        }
+        // 只替换值
+        return new Node<>(node.red, node.left, key, value, node.right);
+    }
+
+    @Nullable
+    private Node<K, V> delete(@Nullable Node<K, V> node, K key) {
+        if (node == null) return null;
+        int order = Comparators.compare(key, node.key, _comparator);
+        if (order < 0) {
+            // 从黑孩子中删除会使左侧黑高度减1，需要修正
+            if (isBlack(node.left)) {
+                return balanceLeft(delete(node.left, key), node.key, node.value, node.right);
+            }
+            return new Node<>(true, delete(node.left, key), node.key, node.value, node.right);
+        }
+        if (order > 0) {
+            if (isBlack(node.right)) {
+                return balanceRight(node.left, node.key, node.value, delete(node.right, key));
+            }
+            return new Node<>(true, node.left, node.key, node.value, delete(node.right, key));
+        }
+        return fuse(node.left, node.right);
+    }
+
+    /**
+     * 插入时的平衡：黑节点下出现的四种双红形态都改写成红-黑-黑
+     *
+     *        z            z          x            x
+     *       / \          / \        / \          / \
+     *      y   d        x   d      a   z        a   y             y
+     *     / \          / \            / \          / \    ->    /   \
+     *    x   c        a   y          y   d        b   z        x     z
+     *   / \              / \        / \              / \      / \   / \
+     *  a   b            b   c      b   c            c   d    a   b c   d
+     */
+    @SuppressWarnings("all")
+    private static <K, V> Node<K, V> balance(boolean red, @Nullable Node<K, V> left, K key, @Nullable V value,
+                                             @Nullable Node<K, V> right) {
+        if (!red) {
+            if (isRed(left) && isRed(right)) {
+                // 两个孩子都为红，直接翻转颜色
+                return new Node<>(true, left.paint(false), key, value, right.paint(false));
+            }
+            if (isRed(left)) {
+                if (isRed(left.left)) {
+                    Node<K, V> x = left.left;
+                    return new Node<>(true, x.paint(false), left.key, left.value,
+                            new Node<>(false, left.right, key, value, right));
+                }
+                if (isRed(left.right)) {
+                    Node<K, V> y = left.right;
+                    return new Node<>(true, new Node<>(false, left.left, left.key, left.value, y.left), y.key, y.value,
+                            new Node<>(false, y.right, key, value, right));
+                }
+            }
+            if (isRed(right)) {
+                if (isRed(right.right)) {
+                    Node<K, V> z = right.right;
+                    return new Node<>(true, new Node<>(false, left, key, value, right.left), right.key, right.value,
+                            z.paint(false));
+                }
+                if (isRed(right.left)) {
+                    Node<K, V> y = right.left;
+                    return new Node<>(true, new Node<>(false, left, key, value, y.left), y.key, y.value,
+                            new Node<>(false, y.right, right.key, right.value, right.right));
+                }
+            }
+        }
+        return new Node<>(red, left, key, value, right);
+    }
+
+    /**
+     * 左子树的黑高度比右子树少1时的修正
+     */
+    @SuppressWarnings("all")
+    private static <K, V> Node<K, V> balanceLeft(@Nullable Node<K, V> left, K key, @Nullable V value,
+                                                 @Nullable Node<K, V> right) {
+        if (isRed(left)) {
+            // 左孩子染黑即可补足
+            return new Node<>(true, left.paint(false), key, value, right);
+        }
+        if (isBlack(right)) {
+            // 右孩子染红，两侧黑高度相等，可能出现的双红交给balance
+            return balance(false, left, key, value, right.paint(true));
+        }
+        // 红色的右孩子，它的左孩子必为黑
+        Node<K, V> y = right.left;
+        return new Node<>(true, new Node<>(false, left, key, value, y.left), y.key, y.value,
+                balance(false, y.right, right.key, right.value, right.right.paint(true)));
+    }
+
+    /**
+     * 右子树的黑高度比左子树少1时的修正，与{@link #balanceLeft(Node, Object, Object, Node)}对称
+     */
+    @SuppressWarnings("all")
+    private static <K, V> Node<K, V> balanceRight(@Nullable Node<K, V> left, K key, @Nullable V value,
+                                                  @Nullable Node<K, V> right) {
+        if (isRed(right)) {
+            return new Node<>(true, left, key, value, right.paint(false));
+        }
+        if (isBlack(left)) {
+            return balance(false, left.paint(true), key, value, right);
+        }
+        Node<K, V> y = left.right;
+        return new Node<>(true, balance(false, left.left.paint(true), left.key, left.value, y.left), y.key, y.value,
+                new Node<>(false, y.right, key, value, right));
+    }
+
+    /**
+     * 合并被删除节点的左、右子树，两者黑高度相等，left中的键都小于right中的键
+     */
+    @Nullable
+    @SuppressWarnings("all")
+    private static <K, V> Node<K, V> fuse(@Nullable Node<K, V> left, @Nullable Node<K, V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.red && right.red) {
+            Node<K, V> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return new Node<>(true, new Node<>(true, left.left, left.key, left.value, middle.left), middle.key, middle.value,
+                        new Node<>(true, middle.right, right.key, right.value, right.right));
+            }
+            return new Node<>(true, left.left, left.key, left.value,
+                    new Node<>(true, middle, right.key, right.value, right.right));
+        }
+        if (!left.red && !right.red) {
+            Node<K, V> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return new Node<>(true, new Node<>(false, left.left, left.key, left.value, middle.left), middle.key, middle.value,
+                        new Node<>(false, middle.right, right.key, right.value, right.right));
+            }
+            return balanceLeft(left.left, left.key, left.value,
+                    new Node<>(false, middle, right.key, right.value, right.right));
+        }
+        if (right.red) {
+            return new Node<>(true, fuse(left, right.left), right.key, right.value, right.right);
+        }
+        return new Node<>(true, left.left, left.key, left.value, fuse(left.right, right));
+    }
+
+    @Nullable
+    private static <K, V> Node<K, V> blacken(@Nullable Node<K, V> node) {
+        return node != null && node.red ? node.paint(false) : node;
+    }
+
+    private static boolean isRed(@Nullable Node<?, ?> node) {
+        return node != null && node.red;
+    }
+
+    private static boolean isBlack(@Nullable Node<?, ?> node) {
+        // 外部节点为黑
+        return node == null || !node.red;
+    }
+
+    private static int sizeOf(@Nullable Node<?, ?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    @Nullable
+    private static <K, V> Entry<K, V> entryOf(@Nullable Node<K, V> node) {
+        return node != null ? new Entry<>(node.key, node.value) : null;
+    }
+
+    private static <K> Comparator<K> checkComparator(Comparator<K> comparator) {
+        Assert.notNull(comparator, "comparator is required");
+        return comparator;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof PersistentRedBlackTree)) return false;
+        PersistentRedBlackTree<?, ?> tree = (PersistentRedBlackTree<?, ?>) o;
+        if (tree.size() != size()) return false;
+        Iterator<Entry<K, V>> iter = iterator();
+        for (Entry<?, ?> e : tree) {
+            if (!e.equals(iter.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31;
+        for (Entry<K, V> e : this) {
+            hash += e.hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (Entry<K, V> e : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append("=").append(e.getValue());
+        }
+        return sb.append("}").toString();
+    }
+
+    @VisibleForTesting
+    static final class Node<K, V> {
+
+        final boolean red;
+
+        @Nullable
+        final Node<K, V> left;
+
+        final K key;
+
+        @Nullable
+        final V value;
+
+        @Nullable
+        final Node<K, V> right;
+
+        final int size;
+
+        Node(boolean red, @Nullable Node<K, V> left, K key, @Nullable V value, @Nullable Node<K, V> right) {
+            this.red = red;
+            this.left = left;
+            this.key = key;
+            this.value = value;
+            this.right = right;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+        }
+
+        /**
+         * 颜色不同的副本
+         */
+        Node<K, V> paint(boolean red) {
+            return this.red == red ? this : new Node<>(red, left, key, value, right);
+        }
+    }
+
+    private static class Iter<K, V> implements Iterator<Entry<K, V>> {
+
+        private final Stack<Node<K, V>> _stack = new Stack<>();
+
+        Iter(@Nullable Node<K, V> root) {
+            pushLeft(root);
+        }
+
+        private void pushLeft(@Nullable Node<K, V> node) {
+            while (node != null) {
+                _stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !_stack.isEmpty();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (_stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = _stack.pop();
+            pushLeft(node.right);
+            return new Entry<>(node.key, node.value);
+        }
+    }
+
+}
@@ -0,0 +1,233 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 只读的、基于分段线性模型的有序数组索引（learned index），思路来自PGM-index。
+ *
+ * 把有序数组看作一个从键到位置的单调函数 key -> index，用若干条线段去拟合它，
+ * 要求每个键的预测位置与真实位置之差不超过epsilon。查找时：
+ *  1. 在各线段的起始键中二分，找到key所属的线段
+ *  2. 由线段计算预测位置pos
+ *  3. 在[pos - epsilon, pos + epsilon]这个很小的窗口内二分
+ * 线段的数目通常远小于元素个数（键均匀分布时只需要一条线段），模型可以常驻缓存，
+ * 真正落到数据上的探测只有log(2 * epsilon)次，而不是log(n)次。
+ *
+ * 线段采用收缩锥（shrinking cone）贪心拟合：以线段的第一个点为顶点，维护一个
+ * 能够覆盖已有所有点的斜率区间[lo, hi]，每加入一个点就用它的误差窗口收窄区间，
+ * 区间为空时开启一条新的线段，O(n)即可完成构建。
+ *
+ * 对于不在数组中的键，以及模型的浮点误差，预测位置可能略微超出窗口，
+ * 此时会校验窗口边界并以指数搜索向外扩展，结果总是正确的。
+ *
+ * 构建完成后不可修改，int键直接拓宽为long即可。
+ */
+public class PiecewiseLinearIndex {
+
+    private static final int DEFAULT_EPSILON = 32;
+
+    private final long[] _keys;
+
+    private final int _epsilon;
+
+    /**
+     * 各线段的起始键
+     */
+    @VisibleForTesting
+    final long[] _segmentKeys;
+
+    /**
+     * 各线段的斜率
+     */
+    private final double[] _slopes;
+
+    /**
+     * 各线段起始键在数组中的位置
+     */
+    private final int[] _intercepts;
+
+    public PiecewiseLinearIndex(long[] sorted) {
+        this(sorted, DEFAULT_EPSILON);
+    }
+
+    public PiecewiseLinearIndex(int[] sorted) {
+        this(sorted, DEFAULT_EPSILON);
+    }
+
+    public PiecewiseLinearIndex(int[] sorted, int epsilon) {
+        this(SortedLongArray.widen(sorted), epsilon);
+    }
+
+    /**
+     * @param sorted  非降序排列的键
+     * @param epsilon 预测位置允许的最大误差
+     */
+    public PiecewiseLinearIndex(long[] sorted, int epsilon) {
+        Assert.notNull(sorted, "sorted keys is required");
+        Assert.isTrue(epsilon >= 0, "epsilon[{}] must not be negative", epsilon);
+        for (int i = 1; i < sorted.length; i++) {
+            Assert.isTrue(sorted[i - 1] <= sorted[i], "keys must be sorted");
+        }
+        _keys = Arrays.copyOf(sorted, sorted.length);
+        _epsilon = epsilon;
+
+        long[] segmentKeys = new long[4];
+        double[] slopes = new double[4];
+        int[] intercepts = new int[4];
+        int segments = 0;
+
+        // 当前线段的顶点与斜率区间
+        long x0 = 0;
+        int y0 = 0;
+        double lo = 0;
+        double hi = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < _keys.length; i++) {
+            // 重复的键只取第一次出现的位置
+            if (i > 0 && _keys[i - 1] == _keys[i]) continue;
+            long x = _keys[i];
+            if (segments > 0) {
+                double dx = (double) x - x0;
+                double min = (i - epsilon - y0) / dx;
+                double max = (i + epsilon - y0) / dx;
+                if (Math.max(lo, min) <= Math.min(hi, max)) {
+                    // 收窄斜率区间
+                    lo = Math.max(lo, min);
+                    hi = Math.min(hi, max);
+                    continue;
+                }
+                slopes[segments - 1] = slopeOf(lo, hi);
+            }
+            // 以当前点为顶点开启一条新的线段
+            if (segments == segmentKeys.length) {
+                segmentKeys = Arrays.copyOf(segmentKeys, segments << 1);
+                slopes = Arrays.copyOf(slopes, segments << 1);
+                intercepts = Arrays.copyOf(intercepts, segments << 1);
+            }
+            segmentKeys[segments] = x;
+            intercepts[segments] = i;
+            segments += 1;
+            x0 = x;
+            y0 = i;
+            lo = 0;
+            hi = Double.POSITIVE_INFINITY;
+        }
+        if (segments > 0) {
+            slopes[segments - 1] = slopeOf(lo, hi);
+        }
+        _segmentKeys = Arrays.copyOf(segmentKeys, segments);
+        _slopes = Arrays.copyOf(slopes, segments);
+        _intercepts = Arrays.copyOf(intercepts, segments);
+    }
+
+    public int size() {
+        return _keys.length;
+    }
+
+    public boolean isEmpty() {
+        return _keys.length == 0;
+    }
+
+    public int epsilon() {
+        return _epsilon;
+    }
+
+    /**
+     * 线段的数目，即模型的大小
+     */
+    public int segments() {
+        return _segmentKeys.length;
+    }
+
+    public long get(int index) {
+        if (index < 0 || index >= _keys.length) {
+            throw new IndexOutOfBoundsException("index[" + index + "] out of range");
+        }
+        return _keys[index];
+    }
+
+    /**
+     * 第一个不小于key的元素的索引，不存在时返回size()
+     */
+    public int lowerBound(long key) {
+        int n = _keys.length;
+        if (n == 0 || key <= _keys[0]) return 0;
+        if (key > _keys[n - 1]) return n;
+        int pos = predict(key);
+        int lo = Math.max(0, pos - _epsilon);
+        int hi = Math.min(n, pos + _epsilon + 1);
+        // 校验窗口边界，答案需要落在[lo, hi]之间，否则向外做指数搜索
+        int step = _epsilon + 1;
+        while (lo > 0 && _keys[lo - 1] >= key) {
+            hi = lo - 1;
+            lo = Math.max(0, lo - step);
+            step <<= 1;
+        }
+        while (hi < n && _keys[hi] < key) {
+            lo = hi + 1;
+            hi = Math.min(n, hi + step);
+            step <<= 1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (_keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 第一个值为key的元素的索引，不存在时返回-1
+     */
+    public int indexOf(long key) {
+        int index = lowerBound(key);
+        return index < _keys.length && _keys[index] == key ? index : -1;
+    }
+
+    public boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(_keys, _keys.length);
+    }
+
+    /**
+     * 由模型给出的预测位置，落在[0, size()]之间
+     */
+    @VisibleForTesting
+    int predict(long key) {
+        // 最后一个起始键不大于key的线段
+        int start = 0;
+        int end = _segmentKeys.length;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (_segmentKeys[mid] <= key) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        int segment = Math.max(0, start - 1);
+        double pos = _intercepts[segment] + _slopes[segment] * ((double) key - _segmentKeys[segment]);
+        return (int) Math.min(Math.max(pos, 0), _keys.length);
+    }
+
+    private static double slopeOf(double lo, double hi) {
+        // 只有一个点的线段，斜率取0即可
+        return hi == Double.POSITIVE_INFINITY ? 0 : (lo + hi) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return "PiecewiseLinearIndex{size=" + _keys.length +
+                ", epsilon=" + _epsilon +
+                ", segments=" + _segmentKeys.length + "}";
+    }
+
+}
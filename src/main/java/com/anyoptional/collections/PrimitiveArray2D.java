@@ -0,0 +1,279 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.VisibleForTesting;
+import com.anyoptional.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * 元素为基本类型的二维数组的公共部分，负责行、列数以及下标到存储偏移量的换算。
+ *
+ * 与{@link Array2D}不同，元素直接存放在基本类型的数组（或者堆外的ByteBuffer）中，
+ * 没有装箱开销。偏移量是int，因此无论哪种存储方式，元素个数（分块布局下包括补齐的部分）
+ * 都不能超过Integer.MAX_VALUE - 8；堆外存储切分成若干块direct buffer，
+ * 不再受单个ByteBuffer至多2GB的限制，long、double网格同样可以用满这个上限（约16GB）。访问时的越界检查由常量{@link #CHECK_BOUNDS}控制，它在类加载时
+ * 读取系统属性anyoptional.array2d.checkBounds，设置为false即可关闭检查，此时
+ * JIT会直接消除相应的分支；即便开启，检查也只是几次整数比较，不会产生任何对象。
+ *
+ * 规模较大时，{@link #forEachRow(IntConsumer)}以及各子类的mapInPlace会借助
+ * {@link ForkJoinPool#commonPool()}并行执行，任务按照存储布局切分：逐行、逐列
+ * 布局按连续的偏移量区间切分，分块布局则按块切分，每个任务只访问一段连续的内存。
+ */
+public abstract class PrimitiveArray2D {
+
+    static final boolean CHECK_BOUNDS = !"false".equalsIgnoreCase(System.getProperty("anyoptional.array2d.checkBounds"));
+
+    /**
+     * 分块布局下块的边长为 1 << TILE_SHIFT
+     */
+    static final int TILE_SHIFT = 5;
+
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * 并行任务的粒度，单个任务至少处理这么多个元素
+     */
+    @VisibleForTesting
+    static final int PARALLEL_GRAIN = 1 << 14;
+
+    /**
+     * 堆外存储中每块direct buffer容纳 1 << BUFFER_SHIFT 个元素
+     */
+    @VisibleForTesting
+    static final int BUFFER_SHIFT = 20;
+
+    static final int BUFFER_MASK = (1 << BUFFER_SHIFT) - 1;
+
+    /**
+     * 递归转置时，规模不超过此值的子块直接转置
+     */
+    private static final int TRANSPOSE_LEAF = TILE_SIZE * TILE_SIZE;
+
+    /** 行数 */
+    final int _rows;
+
+    /** 列数 */
+    final int _columns;
+
+    final GridLayout _layout;
+
+    private final int _rowStride;
+
+    private final int _columnStride;
+
+    /**
+     * 分块布局下每一行块的数目
+     */
+    private final int _tilesPerRow;
+
+    private final int _capacity;
+
+    PrimitiveArray2D(int rows, int columns, GridLayout layout) {
+        Assert.isTrue(rows >= 0, "rows[{}] must be positive", rows);
+        Assert.isTrue(columns >= 0, "columns[{}] must be positive", columns);
+        Assert.notNull(layout, "layout is required");
+        _rows = rows;
+        _columns = columns;
+        _layout = layout;
+        long capacity;
+        if (layout == GridLayout.TILED) {
+            // 行、列数补齐到块边长的倍数
+            long paddedRows = ((long) rows + TILE_MASK) & ~TILE_MASK;
+            long paddedColumns = ((long) columns + TILE_MASK) & ~TILE_MASK;
+            capacity = paddedRows * paddedColumns;
+            _tilesPerRow = (int) (paddedColumns >> TILE_SHIFT);
+            _rowStride = 0;
+            _columnStride = 0;
+        } else {
+            capacity = (long) rows * columns;
+            _tilesPerRow = 0;
+            _rowStride = layout == GridLayout.ROW_MAJOR ? columns : 1;
+            _columnStride = layout == GridLayout.ROW_MAJOR ? 1 : rows;
+        }
+        Assert.isTrue(capacity <= Integer.MAX_VALUE - 8, "rows[{}] * columns[{}] is too large", rows, columns);
+        _capacity = (int) capacity;
+    }
+
+    public int getRows() {
+        return _rows;
+    }
+
+    public int getColumns() {
+        return _columns;
+    }
+
+    public int size() {
+        return _rows * _columns;
+    }
+
+    public GridLayout getLayout() {
+        return _layout;
+    }
+
+    /**
+     * 存储所需的元素个数，分块布局下包括补齐的部分
+     */
+    int capacity() {
+        return _capacity;
+    }
+
+    /**
+     * 将行、列下标换算为存储中的偏移量
+     */
+    final int offset(int row, int column) {
+        if (CHECK_BOUNDS) {
+            if (row < 0 || row >= _rows) {
+                throw new IllegalArgumentException("row[" + row + "] out of range");
+            }
+            if (column < 0 || column >= _columns) {
+                throw new IllegalArgumentException("column[" + column + "] out of range");
+            }
+        }
+        if (_layout == GridLayout.TILED) {
+            int tile = (row >> TILE_SHIFT) * _tilesPerRow + (column >> TILE_SHIFT);
+            return tile << (2 * TILE_SHIFT) | (row & TILE_MASK) << TILE_SHIFT | (column & TILE_MASK);
+        }
+        return row * _rowStride + column * _columnStride;
+    }
+
+    /**
+     * 对每一行调用一次action，规模较大时并行执行，
+     * 不同的行可能在不同的线程中处理，action需要自行保证线程安全
+     */
+    public void forEachRow(IntConsumer action) {
+        Assert.notNull(action, "action is required");
+        int grain = Math.max(1, PARALLEL_GRAIN / Math.max(1, _columns));
+        forkJoin(0, _rows, grain, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                action.accept(row);
+            }
+        });
+    }
+
+    /**
+     * 按存储次序访问所有元素的偏移量，规模较大时并行执行
+     */
+    final void forEachOffset(OffsetAction action) {
+        if (_layout != GridLayout.TILED) {
+            // 元素恰好占满[0, size())
+            forkJoin(0, size(), PARALLEL_GRAIN, (from, to) -> {
+                for (int offset = from; offset < to; offset++) {
+                    action.apply(offset);
+                }
+            });
+            return;
+        }
+        // 按块切分，跳过补齐的部分
+        int tiles = _capacity >> (2 * TILE_SHIFT);
+        forkJoin(0, tiles, Math.max(1, PARALLEL_GRAIN >> (2 * TILE_SHIFT)), (from, to) -> {
+            for (int tile = from; tile < to; tile++) {
+                int firstRow = tile / _tilesPerRow << TILE_SHIFT;
+                int firstColumn = tile % _tilesPerRow << TILE_SHIFT;
+                int rows = Math.min(TILE_SIZE, _rows - firstRow);
+                int columns = Math.min(TILE_SIZE, _columns - firstColumn);
+                int base = tile << (2 * TILE_SHIFT);
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < columns; j++) {
+                        action.apply(base | i << TILE_SHIFT | j);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 缓存无关（cache-oblivious）的递归转置：
+     * 总是沿较长的一边对半切分，直到子块足够小，
+     * 如此在任意一级缓存上，源和目标的子块最终都能同时装进缓存
+     */
+    final void transposeInto(PrimitiveArray2D target, int fromRow, int toRow, int fromColumn, int toColumn) {
+        int rows = toRow - fromRow;
+        int columns = toColumn - fromColumn;
+        if ((long) rows * columns <= TRANSPOSE_LEAF) {
+            transposeBlock(target, fromRow, toRow, fromColumn, toColumn);
+        } else if (rows >= columns) {
+            int mid = (fromRow + toRow) >>> 1;
+            transposeInto(target, fromRow, mid, fromColumn, toColumn);
+            transposeInto(target, mid, toRow, fromColumn, toColumn);
+        } else {
+            int mid = (fromColumn + toColumn) >>> 1;
+            transposeInto(target, fromRow, toRow, fromColumn, mid);
+            transposeInto(target, fromRow, toRow, mid, toColumn);
+        }
+    }
+
+    /**
+     * 将[fromRow, toRow) * [fromColumn, toColumn)这一子块转置到target中
+     */
+    abstract void transposeBlock(PrimitiveArray2D target, int fromRow, int toRow, int fromColumn, int toColumn);
+
+    /**
+     * 将[from, to)切分为不超过grain的区间，并行地交给body处理
+     */
+    static void forkJoin(int from, int to, int grain, RangeAction body) {
+        if (to - from <= grain) {
+            body.apply(from, to);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ForkJoinRange(from, to, grain, body));
+        }
+    }
+
+    /**
+     * 分配能够容纳cells个元素的堆外内存，按本机字节序读写，
+     * 偏移量为offset的元素位于第offset >>> BUFFER_SHIFT块的第offset & BUFFER_MASK个位置
+     */
+    static ByteBuffer[] allocateDirect(int cells, int bytesPerCell) {
+        ByteBuffer[] buffers = new ByteBuffer[(int) (((long) cells + BUFFER_MASK) >>> BUFFER_SHIFT)];
+        for (int i = 0; i < buffers.length; i++) {
+            int length = Math.min(BUFFER_MASK + 1, cells - (i << BUFFER_SHIFT));
+            buffers[i] = ByteBuffer.allocateDirect(length * bytesPerCell).order(ByteOrder.nativeOrder());
+        }
+        return buffers;
+    }
+
+    interface OffsetAction {
+        void apply(int offset);
+    }
+
+    interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    private static class ForkJoinRange extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int _from;
+
+        private final int _to;
+
+        private final int _grain;
+
+        private final RangeAction _body;
+
+        ForkJoinRange(int from, int to, int grain, RangeAction body) {
+            _from = from;
+            _to = to;
+            _grain = grain;
+            _body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= _grain) {
+                _body.apply(_from, _to);
+            } else {
+                int mid = (_from + _to) >>> 1;
+                invokeAll(new ForkJoinRange(_from, mid, _grain, _body),
+                        new ForkJoinRange(mid, _to, _grain, _body));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 单调的基数堆（radix heap），以long为优先级，每次弹出优先级最小的元素。
+ *
+ * 所谓单调，是指插入元素的优先级不得低于最近一次弹出的优先级，
+ * Dijkstra之类的算法恰好满足这一点。基数堆按照优先级与最近一次
+ * 弹出的优先级（last）的异或结果的最高位，将元素分散到65个桶中：
+ *  bucket[0]     key == last
+ *  bucket[i]     key ^ last 的最高位为第 i - 1 位
+ * 弹出时，若bucket[0]为空，就找到第一个非空的桶，取出其中的最小值
+ * 作为新的last，并将该桶中的元素重新分配到更低的桶中。每个元素只会
+ * 往低处移动，因此均摊下来每次操作的代价为O(logC)，C为优先级的跨度，
+ * 整个过程不需要任何比较器调用。
+ *
+ * 只有弹出才会推进last并重新分配，读取最小值时只在第一个非空的桶中查找
+ * 并缓存它的位置。否则last会越过尚未弹出的最小值，之后插入介于两者之间的
+ * 优先级就会被误判为违反单调性。
+ *
+ * int优先级直接拓宽为long即可。
+ *
+ * @apiNote RadixHeap do not permit null element.
+ */
+public class RadixHeap<E> {
+
+    private static final int BUCKETS = Long.SIZE + 1;
+
+    private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+    /**
+     * 各个桶中元素的优先级，为了让有符号的优先级也能按位比较，
+     * 存放的是翻转了符号位以后的值
+     */
+    private final long[][] _keys = new long[BUCKETS][];
+
+    private final Object[][] _values = new Object[BUCKETS][];
+
+    private final int[] _sizes = new int[BUCKETS];
+
+    private int _size = 0;
+
+    /**
+     * 最近一次弹出的优先级（同样翻转了符号位），也是分桶的基准
+     */
+    private long _last = toUnsigned(Long.MIN_VALUE);
+
+    /**
+     * 缓存的最小元素所在的桶，-1表示缓存失效
+     */
+    private int _minBucket = -1;
+
+    /**
+     * 缓存的最小元素在桶中的下标
+     */
+    private int _minIndex;
+
+    public RadixHeap() {
+        for (int i = 0; i < BUCKETS; i++) {
+            _keys[i] = new long[INITIAL_BUCKET_CAPACITY];
+            _values[i] = new Object[INITIAL_BUCKET_CAPACITY];
+        }
+    }
+
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * 最近一次弹出的优先级，尚未弹出过元素时为Long.MIN_VALUE
+     */
+    public long lastKey() {
+        return fromUnsigned(_last);
+    }
+
+    /**
+     * 插入一个元素，其优先级不得低于{@link #lastKey()}
+     */
+    public void insert(long key, E element) {
+        Assert.notNull(element, "element is required");
+        long ukey = toUnsigned(key);
+        Assert.isTrue(Long.compareUnsigned(ukey, _last) >= 0,
+                "key[{}] must not be less than the last removed key[{}]", key, lastKey());
+        int bucket = bucketOf(ukey);
+        push(bucket, ukey, element);
+        _size += 1;
+        // 相等时也要更新：弹出时同一优先级中最后插入的元素排在前面
+        if (_minBucket >= 0 && Long.compareUnsigned(ukey, _keys[_minBucket][_minIndex]) <= 0) {
+            _minBucket = bucket;
+            _minIndex = _sizes[bucket] - 1;
+        }
+    }
+
+    /**
+     * 读取优先级最小的元素
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (isEmpty()) {
+            return null;
+        }
+        locateMin();
+        return (E) _values[_minBucket][_minIndex];
+    }
+
+    /**
+     * 读取最小的优先级
+     */
+    public long peekKey() {
+        Assert.isTrue(!isEmpty(), "heap is empty");
+        locateMin();
+        return fromUnsigned(_keys[_minBucket][_minIndex]);
+    }
+
+    /**
+     * 删除优先级最小的元素
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public E remove() {
+        if (isEmpty()) {
+            return null;
+        }
+        pull();
+        int index = --_sizes[0];
+        E result = (E) _values[0][index];
+        _values[0][index] = null;
+        _size -= 1;
+        _minBucket = -1;
+        return result;
+    }
+
+    public void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            Arrays.fill(_values[i], 0, _sizes[i], null);
+            _sizes[i] = 0;
+        }
+        _size = 0;
+        _last = toUnsigned(Long.MIN_VALUE);
+        _minBucket = -1;
+    }
+
+    /**
+     * 找到最小元素的位置，不推进last。同一优先级有多个元素时，
+     * 取{@link #remove()}将会弹出的那个
+     */
+    private void locateMin() {
+        if (_minBucket >= 0) return;
+        if (_sizes[0] > 0) {
+            _minBucket = 0;
+            _minIndex = _sizes[0] - 1;
+            return;
+        }
+        int i = 1;
+        while (_sizes[i] == 0) {
+            i++;
+        }
+        long[] keys = _keys[i];
+        int min = 0;
+        for (int j = 1; j < _sizes[i]; j++) {
+            // 重新分配时按下标顺序压入bucket[0]，最后一个最小值会在栈顶
+            if (Long.compareUnsigned(keys[j], keys[min]) <= 0) {
+                min = j;
+            }
+        }
+        _minBucket = i;
+        _minIndex = min;
+    }
+
+    /**
+     * 保证bucket[0]非空
+     */
+    private void pull() {
+        if (_sizes[0] > 0) return;
+        // 找到第一个非空的桶
+        int i = 1;
+        while (_sizes[i] == 0) {
+            i++;
+        }
+        long[] keys = _keys[i];
+        Object[] values = _values[i];
+        int size = _sizes[i];
+        // 桶内最小值成为新的last
+        long min = keys[0];
+        for (int j = 1; j < size; j++) {
+            if (Long.compareUnsigned(keys[j], min) < 0) {
+                min = keys[j];
+            }
+        }
+        _last = min;
+        // 重新分配，由于key ^ last的最高位必然低于i - 1
+        // 所以桶内元素都将落入更低的桶中
+        _sizes[i] = 0;
+        for (int j = 0; j < size; j++) {
+            push(bucketOf(keys[j]), keys[j], values[j]);
+            values[j] = null;
+        }
+    }
+
+    private int bucketOf(long ukey) {
+        return Long.SIZE - Long.numberOfLeadingZeros(ukey ^ _last);
+    }
+
+    private void push(int bucket, long ukey, Object element) {
+        int size = _sizes[bucket];
+        if (size == _keys[bucket].length) {
+            int newCapacity = size + (size >> 1);
+            _keys[bucket] = Arrays.copyOf(_keys[bucket], newCapacity);
+            _values[bucket] = Arrays.copyOf(_values[bucket], newCapacity);
+        }
+        _keys[bucket][size] = ukey;
+        _values[bucket][size] = element;
+        _sizes[bucket] = size + 1;
+    }
+
+    private static long toUnsigned(long key) {
+        return key ^ Long.MIN_VALUE;
+    }
+
+    private static long fromUnsigned(long ukey) {
+        return ukey ^ Long.MIN_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < BUCKETS; i++) {
+            for (int j = 0; j < _sizes[i]; j++) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append("(").append(fromUnsigned(_keys[i][j])).append(", ").append(_values[i][j]).append(")");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
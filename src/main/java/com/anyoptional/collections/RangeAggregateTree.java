@@ -0,0 +1,172 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Comparator;
+import java.util.function.BinaryOperator;
+
+/**
+ * 区间聚合树，每个节点额外记录子树中所有值按中序次序聚合的结果，
+ * 可以在O(logn)内求出任意键区间上的和、最小值、最大值等。
+ *
+ * combiner必须满足结合律，但不要求交换律：聚合总是按键的升序进行。
+ *
+ * 值参与聚合，因此不允许为null。请通过{@link #replace(Object, Object)}或
+ * {@link #asNavigableMap()}（put、replaceAll以及词条集合中词条的setValue）修改已有的值；
+ * 对{@link #iterator()}、{@link #search(Object)}等直接返回的{@link Entry}调用setValue
+ * 不会刷新聚合结果。
+ *
+ * 合并、拆分、集合运算要求两颗树使用同一个combiner。
+ *
+ * @apiNote RangeAggregateTree do not permit null key or null value.
+ */
+public class RangeAggregateTree<K, V> extends AVLTree<K, V> {
+
+    private final BinaryOperator<V> _combiner;
+
+    public RangeAggregateTree(BinaryOperator<V> combiner) {
+        Assert.notNull(combiner, "combiner is required");
+        _combiner = combiner;
+    }
+
+    public RangeAggregateTree(Comparator<? super K> comparator, BinaryOperator<V> combiner) {
+        super(comparator);
+        Assert.notNull(combiner, "combiner is required");
+        _combiner = combiner;
+    }
+
+    /**
+     * 替换键为key的词条（有多个时取最高的那个）的值，返回旧值；不存在时返回null，O(logn)
+     */
+    @Nullable
+    public V replace(K key, V value) {
+        BinaryNode<K, V> node = searchBinaryNode(key);
+        return node != null ? replaceValue(node, value) : null;
+    }
+
+    /**
+     * 组合聚合结果所用的二元运算
+     */
+    public BinaryOperator<V> combiner() {
+        return _combiner;
+    }
+
+    /**
+     * 整棵树的聚合结果，树为空时返回null，O(1)
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V aggregate() {
+        return _root != null ? ((Node<K, V>) _root).aggregate : null;
+    }
+
+    /**
+     * 键落在[lo, hi)之间的所有值的聚合结果，区间为空时返回null，O(logn)
+     */
+    @Nullable
+    public V aggregate(K lo, K hi) {
+        Assert.notNull(lo, "lo is required");
+        Assert.notNull(hi, "hi is required");
+        if (Comparators.compare(lo, hi, comparator()) >= 0) return null;
+        return aggregate(_root, lo, hi);
+    }
+
+    @Nullable
+    @Override
+    protected V replaceValue(BinaryNode<K, V> node, @Nullable V value) {
+        Assert.notNull(value, "value is required");
+        V old = node.entry.setValue(value);
+        node.updateSizeAbove();
+        return old;
+    }
+
+    @Override
+    protected BinaryNode<K, V> newBinaryNode(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent) {
+        Assert.notNull(value, "value is required");
+        return new Node<>(key, value, parent, _combiner);
+    }
+
+    /**
+     * 节点按各自的combiner聚合，combiner不同的树不能合并
+     */
+    @Override
+    void checkCompatible(BinarySearchTree<K, V> other) {
+        super.checkCompatible(other);
+        Assert.isTrue(((RangeAggregateTree<K, V>) other)._combiner == _combiner,
+                "trees must share the same combiner");
+    }
+
+    @Override
+    protected BinarySearchTree<K, V> newTree() {
+        Comparator<? super K> comparator = comparator();
+        return comparator == null
+                ? new RangeAggregateTree<>(_combiner)
+                : new RangeAggregateTree<>(comparator, _combiner);
+    }
+
+    /**
+     * lo、hi为null表示该侧没有边界。两侧都有边界时沿一条路径下行，直到遇到落在区间内的节点，
+     * 此后左、右两侧各只剩一个边界，每层至多再合并一颗完整子树的聚合结果
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V aggregate(@Nullable BinaryNode<K, V> node, @Nullable K lo, @Nullable K hi) {
+        if (node == null) return null;
+        if (lo == null && hi == null) {
+            return ((Node<K, V>) node).aggregate;
+        }
+        K key = node.entry.getKey();
+        if (lo != null && Comparators.compare(key, lo, comparator()) < 0) {
+            return aggregate(node.right, lo, hi);
+        }
+        if (hi != null && Comparators.compare(key, hi, comparator()) >= 0) {
+            return aggregate(node.left, lo, hi);
+        }
+        V left = aggregate(node.left, lo, null);
+        V right = aggregate(node.right, null, hi);
+        return combine(combine(left, node.entry.getValue()), right);
+    }
+
+    /**
+     * null代表空集
+     */
+    @Nullable
+    private V combine(@Nullable V lhs, @Nullable V rhs) {
+        if (lhs == null) return rhs;
+        if (rhs == null) return lhs;
+        return _combiner.apply(lhs, rhs);
+    }
+
+    static final class Node<K, V> extends AVLTree.Node<K, V> {
+
+        private final BinaryOperator<V> _combiner;
+
+        /**
+         * 子树中所有值按中序次序聚合的结果
+         */
+        V aggregate;
+
+        Node(K key, V value, @Nullable BinaryNode<K, V> parent, BinaryOperator<V> combiner) {
+            super(key, value, parent);
+            _combiner = combiner;
+            aggregate = value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void updateAugmentation() {
+            V result = entry.getValue();
+            if (left != null) {
+                result = _combiner.apply(((Node<K, V>) left).aggregate, result);
+            }
+            if (right != null) {
+                result = _combiner.apply(result, ((Node<K, V>) right).aggregate);
+            }
+            aggregate = result;
+        }
+
+    }
+
+}
@@ -201,9 +201,144 @@ public class RedBlackTree<K, V> extends BinarySearchTree<K, V> {
             // 进而退化成 sibling为黑，有红孩子
             // 或sibling为黑，没有红孩子但parent为红的情况
             solveDoubleBlack(r, parent);
+            // sibling由红转黑并成为parent的父亲，黑高度需要在parent修正之后重新计算
+            sibling.updateHeight();
         }
     }
 
+    /**
+     * 拆分，当前树只保留小于key的词条，其余词条移入一颗新的树并返回，O(logn)
+     */
+    public RedBlackTree<K, V> split(K key) {
+        return (RedBlackTree<K, V>) doSplit(key);
+    }
+
+    /**
+     * 合并，要求当前树中的键都不大于key，right中的键都不小于key，
+     * 合并之后right被清空，O(|bh(this) - bh(right)|)
+     */
+    public void join(K key, @Nullable V value, RedBlackTree<K, V> right) {
+        doJoin(key, value, right);
+    }
+
+    /**
+     * 并集，两颗树中都有的键保留当前树的词条，运算之后other被清空
+     */
+    public void union(RedBlackTree<K, V> other) {
+        doUnion(other);
+    }
+
+    /**
+     * 交集，只保留other中也有的键，运算之后other被清空
+     */
+    public void intersection(RedBlackTree<K, V> other) {
+        doIntersection(other);
+    }
+
+    /**
+     * 差集，删除other中也有的键，运算之后other被清空
+     */
+    public void difference(RedBlackTree<K, V> other) {
+        doDifference(other);
+    }
+
+    @Override
+    protected BinarySearchTree<K, V> newTree() {
+        Comparator<? super K> comparator = comparator();
+        return comparator == null ? new RedBlackTree<>() : new RedBlackTree<>(comparator);
+    }
+
+    /**
+     * 按照黑高度合并。黑高度相等时以middle为根，两侧的根都为黑时染红，否则染黑；
+     * 黑高度不等时沿较高一侧的外侧链下行，直到遇见黑高度与较矮一侧相等的黑节点c，
+     * 以红色的middle为根把c与较矮一侧合并，自下而上的途中若出现双红，
+     * 就像{@link #solveDoubleRed(Node)}那样做一次旋转，O(|bh(left) - bh(right)|)。
+     *
+     * 合并的中间结果允许红色的根，树的根由{@link #resetRoot(BinaryNode)}最终染黑。
+     */
+    @Override
+    protected BinaryNode<K, V> joinTrees(@Nullable BinaryNode<K, V> left, BinaryNode<K, V> middle,
+                                         @Nullable BinaryNode<K, V> right) {
+        int lh = blackHeight(left);
+        int rh = blackHeight(right);
+        if (lh > rh) {
+            Node<K, V> root = (Node<K, V>) joinRight(left, (Node<K, V>) middle, right, rh);
+            if (root.isRed() && isRed(root.right)) {
+                root.color = Node.Color.BLACK;
+                root.updateHeight();
+            }
+            return root;
+        }
+        if (rh > lh) {
+            Node<K, V> root = (Node<K, V>) joinLeft(left, (Node<K, V>) middle, right, lh);
+            if (root.isRed() && isRed(root.left)) {
+                root.color = Node.Color.BLACK;
+                root.updateHeight();
+            }
+            return root;
+        }
+        ((Node<K, V>) middle).color = isBlack(left) && isBlack(right) ? Node.Color.RED : Node.Color.BLACK;
+        return link(middle, left, right);
+    }
+
+    /**
+     * left的黑高度大于rh，沿left的右侧链下行
+     */
+    @SuppressWarnings("all")
+    private BinaryNode<K, V> joinRight(@Nullable BinaryNode<K, V> left, Node<K, V> middle,
+                                       @Nullable BinaryNode<K, V> right, int rh) {
+        if (isBlack(left) && blackHeight(left) == rh) {
+            middle.color = Node.Color.RED;
+            return link(middle, left, right);
+        }
+        BinaryNode<K, V> t = link(left, left.left, joinRight(left.right, middle, right, rh));
+        if (isBlack(t) && isRed(t.right) && isRed(t.right.right)) {
+            // 双红，旋转之后t.right成为红色的根，两个孩子都为黑
+            ((Node<K, V>) t.right.right).color = Node.Color.BLACK;
+            t.right.right.updateHeight();
+            return rotateLeft(t);
+        }
+        return t;
+    }
+
+    /**
+     * right的黑高度大于lh，沿right的左侧链下行
+     */
+    @SuppressWarnings("all")
+    private BinaryNode<K, V> joinLeft(@Nullable BinaryNode<K, V> left, Node<K, V> middle,
+                                      @Nullable BinaryNode<K, V> right, int lh) {
+        if (isBlack(right) && blackHeight(right) == lh) {
+            middle.color = Node.Color.RED;
+            return link(middle, left, right);
+        }
+        BinaryNode<K, V> t = link(right, joinLeft(left, middle, right.left, lh), right.right);
+        if (isBlack(t) && isRed(t.left) && isRed(t.left.left)) {
+            ((Node<K, V>) t.left.left).color = Node.Color.BLACK;
+            t.left.left.updateHeight();
+            return rotateRight(t);
+        }
+        return t;
+    }
+
+    /**
+     * 树根必须为黑色
+     */
+    @Override
+    protected void resetRoot(@Nullable BinaryNode<K, V> rootNode) {
+        if (rootNode != null && ((Node<K, V>) rootNode).isRed()) {
+            ((Node<K, V>) rootNode).color = Node.Color.BLACK;
+            rootNode.updateHeight();
+        }
+        super.resetRoot(rootNode);
+    }
+
+    /**
+     * 黑高度，外部节点为1
+     */
+    private static int blackHeight(@Nullable BinaryNode<?, ?> node) {
+        return node != null ? node.height : 1;
+    }
+
     private boolean isBlack(@Nullable BinaryNode<K, V> node) {
         // 外部节点为黑
         return node == null || ((Node<K, V>) node).isBlack();
@@ -225,6 +360,17 @@ public class RedBlackTree<K, V> extends BinarySearchTree<K, V> {
         return new Node<>(key, value, Node.Color.RED, parent);
     }
 
+    /**
+     * 批量构建出的树除最底层以外都是满的，最底层的节点染红、其余染黑，
+     * 所有外部节点的黑深度就都等于maxDepth + 1；只有一个节点时根节点为黑
+     */
+    @Override
+    protected BinaryNode<K, V> newBinaryNode(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent,
+                                             int depth, int maxDepth) {
+        Node.Color color = depth == maxDepth && maxDepth > 0 ? Node.Color.RED : Node.Color.BLACK;
+        return new Node<>(key, value, color, parent);
+    }
+
     static class Node<K, V> extends BinaryNode<K, V> {
 
         enum Color {
@@ -15,6 +15,11 @@ import java.util.*;
  */
 public class SortedArray<E> implements Collection<E> {
 
+    /**
+     * 批量插入时，待插入元素超过该阈值才会启用并行排序
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
     private final List<E> _storage;
 
     @Nullable
@@ -35,10 +40,78 @@ public class SortedArray<E> implements Collection<E> {
         return _storage.get(index);
     }
 
+    /**
+     * 第一个不小于element的元素的索引，不存在时返回size()
+     */
+    public int lowerBound(E element) {
+        Assert.notNull(element, "element is required");
+        return findInsertionPoint(element);
+    }
+
+    /**
+     * 第一个大于element的元素的索引，不存在时返回size()
+     */
+    public int upperBound(E element) {
+        Assert.notNull(element, "element is required");
+        int start = 0;
+        int end = _storage.size();
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            int order = Comparators.compare(_storage.get(mid), element, _comparator);
+            if (order > 0) {
+                end = mid;
+            } else {
+                start = mid + 1;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * [from, to)范围内的元素个数，O(logn)
+     */
+    public int countInRange(E from, E to) {
+        return Math.max(0, lowerBound(to) - lowerBound(from));
+    }
+
+    /**
+     * [from, to)范围内的元素构成的只读视图
+     *
+     * 视图直接引用底层存储，不发生拷贝，定位边界只需要O(logn)。
+     * 视图创建以后，若SortedArray发生了结构性修改，再访问视图
+     * 将抛出{@link ConcurrentModificationException}。
+     */
+    public List<E> range(E from, E to) {
+        int start = lowerBound(from);
+        int end = Math.max(start, lowerBound(to));
+        return Collections.unmodifiableList(_storage.subList(start, end));
+    }
+
+    /**
+     * 小于to的元素构成的只读视图
+     *
+     * @see #range(Object, Object)
+     */
+    public List<E> headView(E to) {
+        return Collections.unmodifiableList(_storage.subList(0, lowerBound(to)));
+    }
+
+    /**
+     * 不小于from的元素构成的只读视图
+     *
+     * @see #range(Object, Object)
+     */
+    public List<E> tailView(E from) {
+        return Collections.unmodifiableList(_storage.subList(lowerBound(from), _storage.size()));
+    }
+
     public E delete(int index) {
         return _storage.remove(index);
     }
 
+    /**
+     * 插入element，新元素排在与之相等的元素之前，返回插入位置
+     */
     public int insert(E element) {
         Assert.notNull(element, "element is required");
         int index = findInsertionPoint(element);
@@ -46,6 +119,45 @@ public class SortedArray<E> implements Collection<E> {
         return index;
     }
 
+    /**
+     * 批量插入，先将待插入的元素排序，再与已有元素做一次线性归并，
+     * 总代价为O(n + mlogm)，而逐个插入则需要O(mn)。
+     *
+     * 结果与按c的迭代次序逐个{@link #insert(Object)}完全相同：比较相等时
+     * 新元素排在已有元素之前，后插入的排在先插入的之前，
+     * 因此{@link #add(Object)}与{@link #addAll(Collection)}的结果一致。
+     */
+    @SuppressWarnings("unchecked")
+    public void insertAll(Collection<? extends E> c) {
+        Assert.notNull(c, "collection is required");
+        E[] batch = (E[]) c.toArray();
+        if (batch.length == 0) return;
+        for (E e : batch) {
+            Assert.notNull(e, "element is required");
+        }
+        Comparator<E> comparator = ($0, $1) -> Comparators.compare($0, $1, _comparator);
+        // 先逆置再稳定排序，相等的元素即按插入次序的逆序排列
+        Collections.reverse(Arrays.asList(batch));
+        if (batch.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(batch, comparator);
+        } else {
+            Arrays.sort(batch, comparator);
+        }
+        // 先扩容，再从后往前归并，如此不需要额外的空间
+        int i = _storage.size() - 1;
+        int j = batch.length - 1;
+        _storage.addAll(Arrays.asList(batch));
+        int k = _storage.size() - 1;
+        while (j >= 0) {
+            // 相等时优先放置已有元素（靠后），与逐个插入的结果保持一致
+            if (i >= 0 && comparator.compare(_storage.get(i), batch[j]) >= 0) {
+                _storage.set(k--, _storage.get(i--));
+            } else {
+                _storage.set(k--, batch[j--]);
+            }
+        }
+    }
+
     @Override
     public boolean isEmpty() {
         return _storage.isEmpty();
@@ -67,9 +179,33 @@ public class SortedArray<E> implements Collection<E> {
         return true;
     }
 
+    /**
+     * 借助二分查找定位元素，返回其索引，不存在时返回-1
+     *
+     * 比较结果为0的元素未必相等，因此需要在比较意义上相等的
+     * 那一段元素中逐个检查equals
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOf(@Nullable Object o) {
+        if (o == null) return -1;
+        try {
+            E element = (E) o;
+            int size = _storage.size();
+            for (int i = findInsertionPoint(element);
+                 i < size && Comparators.compare(_storage.get(i), element, _comparator) == 0; i++) {
+                if (o.equals(_storage.get(i))) {
+                    return i;
+                }
+            }
+        } catch (ClassCastException ex) {
+            // 类型不兼容，必然不存在
+        }
+        return -1;
+    }
+
     @Override
     public boolean contains(Object o) {
-        return _storage.contains(o);
+        return indexOf(o) >= 0;
     }
 
     @Override
@@ -89,7 +225,10 @@ public class SortedArray<E> implements Collection<E> {
 
     @Override
     public boolean remove(Object o) {
-        return _storage.remove(o);
+        int index = indexOf(o);
+        if (index < 0) return false;
+        _storage.remove(index);
+        return true;
     }
 
     @Override
@@ -100,9 +239,7 @@ public class SortedArray<E> implements Collection<E> {
     @Override
     public boolean addAll(Collection<? extends E> c) {
         if (CollectionUtils.isEmpty(c)) return false;
-        for (E e : c) {
-            add(e);
-        }
+        insertAll(c);
         return true;
     }
 
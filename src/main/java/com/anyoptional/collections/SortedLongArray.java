@@ -0,0 +1,310 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * 元素为long的有序数组，是{@link SortedArray}针对基本类型的特化版本。
+ *
+ * 元素直接存放在long[]中，既没有装箱开销，也不需要借助比较器比较，
+ * 插入、删除只在扩容时分配内存，其余情况下只是一次System.arraycopy。
+ * 除了二分查找以外，对于分布比较均匀的键（比如时间戳、自增ID），
+ * 还可以使用插值查找，期望O(loglogn)次探测即可定位。
+ *
+ * @apiNote SortedLongArray permit duplicate elements.
+ */
+public class SortedLongArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] _storage;
+
+    private int _size = 0;
+
+    public SortedLongArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SortedLongArray(int initialCapacity) {
+        Assert.isTrue(initialCapacity >= 0, "initialCapacity[{}] must be positive", initialCapacity);
+        _storage = new long[initialCapacity];
+    }
+
+    /**
+     * 以给定的元素构建有序数组，元素无需有序
+     */
+    public static SortedLongArray of(long... values) {
+        Assert.notNull(values, "values is required");
+        SortedLongArray result = new SortedLongArray(values.length);
+        System.arraycopy(values, 0, result._storage, 0, values.length);
+        Arrays.sort(result._storage);
+        result._size = values.length;
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    public void clear() {
+        _size = 0;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return _storage[index];
+    }
+
+    /**
+     * 插入一个元素，返回其索引，新元素排在与之相等的元素之前
+     */
+    public int insert(long value) {
+        int index = lowerBound(value);
+        if (_size == _storage.length) {
+            _storage = Arrays.copyOf(_storage, Math.max(DEFAULT_CAPACITY, _size + (_size >> 1)));
+        }
+        System.arraycopy(_storage, index, _storage, index + 1, _size - index);
+        _storage[index] = value;
+        _size += 1;
+        return index;
+    }
+
+    /**
+     * 删除指定位置的元素
+     */
+    public long delete(int index) {
+        checkIndex(index);
+        long result = _storage[index];
+        System.arraycopy(_storage, index + 1, _storage, index, _size - index - 1);
+        _size -= 1;
+        return result;
+    }
+
+    /**
+     * 删除一个值为value的元素
+     */
+    public boolean remove(long value) {
+        int index = indexOf(value);
+        if (index < 0) return false;
+        delete(index);
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * 二分查找，返回第一个值为value的元素的索引，不存在时返回-1
+     */
+    public int indexOf(long value) {
+        int index = lowerBound(value);
+        return index < _size && _storage[index] == value ? index : -1;
+    }
+
+    /**
+     * 插值查找，返回第一个值为value的元素的索引，不存在时返回-1
+     *
+     * 假定元素大致均匀分布，按照value在[lo, hi]区间中的比例估计其位置，
+     * 均匀分布时期望探测O(loglogn)次，最坏情况下退化为O(n)。
+     */
+    public int interpolationSearch(long value) {
+        int lo = 0;
+        int hi = _size - 1;
+        while (lo <= hi && value >= _storage[lo] && value <= _storage[hi]) {
+            if (_storage[hi] == _storage[lo]) {
+                // 区间内的元素全部相等，且必然等于value
+                return lo;
+            }
+            // 借助double避免溢出
+            int pos = lo + (int) (((double) value - _storage[lo]) / ((double) _storage[hi] - _storage[lo]) * (hi - lo));
+            pos = Math.min(Math.max(pos, lo), hi);
+            if (_storage[pos] < value) {
+                lo = pos + 1;
+            } else if (_storage[pos] > value) {
+                hi = pos - 1;
+            } else {
+                // 回退到第一个相等的元素
+                while (pos > lo && _storage[pos - 1] == value) {
+                    pos--;
+                }
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 第一个不小于value的元素的索引，不存在时返回size()
+     */
+    public int lowerBound(long value) {
+        int start = 0;
+        int end = _size;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (_storage[mid] < value) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * 第一个大于value的元素的索引，不存在时返回size()
+     */
+    public int upperBound(long value) {
+        int start = 0;
+        int end = _size;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (_storage[mid] <= value) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * 交集，结果中的元素互不相同
+     *
+     * 遍历较短的数组，在较长的数组中做指数搜索（galloping），
+     * 代价为O(mlog(n/m))，两者规模悬殊时远优于线性归并。
+     */
+    public SortedLongArray intersection(SortedLongArray other) {
+        Assert.notNull(other, "other is required");
+        SortedLongArray small = _size <= other._size ? this : other;
+        SortedLongArray large = small == this ? other : this;
+        SortedLongArray result = new SortedLongArray(small._size);
+        long[] a = small._storage;
+        long[] b = large._storage;
+        int j = 0;
+        for (int i = 0; i < small._size && j < large._size; i++) {
+            long value = a[i];
+            // 跳过重复元素
+            if (i > 0 && a[i - 1] == value) continue;
+            j = gallop(b, j, large._size, value);
+            if (j < large._size && b[j] == value) {
+                result._storage[result._size++] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并集，结果中的元素互不相同
+     */
+    public SortedLongArray union(SortedLongArray other) {
+        Assert.notNull(other, "other is required");
+        SortedLongArray result = new SortedLongArray(_size + other._size);
+        long[] a = _storage;
+        long[] b = other._storage;
+        long[] out = result._storage;
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < _size || j < other._size) {
+            long value;
+            if (j == other._size || (i < _size && a[i] <= b[j])) {
+                value = a[i++];
+            } else {
+                value = b[j++];
+            }
+            if (k == 0 || out[k - 1] != value) {
+                out[k++] = value;
+            }
+        }
+        result._size = k;
+        return result;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(_storage, 0, _size);
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(_storage, _size);
+    }
+
+    /**
+     * 在a[from, to)中做指数搜索，返回第一个不小于value的位置
+     */
+    private static int gallop(long[] a, int from, int to, long value) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        // 不变式：a[lo - 1] < value
+        while (hi < to && a[hi] < value) {
+            lo = hi + 1;
+            hi = from + step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        // 答案位于[lo, hi]之间
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 把int键逐个放宽为long键，供只接受long键的结构复用
+     */
+    static long[] widen(int[] keys) {
+        Assert.notNull(keys, "sorted keys is required");
+        long[] result = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = keys[i];
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("index[" + index + "] out of range");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SortedLongArray that = (SortedLongArray) o;
+        if (_size != that._size) return false;
+        for (int i = 0; i < _size; i++) {
+            if (_storage[i] != that._storage[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < _size; i++) {
+            hash = 31 * hash + Long.hashCode(_storage[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+}
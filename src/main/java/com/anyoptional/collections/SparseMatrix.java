@@ -0,0 +1,47 @@
+package com.anyoptional.collections;
+
+/**
+ * 元素为double的稀疏矩阵，只存储非零元素。
+ *
+ * 与{@link Array2D}、{@link DoubleArray2D}有着相同的形状API（getRows、getColumns、get），
+ * 调用方可以根据矩阵的密度选择稠密或稀疏的表示。三种实现：
+ *  {@link CooMatrix} 三元组（row, column, value）列表，适合逐个添加元素来构建矩阵
+ *  {@link CsrMatrix} 按行压缩，适合按行访问、矩阵乘向量
+ *  {@link CscMatrix} 按列压缩，适合按列访问
+ */
+public interface SparseMatrix {
+
+    int getRows();
+
+    int getColumns();
+
+    /**
+     * 获取某个位置的值，未存储的位置为0
+     */
+    double get(int row, int column);
+
+    /**
+     * 存储的非零元素的个数
+     */
+    int nnz();
+
+    /**
+     * 按存储次序访问所有非零元素，代价为O(nnz)
+     */
+    void forEachNonZero(NonZeroConsumer consumer);
+
+    /**
+     * 转换为稠密的二维数组
+     */
+    default DoubleArray2D toDense() {
+        DoubleArray2D result = new DoubleArray2D(getRows(), getColumns());
+        forEachNonZero((row, column, value) -> result.set(row, column, result.get(row, column) + value));
+        return result;
+    }
+
+    @FunctionalInterface
+    interface NonZeroConsumer {
+        void accept(int row, int column, double value);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Comparator;
+
+/**
+ * 伸展树，每次访问后都把被访问的节点伸展到根。
+ *
+ * 伸展树不维护任何平衡条件，单次操作最坏O(n)，但分摊O(logn)；访问分布越集中，
+ * 热点越靠近根，查找越快。注意查找也会改变树的结构，因此即便只读也不是线程安全的。
+ *
+ * @apiNote SplayTree do not permit null key.
+ */
+public class SplayTree<K, V> extends BinarySearchTree<K, V> {
+
+    public SplayTree() {
+    }
+
+    public SplayTree(Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * 查找并把命中的节点伸展到根；未命中时伸展最后访问的节点
+     */
+    @Nullable
+    @Override
+    public Entry<K, V> search(K key) {
+        Assert.notNull(key, "key is required");
+        BinaryNode<K, V> hot = null;
+        BinaryNode<K, V> cur = _root;
+        while (cur != null) {
+            hot = cur;
+            int order = Comparators.compare(key, cur.entry.getKey(), comparator());
+            if (order == 0) {
+                splay(cur);
+                return cur.entry;
+            }
+            cur = order > 0 ? cur.right : cur.left;
+        }
+        if (hot != null) {
+            splay(hot);
+        }
+        return null;
+    }
+
+    @Override
+    public void insert(K key, @Nullable V value) {
+        splay(doInsert(key, value));
+    }
+
+    @Nullable
+    @Override
+    public Entry<K, V> remove(K key) {
+        Tuple3<Entry<K, V>, BinaryNode<K, V>, BinaryNode<K, V>> tuple3 = doRemove(key, true);
+        // 被删除节点的父亲伸展到根
+        if (tuple3.second != null) {
+            splay(tuple3.second);
+        }
+        return tuple3.first;
+    }
+
+    @Override
+    protected BinarySearchTree<K, V> newTree() {
+        Comparator<? super K> comparator = comparator();
+        return comparator == null ? new SplayTree<>() : new SplayTree<>(comparator);
+    }
+
+    /**
+     * 自底向上的双层伸展：v与p同侧时先旋g再旋p（zig-zig/zag-zag），
+     * 异侧时与AVL的双旋相同（zig-zag/zag-zig），只剩父节点时单旋一次
+     */
+    @SuppressWarnings("all")
+    private void splay(BinaryNode<K, V> v) {
+        while (v.parent != null) {
+            BinaryNode<K, V> p = v.parent;
+            BinaryNode<K, V> g = p.parent;
+            if (g == null) {
+                if (v.isLeftChild()) {
+                    p.zig();
+                } else {
+                    p.zag();
+                }
+                p.updateHeight();
+            } else if (v.isLeftChild() == p.isLeftChild()) {
+                if (v.isLeftChild()) {
+                    g.zig();
+                    p.zig();
+                } else {
+                    g.zag();
+                    p.zag();
+                }
+                g.updateHeight();
+                p.updateHeight();
+            } else {
+                rotateAt(g, p, v);
+                p.updateHeight();
+                g.updateHeight();
+            }
+            v.updateHeight();
+        }
+        _root = v;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 树堆，按键是二叉搜索树，按随机优先级是大顶堆。
+ *
+ * 优先级随机，树的形状与插入次序无关，期望高度O(logn)；拆分、合并只沿一条路径
+ * 进行，期望O(logn)。
+ *
+ * @apiNote Treap do not permit null key.
+ */
+public class Treap<K, V> extends BinarySearchTree<K, V> {
+
+    /**
+     * 批量构建时，优先级的高位由节点的深度决定，低位随机
+     */
+    private static final int DEPTH_SHIFT = 26;
+
+    public Treap() {
+    }
+
+    public Treap(Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * 插入后把新节点向上旋转，直到父节点的优先级不低于它
+     */
+    @Override
+    @SuppressWarnings("all")
+    public void insert(K key, @Nullable V value) {
+        Node<K, V> node = (Node<K, V>) doInsert(key, value);
+        while (!node.isRoot() && ((Node<K, V>) node.parent).priority < node.priority) {
+            BinaryNode<K, V> p = node.parent;
+            if (node.isLeftChild()) {
+                p.zig();
+            } else {
+                p.zag();
+            }
+            p.updateHeight();
+            node.updateHeight();
+        }
+        if (node.isRoot()) {
+            _root = node;
+        } else {
+            node.parent.updateHeightAbove();
+        }
+    }
+
+    /**
+     * 把待删除的节点旋转到叶子方向（优先级较高的孩子上位），直到它至多只有一个孩子，再摘除
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("all")
+    public Entry<K, V> remove(K key) {
+        BinaryNode<K, V> node = searchBinaryNode(key);
+        if (node == null) return null;
+        while (node.hasBothChildren()) {
+            BinaryNode<K, V> child;
+            if (((Node<K, V>) node.left).priority > ((Node<K, V>) node.right).priority) {
+                child = node.left;
+                node.zig();
+            } else {
+                child = node.right;
+                node.zag();
+            }
+            if (child.isRoot()) {
+                _root = child;
+            }
+        }
+        BinaryNode<K, V> replacement = node.hasLeftChild() ? node.left : node.right;
+        BinaryNode<K, V> hot = node.parent;
+        if (replacement != null) {
+            replacement.parent = hot;
+        }
+        if (hot == null) {
+            _root = replacement;
+        } else {
+            if (node.isLeftChild()) {
+                hot.left = replacement;
+            } else {
+                hot.right = replacement;
+            }
+            // 旋转过的节点都在node到根的路径上，一并更新高度与规模
+            hot.updateHeightAbove();
+        }
+        node.left = null;
+        node.right = null;
+        node.parent = null;
+        resetRoot(_root);
+        return node.entry;
+    }
+
+    /**
+     * 拆分，当前树只保留小于key的词条，其余词条移入一颗新的树并返回，期望O(logn)
+     */
+    public Treap<K, V> split(K key) {
+        Assert.notNull(key, "key is required");
+        Tuple<BinaryNode<K, V>, BinaryNode<K, V>> parts = split(_root, key);
+        Treap<K, V> right = (Treap<K, V>) newTree();
+        resetRoot(parts.first);
+        right.resetRoot(parts.second);
+        return right;
+    }
+
+    /**
+     * 合并，要求当前树中的键都不大于right中的键，合并之后right被清空，期望O(logn)
+     */
+    public void merge(Treap<K, V> right) {
+        checkCompatible(right);
+        BinaryNode<K, V> last = lastNode();
+        BinaryNode<K, V> first = right.firstNode();
+        if (last != null && first != null) {
+            Assert.isTrue(Comparators.compare(last.entry.getKey(), first.entry.getKey(), comparator()) <= 0,
+                    "keys of right must not be less than keys of this");
+        }
+        resetRoot(merge(_root, right._root));
+        right.clear();
+    }
+
+    @Override
+    protected BinaryNode<K, V> newBinaryNode(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent) {
+        return new Node<>(key, value, parent, ThreadLocalRandom.current().nextInt() & Integer.MAX_VALUE);
+    }
+
+    /**
+     * 批量构建出的树已经完全平衡，只需保证父节点的优先级高于孩子：
+     * 越浅的节点高位越大，同一深度内的先后由随机的低位决定
+     */
+    @Override
+    protected BinaryNode<K, V> newBinaryNode(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent,
+                                             int depth, int maxDepth) {
+        int priority = ((maxDepth - depth) << DEPTH_SHIFT) | ThreadLocalRandom.current().nextInt(1 << DEPTH_SHIFT);
+        return new Node<>(key, value, parent, priority);
+    }
+
+    @Override
+    protected BinarySearchTree<K, V> newTree() {
+        Comparator<? super K> comparator = comparator();
+        return comparator == null ? new Treap<>() : new Treap<>(comparator);
+    }
+
+    /**
+     * 以优先级为序合并两颗子树，x中的键都不大于y中的键
+     */
+    @Nullable
+    @SuppressWarnings("all")
+    private static <K, V> BinaryNode<K, V> merge(@Nullable BinaryNode<K, V> x, @Nullable BinaryNode<K, V> y) {
+        if (x == null) return y;
+        if (y == null) return x;
+        if (((Node<K, V>) x).priority > ((Node<K, V>) y).priority) {
+            return link(x, x.left, merge(x.right, y));
+        }
+        return link(y, merge(x, y.left), y.right);
+    }
+
+    /**
+     * 把子树拆成小于key、不小于key的两部分，各部分仍满足堆序
+     */
+    private Tuple<BinaryNode<K, V>, BinaryNode<K, V>> split(@Nullable BinaryNode<K, V> node, K key) {
+        if (node == null) return new Tuple<>(null, null);
+        if (Comparators.compare(node.entry.getKey(), key, comparator()) < 0) {
+            Tuple<BinaryNode<K, V>, BinaryNode<K, V>> parts = split(node.right, key);
+            return new Tuple<>(link(node, node.left, parts.first), parts.second);
+        }
+        Tuple<BinaryNode<K, V>, BinaryNode<K, V>> parts = split(node.left, key);
+        return new Tuple<>(parts.first, link(node, parts.second, node.right));
+    }
+
+    static class Node<K, V> extends BinaryNode<K, V> {
+
+        /**
+         * 堆序所依据的随机优先级
+         */
+        final int priority;
+
+        Node(K key, @Nullable V value, @Nullable BinaryNode<K, V> parent, int priority) {
+            super(key, value, parent);
+            this.priority = priority;
+        }
+
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * 二叉搜索树上可反复定位的游标
+ *
+ * 游标用一个显式的路径栈记录从根到当前节点的整条路径，前进、后退只需在栈上
+ * 压入或弹出节点，不依赖父指针，也不会为每个元素分配对象。路径栈在多次
+ * seek之间复用，只在树高超过容量时才扩容。
+ *
+ * 游标不会感知树的结构性修改，树被修改以后需要重新seek。
+ *
+ * <pre>{@code
+ * TreeCursor<K, V> cursor = tree.cursor();
+ * for (boolean ok = cursor.seek(lo); ok && compare(cursor.key(), hi) < 0; ok = cursor.next()) {
+ *     consume(cursor.key(), cursor.value());
+ * }
+ * }</pre>
+ */
+public final class TreeCursor<K, V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final BinarySearchTree<K, V> _tree;
+
+    /**
+     * 从根到当前节点的路径，_path[_depth - 1]为当前节点
+     */
+    private BinaryNode<K, V>[] _path;
+
+    /**
+     * 路径上的节点数，0表示游标无效
+     */
+    private int _depth;
+
+    @SuppressWarnings("unchecked")
+    TreeCursor(BinarySearchTree<K, V> tree) {
+        _tree = tree;
+        int height = tree._root != null ? tree._root.height + 1 : 0;
+        _path = (BinaryNode<K, V>[]) new BinaryNode<?, ?>[Math.max(INITIAL_CAPACITY, height)];
+    }
+
+    /**
+     * 游标是否停在某个词条上
+     */
+    public boolean isValid() {
+        return _depth > 0;
+    }
+
+    /**
+     * 定位到键不小于key的第一个词条（有多个时取中序次序下第一个），返回游标是否有效
+     */
+    public boolean seek(K key) {
+        Assert.notNull(key, "key is required");
+        Comparator<? super K> comparator = _tree.comparator();
+        _depth = 0;
+        int found = 0;
+        BinaryNode<K, V> cur = _tree._root;
+        while (cur != null) {
+            push(cur);
+            if (Comparators.compare(cur.entry.getKey(), key, comparator) >= 0) {
+                // cur满足条件，它之前的路径就是定位结果，继续在左子树中寻找更小的
+                found = _depth;
+                cur = cur.left;
+            } else {
+                cur = cur.right;
+            }
+        }
+        _depth = found;
+        return found > 0;
+    }
+
+    /**
+     * 定位到最小的词条，返回游标是否有效
+     */
+    public boolean seekFirst() {
+        _depth = 0;
+        if (_tree._root != null) {
+            pushLeftSpine(_tree._root);
+        }
+        return isValid();
+    }
+
+    /**
+     * 定位到最大的词条，返回游标是否有效
+     */
+    public boolean seekLast() {
+        _depth = 0;
+        if (_tree._root != null) {
+            pushRightSpine(_tree._root);
+        }
+        return isValid();
+    }
+
+    /**
+     * 移动到中序次序下的后继，返回游标是否仍然有效
+     */
+    public boolean next() {
+        if (_depth == 0) return false;
+        BinaryNode<K, V> cur = _path[_depth - 1];
+        if (cur.right != null) {
+            // 后继是右子树中最左的节点
+            pushLeftSpine(cur.right);
+            return true;
+        }
+        // 否则沿路径回退，直到某个节点是其父节点的左孩子，那个父节点即为后继
+        while (_depth > 1) {
+            BinaryNode<K, V> child = _path[--_depth];
+            if (_path[_depth - 1].left == child) {
+                return true;
+            }
+        }
+        _depth = 0;
+        return false;
+    }
+
+    /**
+     * 移动到中序次序下的前驱，返回游标是否仍然有效
+     */
+    public boolean prev() {
+        if (_depth == 0) return false;
+        BinaryNode<K, V> cur = _path[_depth - 1];
+        if (cur.left != null) {
+            // 前驱是左子树中最右的节点
+            pushRightSpine(cur.left);
+            return true;
+        }
+        while (_depth > 1) {
+            BinaryNode<K, V> child = _path[--_depth];
+            if (_path[_depth - 1].right == child) {
+                return true;
+            }
+        }
+        _depth = 0;
+        return false;
+    }
+
+    /**
+     * 当前词条的键
+     */
+    public K key() {
+        return current().entry.getKey();
+    }
+
+    /**
+     * 当前词条的值
+     */
+    @Nullable
+    public V value() {
+        return current().entry.getValue();
+    }
+
+    /**
+     * 使游标失效，并释放路径栈对节点的引用
+     */
+    public void reset() {
+        for (int i = 0; i < _path.length && _path[i] != null; i++) {
+            _path[i] = null;
+        }
+        _depth = 0;
+    }
+
+    private BinaryNode<K, V> current() {
+        if (_depth == 0) {
+            throw new NoSuchElementException();
+        }
+        return _path[_depth - 1];
+    }
+
+    private void pushLeftSpine(@Nullable BinaryNode<K, V> node) {
+        while (node != null) {
+            push(node);
+            node = node.left;
+        }
+    }
+
+    private void pushRightSpine(@Nullable BinaryNode<K, V> node) {
+        while (node != null) {
+            push(node);
+            node = node.right;
+        }
+    }
+
+    private void push(BinaryNode<K, V> node) {
+        if (_depth == _path.length) {
+            // 只有树高超过容量时才扩容，之后的扫描继续复用
+            _path = Arrays.copyOf(_path, _path.length << 1);
+        }
+        _path[_depth++] = node;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.anyoptional.graph;
+
+import com.anyoptional.collections.Heap;
+import com.anyoptional.collections.IndexedHeap;
+import com.anyoptional.collections.RadixHeap;
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Dijkstra单源最短路径算法，要求边权非负。
+ *
+ * 算法每次从候选集中取出距离最小的顶点，而取出的距离是单调不减的，
+ * 因此除了常规的二叉堆以外，还可以使用索引堆（支持decrease-key）
+ * 或单调的基数堆。通过{@link Strategy}切换不同的优先级队列，以便
+ * 在实际的图上比较它们的差异。
+ */
+public abstract class Dijkstra {
+
+    /**
+     * 不可达顶点的距离
+     */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    public enum Strategy {
+
+        /**
+         * 基于比较器的{@link Heap}，以惰性删除代替decrease-key
+         */
+        HEAP,
+
+        /**
+         * {@link IndexedHeap}，每个顶点至多在堆中出现一次
+         */
+        INDEXED_HEAP,
+
+        /**
+         * 单调的{@link RadixHeap}，以惰性删除代替decrease-key
+         */
+        RADIX_HEAP
+
+    }
+
+    /**
+     * 计算source到其余各顶点的最短距离，不可达的顶点距离为{@link #UNREACHABLE}
+     */
+    public static long[] shortestPaths(Graph graph, int source, Strategy strategy) {
+        Assert.notNull(graph, "graph is required");
+        Assert.notNull(strategy, "strategy is required");
+        graph.checkVertex(source);
+        long[] distances = new long[graph.getVertexCount()];
+        Arrays.fill(distances, UNREACHABLE);
+        distances[source] = 0;
+        switch (strategy) {
+            case HEAP:
+                withHeap(graph, source, distances);
+                break;
+            case INDEXED_HEAP:
+                withIndexedHeap(graph, source, distances);
+                break;
+            case RADIX_HEAP:
+                withRadixHeap(graph, source, distances);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown strategy " + strategy);
+        }
+        return distances;
+    }
+
+    private static void withHeap(Graph graph, int source, long[] distances) {
+        // Heap是大顶堆，距离越小优先级越高
+        Heap<Candidate> heap = new Heap<>(Comparator.comparingLong((Candidate $0) -> $0.distance).reversed());
+        heap.insert(new Candidate(source, 0));
+        while (!heap.isEmpty()) {
+            Candidate candidate = heap.remove();
+            int u = candidate.vertex;
+            // 已经找到了更短的路径，这是一个过期的候选
+            if (candidate.distance > distances[u]) continue;
+            for (int e = graph.firstEdge(u), last = graph.lastEdge(u); e < last; e++) {
+                int v = graph.target(e);
+                long distance = candidate.distance + graph.weight(e);
+                if (distance < distances[v]) {
+                    distances[v] = distance;
+                    heap.insert(new Candidate(v, distance));
+                }
+            }
+        }
+    }
+
+    private static void withIndexedHeap(Graph graph, int source, long[] distances) {
+        IndexedHeap heap = new IndexedHeap(graph.getVertexCount());
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.remove();
+            long base = distances[u];
+            for (int e = graph.firstEdge(u), last = graph.lastEdge(u); e < last; e++) {
+                int v = graph.target(e);
+                long distance = base + graph.weight(e);
+                if (distance < distances[v]) {
+                    distances[v] = distance;
+                    heap.insertOrDecrease(v, distance);
+                }
+            }
+        }
+    }
+
+    private static void withRadixHeap(Graph graph, int source, long[] distances) {
+        RadixHeap<Integer> heap = new RadixHeap<>();
+        heap.insert(0, source);
+        while (!heap.isEmpty()) {
+            long base = heap.peekKey();
+            int u = heap.remove();
+            // 过期的候选
+            if (base > distances[u]) continue;
+            for (int e = graph.firstEdge(u), last = graph.lastEdge(u); e < last; e++) {
+                int v = graph.target(e);
+                long distance = base + graph.weight(e);
+                if (distance < distances[v]) {
+                    distances[v] = distance;
+                    heap.insert(distance, v);
+                }
+            }
+        }
+    }
+
+    private static class Candidate {
+
+        final int vertex;
+
+        final long distance;
+
+        Candidate(int vertex, long distance) {
+            this.vertex = vertex;
+            this.distance = distance;
+        }
+
+        @Override
+        public String toString() {
+            return "(" + vertex + ", " + distance + ")";
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.anyoptional.graph;
+
+import com.anyoptional.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 带权有向图，顶点以[0, vertexCount)范围内的整数表示，边权为非负的long。
+ *
+ * 添加边时先按添加顺序记录下来，首次遍历邻接边时再压缩成CSR（Compressed Sparse Row）
+ * 格式：同一顶点的出边在数组中连续存放，offsets[v]到offsets[v + 1]之间即为v的全部出边。
+ */
+public class Graph {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int _vertexCount;
+
+    private int _edgeCount = 0;
+
+    private int[] _from = new int[INITIAL_CAPACITY];
+
+    private int[] _to = new int[INITIAL_CAPACITY];
+
+    private long[] _weights = new long[INITIAL_CAPACITY];
+
+    /**
+     * CSR格式的邻接表，添加边以后失效
+     */
+    private int[] _offsets;
+
+    private int[] _targets;
+
+    private long[] _targetWeights;
+
+    public Graph(int vertexCount) {
+        Assert.isTrue(vertexCount >= 0, "vertexCount[{}] must be positive", vertexCount);
+        _vertexCount = vertexCount;
+    }
+
+    public int getVertexCount() {
+        return _vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return _edgeCount;
+    }
+
+    /**
+     * 添加一条有向边
+     */
+    public void addEdge(int from, int to, long weight) {
+        checkVertex(from);
+        checkVertex(to);
+        Assert.isTrue(weight >= 0, "weight[{}] must be positive", weight);
+        if (_edgeCount == _from.length) {
+            int newCapacity = _edgeCount + (_edgeCount >> 1);
+            _from = Arrays.copyOf(_from, newCapacity);
+            _to = Arrays.copyOf(_to, newCapacity);
+            _weights = Arrays.copyOf(_weights, newCapacity);
+        }
+        _from[_edgeCount] = from;
+        _to[_edgeCount] = to;
+        _weights[_edgeCount] = weight;
+        _edgeCount += 1;
+        _offsets = null;
+    }
+
+    /**
+     * 添加一条无向边，等价于两条方向相反的有向边
+     */
+    public void addUndirectedEdge(int u, int v, long weight) {
+        addEdge(u, v, weight);
+        addEdge(v, u, weight);
+    }
+
+    /**
+     * 顶点v的出边在{@link #target(int)}、{@link #weight(int)}中的起始位置
+     */
+    int firstEdge(int v) {
+        compact();
+        return _offsets[v];
+    }
+
+    /**
+     * 顶点v的出边在{@link #target(int)}、{@link #weight(int)}中的结束位置（不含）
+     */
+    int lastEdge(int v) {
+        compact();
+        return _offsets[v + 1];
+    }
+
+    int target(int edge) {
+        return _targets[edge];
+    }
+
+    long weight(int edge) {
+        return _targetWeights[edge];
+    }
+
+    void checkVertex(int v) {
+        Assert.isTrue(v >= 0 && v < _vertexCount, "vertex[{}] out of range", v);
+    }
+
+    /**
+     * 按起点做一次计数排序，压缩成CSR格式
+     */
+    private void compact() {
+        if (_offsets != null) return;
+        int[] offsets = new int[_vertexCount + 1];
+        for (int i = 0; i < _edgeCount; i++) {
+            offsets[_from[i] + 1] += 1;
+        }
+        for (int v = 0; v < _vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = Arrays.copyOf(offsets, _vertexCount);
+        int[] targets = new int[_edgeCount];
+        long[] weights = new long[_edgeCount];
+        for (int i = 0; i < _edgeCount; i++) {
+            int slot = cursor[_from[i]]++;
+            targets[slot] = _to[i];
+            weights[slot] = _weights[i];
+        }
+        _targets = targets;
+        _targetWeights = weights;
+        _offsets = offsets;
+    }
+
+}
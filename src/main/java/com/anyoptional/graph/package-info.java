@@ -0,0 +1,6 @@
+@NonnullApi
+@NonnullFields
+package com.anyoptional.graph;
+
+import com.anyoptional.lang.NonnullApi;
+import com.anyoptional.lang.NonnullFields;
\ No newline at end of file
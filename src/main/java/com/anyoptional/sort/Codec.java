@@ -0,0 +1,79 @@
+package com.anyoptional.sort;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 元素与字节之间的编解码器，供{@link ExternalMergeSort}溢写、读回归并段时使用。
+ */
+public interface Codec<E> {
+
+    /**
+     * 元素编码后的字节数
+     */
+    int sizeOf(E element);
+
+    /**
+     * 将元素编码写入target，恰好写入{@link #sizeOf(Object)}个字节
+     */
+    void encode(E element, ByteBuffer target);
+
+    /**
+     * 从source中解码一个元素，source的remaining恰好是该元素编码后的字节
+     */
+    E decode(ByteBuffer source);
+
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public int sizeOf(Integer element) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer element, ByteBuffer target) {
+            target.putInt(element);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer source) {
+            return source.getInt();
+        }
+    };
+
+    Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public int sizeOf(Long element) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long element, ByteBuffer target) {
+            target.putLong(element);
+        }
+
+        @Override
+        public Long decode(ByteBuffer source) {
+            return source.getLong();
+        }
+    };
+
+    Codec<String> STRING = new Codec<String>() {
+        @Override
+        public int sizeOf(String element) {
+            return element.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void encode(String element, ByteBuffer target) {
+            target.put(element.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer source) {
+            byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+}
@@ -0,0 +1,351 @@
+package com.anyoptional.sort;
+
+import com.anyoptional.collections.MergingIterator;
+import com.anyoptional.lang.Nullable;
+import com.anyoptional.util.Assert;
+import com.anyoptional.util.Comparators;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 外部归并排序，用于对超出内存容量的数据集排序。
+ *
+ * 1. 从输入中每次读取至多maxElementsInMemory个元素，在内存中排序后
+ *    借助NIO的FileChannel和ByteBuffer溢写到临时文件，形成一个归并段
+ * 2. 归并段的数目超过fanIn时，每fanIn个归并段合并成一个更长的归并段
+ * 3. 最终由{@link MergingIterator}对剩余的归并段做一次k路归并
+ * 任意时刻内存中至多保留maxElementsInMemory个元素以及fanIn个读缓冲区。
+ * 若输入本身就能装进内存，则不会产生任何临时文件。
+ *
+ * 排序是稳定的：内存排序使用稳定的归并排序，多路归并时相等元素
+ * 按归并段的生成次序输出。
+ *
+ * @apiNote ExternalMergeSort do not permit null element.
+ */
+public class ExternalMergeSort<E> {
+
+    private static final int DEFAULT_FAN_IN = 64;
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Codec<E> _codec;
+
+    private final int _maxElementsInMemory;
+
+    @Nullable
+    private final Comparator<? super E> _comparator;
+
+    private int _fanIn = DEFAULT_FAN_IN;
+
+    private int _bufferSize = DEFAULT_BUFFER_SIZE;
+
+    @Nullable
+    private Path _tempDirectory;
+
+    public ExternalMergeSort(Codec<E> codec, int maxElementsInMemory) {
+        this(codec, maxElementsInMemory, null);
+    }
+
+    public ExternalMergeSort(Codec<E> codec, int maxElementsInMemory, @Nullable Comparator<? super E> comparator) {
+        Assert.notNull(codec, "codec is required");
+        Assert.isTrue(maxElementsInMemory > 0, "maxElementsInMemory[{}] must be positive", maxElementsInMemory);
+        _codec = codec;
+        _maxElementsInMemory = maxElementsInMemory;
+        _comparator = comparator;
+    }
+
+    /**
+     * 每一轮至多同时归并的归并段数目
+     */
+    public void setFanIn(int fanIn) {
+        Assert.isTrue(fanIn >= 2, "fanIn[{}] must be at least 2", fanIn);
+        _fanIn = fanIn;
+    }
+
+    /**
+     * 每个归并段读写缓冲区的字节数
+     */
+    public void setBufferSize(int bufferSize) {
+        Assert.isTrue(bufferSize >= Integer.BYTES, "bufferSize[{}] is too small", bufferSize);
+        _bufferSize = bufferSize;
+    }
+
+    /**
+     * 存放临时文件的目录，默认为系统临时目录
+     */
+    public void setTempDirectory(@Nullable Path tempDirectory) {
+        _tempDirectory = tempDirectory;
+    }
+
+    /**
+     * 对input排序，返回的迭代器耗尽或被关闭时，所有临时文件都会被删除
+     */
+    public Result<E> sort(Iterator<? extends E> input) throws IOException {
+        Assert.notNull(input, "input is required");
+        List<E> chunk = readChunk(input);
+        // 输入能够装进内存
+        if (!input.hasNext()) {
+            return new Result<>(chunk.iterator(), Collections.emptyList(), Collections.emptyList());
+        }
+        // 所有尚未删除的临时文件，出错时统一清理
+        Set<Path> temporaries = new LinkedHashSet<>();
+        try {
+            List<Path> runs = new ArrayList<>();
+            while (!chunk.isEmpty()) {
+                Path run = writeRun(chunk.iterator());
+                temporaries.add(run);
+                runs.add(run);
+                chunk = readChunk(input);
+            }
+            // 多趟归并，直到归并段的数目不超过fanIn
+            // 相邻的归并段合并后仍保持原有次序，以保证稳定性
+            while (runs.size() > _fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += _fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + _fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                        continue;
+                    }
+                    List<RunReader<E>> readers = openRuns(group);
+                    Path merged;
+                    try {
+                        merged = writeRun(new MergingIterator<>(readers, _comparator));
+                    } finally {
+                        closeQuietly(readers);
+                    }
+                    temporaries.add(merged);
+                    next.add(merged);
+                    deleteQuietly(group);
+                    temporaries.removeAll(group);
+                }
+                runs = next;
+            }
+            List<RunReader<E>> readers = openRuns(runs);
+            return new Result<>(new MergingIterator<>(readers, _comparator), readers, runs);
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(temporaries);
+            throw ex;
+        }
+    }
+
+    private List<E> readChunk(Iterator<? extends E> input) {
+        List<E> chunk = new ArrayList<>();
+        while (chunk.size() < _maxElementsInMemory && input.hasNext()) {
+            E element = input.next();
+            Assert.notNull(element, "element is required");
+            chunk.add(element);
+        }
+        // 稳定排序
+        chunk.sort(($0, $1) -> Comparators.compare($0, $1, _comparator));
+        return chunk;
+    }
+
+    /**
+     * 将有序的元素依次写入一个新的归并段，每个元素编码为[int length][bytes]
+     */
+    private Path writeRun(Iterator<? extends E> elements) throws IOException {
+        Path run = _tempDirectory != null ?
+                Files.createTempFile(_tempDirectory, "run-", ".tmp") :
+                Files.createTempFile("run-", ".tmp");
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(_bufferSize);
+            while (elements.hasNext()) {
+                E element = elements.next();
+                int size = _codec.sizeOf(element);
+                int required = Integer.BYTES + size;
+                if (buffer.remaining() < required) {
+                    flush(channel, buffer);
+                }
+                if (buffer.remaining() >= required) {
+                    buffer.putInt(size);
+                    _codec.encode(element, buffer);
+                } else {
+                    // 单个元素比缓冲区还大，单独写出
+                    ByteBuffer large = ByteBuffer.allocate(required);
+                    large.putInt(size);
+                    _codec.encode(element, large);
+                    flush(channel, large);
+                }
+            }
+            flush(channel, buffer);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(run);
+            throw ex;
+        }
+        return run;
+    }
+
+    private List<RunReader<E>> openRuns(List<Path> runs) throws IOException {
+        List<RunReader<E>> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                readers.add(new RunReader<>(run, _codec, _bufferSize));
+            }
+        } catch (IOException ex) {
+            closeQuietly(readers);
+            throw ex;
+        }
+        return readers;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void closeQuietly(Collection<? extends Closeable> closeables) {
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void deleteQuietly(Collection<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 排序结果，按序迭代所有元素
+     */
+    public static class Result<E> implements Iterator<E>, Closeable {
+
+        private final Iterator<E> _merged;
+
+        private final List<? extends Closeable> _readers;
+
+        private final List<Path> _runs;
+
+        private boolean _closed = false;
+
+        private Result(Iterator<E> merged, List<? extends Closeable> readers, List<Path> runs) {
+            _merged = merged;
+            _readers = readers;
+            _runs = runs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (_closed) return false;
+            if (_merged.hasNext()) return true;
+            close();
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return _merged.next();
+        }
+
+        /**
+         * 关闭所有归并段并删除临时文件
+         */
+        @Override
+        public void close() {
+            if (_closed) return;
+            _closed = true;
+            closeQuietly(_readers);
+            deleteQuietly(_runs);
+        }
+    }
+
+    /**
+     * 顺序读取一个归并段
+     */
+    private static class RunReader<E> implements Iterator<E>, Closeable {
+
+        private final FileChannel _channel;
+
+        private final Codec<E> _codec;
+
+        private ByteBuffer _buffer;
+
+        private boolean _eof = false;
+
+        RunReader(Path run, Codec<E> codec, int bufferSize) throws IOException {
+            _channel = FileChannel.open(run, StandardOpenOption.READ);
+            _codec = codec;
+            _buffer = ByteBuffer.allocateDirect(bufferSize);
+            // 初始为空，读模式
+            _buffer.flip();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return fill(Integer.BYTES);
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int size = _buffer.getInt();
+            if (!fill(size)) {
+                throw new UncheckedIOException(new IOException("truncated run file"));
+            }
+            int limit = _buffer.limit();
+            int end = _buffer.position() + size;
+            _buffer.limit(end);
+            E element = _codec.decode(_buffer);
+            _buffer.limit(limit);
+            _buffer.position(end);
+            return element;
+        }
+
+        /**
+         * 保证缓冲区中至少有required个字节可读，不足时返回false
+         */
+        private boolean fill(int required) {
+            if (_buffer.remaining() >= required) return true;
+            if (_eof) return false;
+            try {
+                if (_buffer.capacity() < required) {
+                    // 单个元素比缓冲区还大，扩容
+                    ByteBuffer larger = ByteBuffer.allocateDirect(required);
+                    larger.put(_buffer);
+                    _buffer = larger;
+                } else {
+                    _buffer.compact();
+                }
+                while (_buffer.position() < required) {
+                    if (_channel.read(_buffer) < 0) {
+                        _eof = true;
+                        break;
+                    }
+                }
+                _buffer.flip();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return _buffer.remaining() >= required;
+        }
+
+        @Override
+        public void close() throws IOException {
+            _channel.close();
+        }
+    }
+
+}
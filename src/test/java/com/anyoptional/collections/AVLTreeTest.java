@@ -3,8 +3,12 @@ package com.anyoptional.collections;
 import com.anyoptional.lang.Nullable;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.Assert.*;
 
@@ -108,4 +112,158 @@ public class AVLTreeTest {
         return Math.max(lh, rh) + 1;
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testOrderStatistics() {
+        BinarySearchTreeTest.assertOrderStatistics(new AVLTree<>(), new Random(42), 3000);
+    }
+
+    @Test
+    public void testBulkLoad() {
+        Random random = new Random(42);
+        for (int n : new int[]{1, 2, 3, 7, 8, 100, 1023, 1024, 5000}) {
+            List<Entry<Integer, Integer>> entries = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                entries.add(new Entry<>(i, i));
+            }
+            AVLTree<Integer, Integer> sorted = new AVLTree<>();
+            sorted.addAll(entries);
+            assertBulkLoaded(sorted, n);
+            // 乱序输入先排序
+            Collections.shuffle(entries, random);
+            AVLTree<Integer, Integer> shuffled = new AVLTree<>();
+            shuffled.addAll(entries);
+            assertBulkLoaded(shuffled, n);
+            assertEquals(sorted.toString(), shuffled.toString());
+        }
+    }
+
+    @Test
+    public void testBulkLoadIntoNonEmpty() {
+        AVLTree<Integer, Integer> avlTree = new AVLTree<>();
+        for (int i = 0; i < 10; i += 2) {
+            avlTree.insert(i, 0);
+        }
+        List<Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            entries.add(new Entry<>(i, 1));
+        }
+        avlTree.addAll(entries);
+        assertBulkLoaded(avlTree, 15);
+        // 相等的键，已有词条在前
+        List<Integer> values = new ArrayList<>();
+        avlTree.traverseInOrder($0 -> values.add($0.getValue()));
+        assertEquals(Arrays.asList(0, 1, 1, 0, 1, 1, 0, 1, 1, 0, 1, 1, 0, 1, 1), values);
+        // 构建之后仍可正常增删
+        BinarySearchTreeTest.assertOrderStatistics(avlTree, new Random(7), 500);
+        assertTrue(verifyBalanced(avlTree));
+    }
+
+    private void assertBulkLoaded(AVLTree<Integer, Integer> avlTree, int n) {
+        assertEquals(n, avlTree.size());
+        assertEquals(n, avlTree._root.subtreeSize);
+        assertNull(avlTree._root.parent);
+        assertTrue(verifyBalanced(avlTree));
+        // 完全平衡
+        assertEquals(31 - Integer.numberOfLeadingZeros(n), avlTree._root.height);
+        avlTree._root.traverseInOrder($0 -> {
+            assertEquals($0.size(), $0.subtreeSize);
+            if ($0.hasLeftChild()) assertSame($0, $0.left.parent);
+            if ($0.hasRightChild()) assertSame($0, $0.right.parent);
+        });
+        List<Integer> keys = new ArrayList<>();
+        avlTree.traverseInOrder($0 -> keys.add($0.getKey()));
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1) <= keys.get(i));
+        }
+    }
+
+    @Test
+    public void testSplitAndJoin() {
+        Random random = new Random(42);
+        for (int n : new int[]{0, 1, 2, 10, 1000}) {
+            AVLTree<Integer, Integer> avlTree = new AVLTree<>();
+            for (int i = 0; i < n; i++) {
+                avlTree.insert(i * 2, i);
+            }
+            int key = n == 0 ? 0 : random.nextInt(2 * n);
+            AVLTree<Integer, Integer> right = avlTree.split(key);
+            assertSplit(avlTree, right, key, n);
+            // 原样合并回去
+            AVLTree<Integer, Integer> tail = right.split(key + 1);
+            avlTree.join(key, -1, tail);
+            assertTrue(tail.isEmpty());
+            assertTrue(verifyBalanced(avlTree));
+            assertEquals(avlTree.size(), avlTree._root.subtreeSize);
+            assertTrue(avlTree.containsKey(key));
+        }
+        // 高度相差悬殊的两棵树
+        AVLTree<Integer, Integer> small = new AVLTree<>();
+        small.insert(0, 0);
+        AVLTree<Integer, Integer> large = new AVLTree<>();
+        for (int i = 2; i < 5000; i++) {
+            large.insert(i, i);
+        }
+        small.join(1, 1, large);
+        assertEquals(5000, small.size());
+        assertTrue(verifyBalanced(small));
+        assertEquals(Integer.valueOf(1), small.select(1).getKey());
+    }
+
+    private void assertSplit(AVLTree<Integer, Integer> left, AVLTree<Integer, Integer> right, int key, int n) {
+        assertEquals(n, left.size() + right.size());
+        assertTrue(verifyBalanced(left));
+        assertTrue(verifyBalanced(right));
+        left.traverseInOrder($0 -> assertTrue($0.getKey() < key));
+        right.traverseInOrder($0 -> assertTrue($0.getKey() >= key));
+        if (!left.isEmpty()) assertEquals(left.size(), left._root.subtreeSize);
+        if (!right.isEmpty()) assertEquals(right.size(), right._root.subtreeSize);
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(42);
+        // 规模超过PARALLEL_GRAIN时并行执行
+        for (int n : new int[]{0, 1, 50, 3000, 20000}) {
+            for (int operation = 0; operation < 3; operation++) {
+                TreeSet<Integer> expected = new TreeSet<>();
+                TreeSet<Integer> others = new TreeSet<>();
+                AVLTree<Integer, Integer> avlTree = new AVLTree<>();
+                AVLTree<Integer, Integer> other = new AVLTree<>();
+                for (int i = 0; i < n; i++) {
+                    int key = random.nextInt(2 * n);
+                    if (expected.add(key)) avlTree.insert(key, 0);
+                }
+                for (int i = 0; i < n / 3; i++) {
+                    int key = random.nextInt(2 * n);
+                    if (others.add(key)) other.insert(key, 1);
+                }
+                if (operation == 0) {
+                    avlTree.union(other);
+                    // 公共的键保留当前树的值
+                    for (int key : others) {
+                        if (!expected.contains(key)) assertEquals(1, (int) avlTree.searchValue(key));
+                        else assertEquals(0, (int) avlTree.searchValue(key));
+                    }
+                    expected.addAll(others);
+                } else if (operation == 1) {
+                    avlTree.intersection(other);
+                    expected.retainAll(others);
+                } else {
+                    avlTree.difference(other);
+                    expected.removeAll(others);
+                }
+                assertTrue(other.isEmpty());
+                assertEquals(expected.size(), avlTree.size());
+                List<Integer> keys = new ArrayList<>();
+                avlTree.traverseInOrder($0 -> keys.add($0.getKey()));
+                assertEquals(new ArrayList<>(expected), keys);
+                assertTrue(verifyBalanced(avlTree));
+                if (!avlTree.isEmpty()) {
+                    assertNull(avlTree._root.parent);
+                    avlTree._root.traverseInOrder($0 -> assertEquals($0.size(), $0.subtreeSize));
+                }
+            }
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package com.anyoptional.collections;
 import org.junit.Test;
 
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -97,6 +98,104 @@ public class Array2DTest {
 
     }
 
+    @Test
+    public void testViews() {
+        Array2D<Integer> array = numbered(4, 5);
+        Array2D<Integer> sub = array.subGrid(1, 2, 2, 3);
+        assertEquals(2, sub.getRows());
+        assertEquals(3, sub.getColumns());
+        assertEquals("[[7, 8, 9], [12, 13, 14]]", sub.toString());
+        // 视图与原数组共享存储
+        sub.set(0, 0, -1);
+        assertEquals(-1, (int) array.get(1, 2));
+        assertEquals("[[5, 6, -1, 8, 9]]", array.row(1).toString());
+        assertEquals("[[3], [8], [13], [18]]", array.column(3).toString());
+        assertEquals("[[13]]", sub.column(1).row(1).toString());
+        assertEquals(numbered(2, 3), numbered(4, 3).subGrid(0, 0, 3, 3).subGrid(0, 0, 2, 3));
+        assertNotEquals(numbered(2, 3), array.subGrid(1, 1, 2, 3));
+        assertEquals(numbered(2, 3).hashCode(), numbered(4, 3).subGrid(0, 0, 2, 3).hashCode());
+        try {
+            array.subGrid(3, 0, 2, 1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            sub.get(2, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testViewEqualsAndHashCode() {
+        Array2D<Integer> array = numbered(4, 4);
+        Array2D<Integer> copy = new Array2D<>(2, 2);
+        copy.copyRegion(array.subGrid(1, 1, 2, 2), 0, 0);
+        assertEquals(copy, array.subGrid(1, 1, 2, 2));
+        assertEquals(copy.hashCode(), array.subGrid(1, 1, 2, 2).hashCode());
+    }
+
+    @Test
+    public void testFill() {
+        Array2D<Integer> array = new Array2D<>(3, 4, 0);
+        array.fill(1, 1, 2, 2, 7);
+        assertEquals("[[0, 0, 0, 0], [0, 7, 7, 0], [0, 7, 7, 0]]", array.toString());
+        array.column(3).fill(5);
+        assertEquals("[[0, 0, 0, 5], [0, 7, 7, 5], [0, 7, 7, 5]]", array.toString());
+        array.fill(null);
+        assertNull(array.get(2, 3));
+    }
+
+    @Test
+    public void testCopyRegion() {
+        Array2D<Integer> source = numbered(3, 3);
+        Array2D<Integer> target = new Array2D<>(4, 4, 0);
+        target.copyRegion(source.subGrid(1, 0, 2, 3), 2, 1);
+        assertEquals("[[0, 0, 0, 0], [0, 0, 0, 0], [0, 3, 4, 5], [0, 6, 7, 8]]", target.toString());
+
+        // 区域重叠，目标在源之后
+        Array2D<Integer> array = numbered(4, 4);
+        array.copyRegion(array.subGrid(0, 0, 3, 3), 1, 1);
+        assertEquals("[[0, 1, 2, 3], [4, 0, 1, 2], [8, 4, 5, 6], [12, 8, 9, 10]]", array.toString());
+        // 区域重叠，目标在源之前
+        array = numbered(4, 4);
+        array.copyRegion(array.subGrid(1, 1, 3, 3), 0, 0);
+        assertEquals("[[5, 6, 7, 3], [9, 10, 11, 7], [13, 14, 15, 11], [12, 13, 14, 15]]", array.toString());
+        try {
+            array.copyRegion(source, 2, 2);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStream() {
+        Array2D<Integer> array = numbered(100, 37);
+        assertEquals(3700, array.stream().count());
+        assertEquals(3699L * 3700 / 2, array.parallelStream().mapToLong(Integer::longValue).sum());
+        Array2D<Integer> sub = array.subGrid(10, 5, 20, 7);
+        assertEquals(sub.stream().collect(Collectors.toList()),
+                sub.parallelStream().collect(Collectors.toList()));
+        int k = 0;
+        for (Integer e : sub.stream().collect(Collectors.toList())) {
+            assertEquals(sub.get(k / 7, k % 7), e);
+            k++;
+        }
+    }
+
+    private static Array2D<Integer> numbered(int rows, int columns) {
+        Array2D<Integer> array = new Array2D<>(rows, columns);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                array.set(i, j, i * columns + j);
+            }
+        }
+        return array;
+    }
+
     private static class TestElement {
 
         private final String identifier;
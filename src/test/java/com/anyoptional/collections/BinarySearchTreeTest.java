@@ -344,6 +344,67 @@ public class BinarySearchTreeTest {
     }
 
 
+    @Test
+    public void testOrderStatistics() {
+        BinarySearchTree<Integer, Integer> tree = new BinarySearchTree<>();
+        assertEquals(0, tree.rank(42));
+        assertEquals(0, tree.countRange(0, 100));
+        for (int k : new int[]{5, 3, 8, 3, 1, 9, 7, 3}) {
+            tree.insert(k, k);
+        }
+        // 1 3 3 3 5 7 8 9
+        assertEquals(0, tree.rank(1));
+        assertEquals(1, tree.rank(3));
+        assertEquals(4, tree.rank(4));
+        assertEquals(8, tree.rank(10));
+        assertEquals(3, (int) tree.select(3).getKey());
+        assertEquals(9, (int) tree.select(7).getKey());
+        assertEquals(4, tree.countRange(3, 6));
+        assertEquals(0, tree.countRange(6, 3));
+        try {
+            tree.select(8);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {
+            // expected
+        }
+        assertOrderStatistics(tree, new Random(1), 500);
+    }
+
+    /**
+     * 随机插入、删除，同时校验子树规模以及rank、select、countRange
+     */
+    static void assertOrderStatistics(BinarySearchTree<Integer, Integer> tree, Random random, int operations) {
+        List<Integer> expected = new ArrayList<>();
+        tree.traverseInOrder($0 -> expected.add($0.getKey()));
+        for (int i = 0; i < operations; i++) {
+            int key = random.nextInt(100);
+            if (random.nextInt(3) == 0) {
+                if (tree.remove(key) != null) {
+                    expected.remove((Integer) key);
+                }
+            } else {
+                tree.insert(key, key);
+                expected.add(key);
+            }
+            Collections.sort(expected);
+            assertEquals(expected.size(), tree.size());
+            if (tree._root != null) {
+                assertEquals(tree.size(), tree._root.subtreeSize);
+                tree._root.traverseInOrder($0 -> assertEquals($0.size(), $0.subtreeSize));
+            }
+            for (int k = 0; k < expected.size(); k++) {
+                assertEquals(expected.get(k), tree.select(k).getKey());
+            }
+            int probe = random.nextInt(110) - 5;
+            int rank = 0;
+            while (rank < expected.size() && expected.get(rank) < probe) {
+                rank++;
+            }
+            assertEquals(rank, tree.rank(probe));
+            assertEquals(tree.rank(probe + 10) - rank, tree.countRange(probe, probe + 10));
+        }
+    }
+
     private <K, V> void addAll(BinarySearchTree<K, V> tree, Collection<K> c) {
         for (K k : c) {
             tree.insert(k, null);
@@ -0,0 +1,136 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompactAVLTreeTest {
+
+    @Test
+    public void testBasic() {
+        CompactAVLTree<String, Integer> tree = new CompactAVLTree<>();
+        assertTrue(tree.isEmpty());
+        assertNull(tree.remove("a"));
+        tree.insert("b", 1);
+        tree.insert("a", 2);
+        tree.insert("c", 3);
+        assertEquals(3, tree.size());
+        assertEquals(2, (int) tree.searchValue("a"));
+        assertTrue(tree.containsKey("c"));
+        assertFalse(tree.containsKey("d"));
+        assertEquals("[a=2, b=1, c=3]", tree.toString());
+        assertEquals(new Entry<>("b", 1), tree.remove("b"));
+        assertEquals(2, tree.size());
+        assertEquals("[a=2, c=3]", tree.toString());
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.iterator().hasNext());
+    }
+
+    @Test
+    public void testAgainstAVLTree() {
+        Random random = new Random(42);
+        CompactAVLTree<Integer, Integer> tree = new CompactAVLTree<>(Comparator.reverseOrder());
+        AVLTree<Integer, Integer> expected = new AVLTree<>(Comparator.reverseOrder());
+        for (int i = 0; i < 10000; i++) {
+            // 允许重复的键
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                Entry<Integer, Integer> removed = tree.remove(key);
+                Integer value = expected.searchValue(key);
+                assertEquals(expected.remove(key) == null, removed == null);
+                if (removed != null) {
+                    // 返回被删除的词条本身
+                    assertEquals(key, (int) removed.getKey());
+                    assertEquals(value, removed.getValue());
+                }
+            } else {
+                expected.insert(key, i);
+                tree.insert(key, i);
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.searchValue(key), tree.searchValue(key));
+            assertBalanced(tree, tree._root, CompactAVLTree.NIL);
+        }
+        assertTraversalsEqual(expected, tree);
+    }
+
+    @Test
+    public void testFreeListReuse() {
+        CompactAVLTree<Integer, Integer> tree = new CompactAVLTree<>(4);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i, i);
+        }
+        int capacity = tree.capacity();
+        assertTrue(capacity >= 1000);
+        Random random = new Random(7);
+        // 删除之后空出的槽位被复用，不再扩容
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(1000);
+            if (tree.remove(key) != null) {
+                tree.insert(key + 1000 * (1 + i % 3), key);
+            }
+        }
+        assertEquals(1000, tree.size());
+        assertEquals(capacity, tree.capacity());
+        assertBalanced(tree, tree._root, CompactAVLTree.NIL);
+    }
+
+    @Test
+    public void testTraversals() {
+        Random random = new Random(1);
+        CompactAVLTree<Integer, Integer> tree = new CompactAVLTree<>();
+        AVLTree<Integer, Integer> expected = new AVLTree<>();
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(1000);
+            tree.insert(key, i);
+            expected.insert(key, i);
+        }
+        assertTraversalsEqual(expected, tree);
+    }
+
+    private static void assertTraversalsEqual(AVLTree<Integer, Integer> expected, CompactAVLTree<Integer, Integer> tree) {
+        // 同样的旋转规则得到同样的形状
+        List<Entry<Integer, Integer>> lhs = new ArrayList<>();
+        List<Entry<Integer, Integer>> rhs = new ArrayList<>();
+        expected.traversePreOrder(lhs::add);
+        tree.traversePreOrder(rhs::add);
+        assertEquals(lhs, rhs);
+        lhs.clear();
+        rhs.clear();
+        expected.traverseInOrder(lhs::add);
+        tree.traverseInOrder(rhs::add);
+        assertEquals(lhs, rhs);
+        lhs.clear();
+        rhs.clear();
+        expected.traversePostOrder(lhs::add);
+        tree.traversePostOrder(rhs::add);
+        assertEquals(lhs, rhs);
+        lhs.clear();
+        rhs.clear();
+        expected.traverseLevel(lhs::add);
+        tree.traverseLevel(rhs::add);
+        assertEquals(lhs, rhs);
+        rhs.clear();
+        tree.forEach(rhs::add);
+        lhs.clear();
+        expected.forEach(lhs::add);
+        assertEquals(lhs, rhs);
+    }
+
+    /**
+     * 校验AVL平衡、高度以及父指针，返回子树高度
+     */
+    private static int assertBalanced(CompactAVLTree<?, ?> tree, int node, int parent) {
+        if (node == CompactAVLTree.NIL) return -1;
+        assertEquals(parent, tree._parent[node]);
+        int lh = assertBalanced(tree, tree._left[node], node);
+        int rh = assertBalanced(tree, tree._right[node], node);
+        assertTrue(Math.abs(lh - rh) <= 1);
+        assertEquals(Math.max(lh, rh) + 1, tree._heights[node]);
+        return tree._heights[node];
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentAVLTreeTest {
+
+    @Test
+    public void testBasic() {
+        ConcurrentAVLTree<String, Integer> tree = new ConcurrentAVLTree<>();
+        assertTrue(tree.isEmpty());
+        assertNull(tree.remove("a"));
+        tree.insert("b", 1);
+        tree.insert("a", 2);
+        tree.insert("c", null);
+        tree.insert("b", 4);
+        assertEquals(3, tree.size());
+        assertEquals(4, (int) tree.searchValue("b"));
+        // null值也是存在的
+        assertTrue(tree.containsKey("c"));
+        assertNull(tree.searchValue("c"));
+        assertFalse(tree.containsKey("d"));
+        assertEquals("{a=2, b=4, c=null}", tree.toString());
+        // b有两个孩子，成为路由节点
+        assertEquals(new Entry<>("b", 4), tree.remove("b"));
+        assertFalse(tree.containsKey("b"));
+        assertNull(tree.search("b"));
+        assertEquals(2, tree.size());
+        assertEquals("{a=2, c=null}", tree.toString());
+        tree.insert("b", 5);
+        assertEquals(5, (int) tree.searchValue("b"));
+        assertEquals(3, tree.size());
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        ConcurrentAVLTree<Integer, Integer> tree = new ConcurrentAVLTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Integer value = expected.remove(key);
+                Entry<Integer, Integer> removed = tree.remove(key);
+                assertEquals(value, removed == null ? null : removed.getValue());
+            } else {
+                expected.put(key, i);
+                tree.insert(key, i);
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.get(key), tree.searchValue(key));
+            assertBalanced(tree._holder.right);
+        }
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        tree.traverseInOrder(entries::add);
+        assertEquals(new ArrayList<>(expected.entrySet()), entries);
+        List<Integer> level = new ArrayList<>();
+        tree.traverseLevel($0 -> level.add($0.getKey()));
+        assertEquals(new HashSet<>(expected.keySet()), new HashSet<>(level));
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        ConcurrentAVLTree<Integer, Integer> tree = new ConcurrentAVLTree<>();
+        // 偶数键始终存在，写者只增删奇数键，不断触发旋转和摘除
+        for (int i = 0; i < 2000; i += 2) {
+            tree.insert(i, i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                readers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    while (!done.get()) {
+                        int key = random.nextInt(1000) * 2;
+                        assertEquals(key, (int) tree.searchValue(key));
+                        Integer odd = tree.searchValue(key + 1);
+                        assertTrue(odd == null || odd == key + 1);
+                    }
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                final int seed = 100 + t;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50000; i++) {
+                        int key = random.nextInt(1000) * 2 + 1;
+                        if (random.nextBoolean()) {
+                            tree.insert(key, key);
+                        } else {
+                            tree.remove(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertBalanced(tree._holder.right);
+        int previous = -1;
+        for (Entry<Integer, Integer> e : tree) {
+            assertTrue(e.getKey() > previous);
+            previous = e.getKey();
+        }
+    }
+
+    /**
+     * 校验AVL平衡、高度、父指针以及路由节点都有两个孩子
+     */
+    private static <K, V> int assertBalanced(@Nullable ConcurrentAVLTree.Node<K, V> node) {
+        if (node == null) return -1;
+        if (node.left != null) assertSame(node, node.left.parent);
+        if (node.right != null) assertSame(node, node.right.parent);
+        if (node.isRouting()) {
+            assertTrue(node.left != null && node.right != null);
+        }
+        assertEquals(0, node.version & 1);
+        int lh = assertBalanced(node.left);
+        int rh = assertBalanced(node.right);
+        assertTrue(Math.abs(lh - rh) <= 1);
+        assertEquals(Math.max(lh, rh) + 1, node.height);
+        return node.height;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EytzingerArrayTest {
+
+    @Test
+    public void testLayout() {
+        EytzingerArray array = new EytzingerArray(new int[]{1, 2, 3, 4, 5, 6, 7});
+        //         4
+        //      2     6
+        //     1 3   5 7
+        assertArrayEquals(new long[]{0, 4, 2, 6, 1, 3, 5, 7}, array._tree);
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5, 6, 7}, array.toArray());
+    }
+
+    @Test
+    public void testEmpty() {
+        EytzingerArray array = new EytzingerArray(new long[0]);
+        assertTrue(array.isEmpty());
+        assertEquals(0, array.lowerBound(42));
+        assertFalse(array.contains(42));
+    }
+
+    @Test
+    public void testLowerBound() {
+        EytzingerArray array = new EytzingerArray(new long[]{1, 3, 3, 3, 7, 9});
+        assertEquals(0, array.lowerBound(0));
+        assertEquals(0, array.lowerBound(1));
+        assertEquals(1, array.lowerBound(2));
+        assertEquals(1, array.lowerBound(3));
+        assertEquals(4, array.lowerBound(4));
+        assertEquals(5, array.lowerBound(9));
+        assertEquals(6, array.lowerBound(10));
+        assertTrue(array.contains(7));
+        assertFalse(array.contains(8));
+        assertEquals(3, array.get(2));
+        assertEquals(9, array.get(5));
+    }
+
+    @Test
+    public void testRandomLowerBound() {
+        Random random = new Random();
+        for (int n = 0; n < 300; n++) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = random.nextInt(1000) - 500;
+            }
+            Arrays.sort(keys);
+            EytzingerArray array = new EytzingerArray(keys);
+            for (int i = 0; i < 100; i++) {
+                long key = random.nextInt(1200) - 600;
+                int expected = 0;
+                while (expected < n && keys[expected] < key) {
+                    expected++;
+                }
+                assertEquals(expected, array.lowerBound(key));
+                assertEquals(Arrays.binarySearch(keys, key) >= 0, array.contains(key));
+            }
+            for (int i = 0; i < n; i++) {
+                assertEquals(keys[i], array.get(i));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsorted() {
+        new EytzingerArray(new long[]{2, 1});
+    }
+
+}
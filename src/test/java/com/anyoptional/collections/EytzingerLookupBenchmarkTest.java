@@ -0,0 +1,120 @@
+package com.anyoptional.collections;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.Assert.*;
+
+/**
+ * 远超L3缓存的有序数组上，Eytzinger布局与普通二分查找的lowerBound耗时
+ *
+ * 2^26个long键占512MB，需要较大的堆，计时也受JIT、GC影响，不适合放进常规构建，需要时单独运行：
+ * mvn test -Dtest=EytzingerLookupBenchmarkTest -DfailIfNoTests=false -DargLine=-Xmx4g
+ * 并暂时去掉{@link Ignore}。
+ */
+public class EytzingerLookupBenchmarkTest {
+
+    private static final int KEYS = 1 << 26;
+
+    private static final int LOOKUPS = 1 << 22;
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testLowerBoundsAgree() {
+        Random random = new Random(42);
+        long[] keys = sortedKeys(1000);
+        EytzingerArray eytzinger = new EytzingerArray(keys);
+        SortedArray<Long> sorted = sortedArray(keys);
+        for (int i = 0; i < 10000; i++) {
+            long key = random.nextInt(2 * keys.length + 2) - 1;
+            int expected = lowerBound(keys, key);
+            assertEquals(expected, eytzinger.lowerBound(key));
+            assertEquals(expected, sorted.lowerBound(key));
+        }
+    }
+
+    @Ignore("benchmark, run manually")
+    @Test
+    public void benchmarkLowerBound() {
+        long[] keys = sortedKeys(KEYS);
+        Random random = new Random(43);
+        long[] lookups = new long[LOOKUPS];
+        Long[] boxed = new Long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = random.nextInt(2 * KEYS);
+            boxed[i] = lookups[i];
+        }
+
+        run("long[]", $0 -> lowerBound(keys, lookups[$0]));
+        // 各自在单独的方法中构建，返回之后即可回收，避免几份数据同时驻留
+        benchmarkEytzinger(keys, lookups);
+        benchmarkSortedArray(keys, boxed);
+    }
+
+    private static void benchmarkEytzinger(long[] keys, long[] lookups) {
+        EytzingerArray eytzinger = new EytzingerArray(keys);
+        run("EytzingerArray", $0 -> eytzinger.lowerBound(lookups[$0]));
+    }
+
+    private static void benchmarkSortedArray(long[] keys, Long[] lookups) {
+        SortedArray<Long> sorted = sortedArray(keys);
+        run("SortedArray", $0 -> sorted.lowerBound(lookups[$0]));
+    }
+
+    private static void run(String name, IntUnaryOperator lookup) {
+        long[] nanos = new long[ROUNDS];
+        long checksum = 0;
+        // 第一轮用于预热
+        for (int round = -1; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += lookup.applyAsInt(i);
+            }
+            if (round >= 0) {
+                nanos[round] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-14s median %6.1f ns/lookup (checksum %d)%n",
+                name, (double) nanos[ROUNDS / 2] / LOOKUPS, checksum);
+    }
+
+    /**
+     * n个偶数键0, 2, 4, ...，查找的键一半命中、一半落在两个键之间
+     */
+    private static long[] sortedKeys(int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2L * i;
+        }
+        return keys;
+    }
+
+    private static SortedArray<Long> sortedArray(long[] keys) {
+        SortedArray<Long> sorted = new SortedArray<>();
+        for (long key : keys) {
+            sorted.add(key);
+        }
+        return sorted;
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int start = 0;
+        int end = keys.length;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (keys[mid] < key) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+}
@@ -275,6 +275,29 @@ public class HeapTest {
     }
 
 
+    @Test
+    public void testParallelHeapify() {
+        List<Integer> a = randomArray(Heap.PARALLEL_HEAPIFY_THRESHOLD * 4 + 17);
+        Heap<Integer> h0 = new Heap<>();
+        h0._storage.addAll(a);
+        h0.heapify();
+        Heap<Integer> h1 = new Heap<>();
+        h1._storage.addAll(a);
+        h1.parallelHeapify();
+        assertTrue(verifyMaxHeap(h1));
+        // 子树之间的下滤调整互不干扰，结果与串行建堆完全一致
+        assertEquals(h0._storage, h1._storage);
+
+        Heap<Integer> h2 = new Heap<>(($0, $1) -> $1 - $0);
+        h2.addAll(a);
+        assertEquals(a.size(), h2.size());
+        assertTrue(verifyMinHeap(h2));
+        List<Integer> sorted = new ArrayList<>(h2._storage);
+        Collections.sort(sorted);
+        Collections.sort(a);
+        assertEquals(a, sorted);
+    }
+
     @Test
     public void testRemoving() {
         Heap<Integer> h = new Heap<>();
@@ -402,6 +425,18 @@ public class HeapTest {
         assertTrue(verifyMaxHeap(h));
     }
 
+    @Test
+    public void testReplaceTop() {
+        Heap<Integer> heap = new Heap<>();
+        // 空堆时相当于插入
+        assertNull(heap.replaceTop(3));
+        heap.addAll(Arrays.asList(1, 7, 5));
+        assertEquals(7, (int) heap.replaceTop(2));
+        assertEquals(5, (int) heap.peek());
+        assertEquals(4, heap.size());
+        assertTrue(verifyMaxHeap(heap));
+    }
+
     @Test
     public void testMergeMaxHeap() {
         Heap<Integer> h1 = new Heap<>();
@@ -0,0 +1,82 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedHeapTest {
+
+    @Test
+    public void testInsertAndRemove() {
+        IndexedHeap heap = new IndexedHeap(8);
+        assertTrue(heap.isEmpty());
+        heap.insert(3, 30);
+        heap.insert(1, 10);
+        heap.insert(5, 50);
+        heap.insert(7, 5);
+        assertEquals(4, heap.size());
+        assertTrue(heap.contains(5));
+        assertFalse(heap.contains(2));
+        assertEquals(7, heap.peek());
+        assertEquals(5, heap.peekKey());
+        assertEquals(7, heap.remove());
+        assertFalse(heap.contains(7));
+        assertEquals(1, heap.remove());
+        assertEquals(3, heap.remove());
+        assertEquals(5, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.insert(0, 100);
+        heap.insert(1, 50);
+        heap.insert(2, 70);
+        heap.decreaseKey(0, 10);
+        assertEquals(10, heap.keyOf(0));
+        assertEquals(0, heap.peek());
+        assertFalse(heap.insertOrDecrease(2, 80));
+        assertTrue(heap.insertOrDecrease(2, 20));
+        assertTrue(heap.insertOrDecrease(3, 15));
+        assertEquals(0, heap.remove());
+        assertEquals(3, heap.remove());
+        assertEquals(2, heap.remove());
+        assertEquals(1, heap.remove());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncreaseKey() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.insert(0, 10);
+        heap.decreaseKey(0, 11);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random();
+        int n = 500;
+        IndexedHeap heap = new IndexedHeap(n);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(10000);
+            heap.insert(i, keys[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            int index = random.nextInt(n);
+            keys[index] -= random.nextInt(100);
+            heap.decreaseKey(index, keys[index]);
+        }
+        long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (long key : sorted) {
+            int index = heap.remove();
+            assertEquals(key, keys[index]);
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntervalTreeTest {
+
+    @Test
+    public void testOverlapping() {
+        IntervalTree<Integer, String> tree = new IntervalTree<>();
+        tree.insert(15, 20, "a");
+        tree.insert(10, 30, "b");
+        tree.insert(17, 19, "c");
+        tree.insert(5, 20, "d");
+        tree.insert(12, 15, "e");
+        tree.insert(30, 40, "f");
+        assertEquals(Arrays.asList("d", "b", "e"), valuesOf(tree.overlapping(6, 14)));
+        assertEquals(Arrays.asList("b", "f"), valuesOf(tree.overlapping(30, 30)));
+        assertTrue(tree.overlapping(41, 50).isEmpty());
+        assertTrue(tree.overlapping(0, 4).isEmpty());
+        assertTrue(tree.overlaps(21, 22));
+        assertFalse(tree.overlaps(-10, 4));
+        assertNull(tree.anyOverlapping(41, 100));
+
+        assertNotNull(tree.remove(10, 30));
+        assertNull(tree.remove(10, 30));
+        assertFalse(tree.overlaps(21, 29));
+        assertValidTree(tree);
+        try {
+            tree.overlapping(3, 2);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        Random random = new Random(42);
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        List<Interval<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int lo = random.nextInt(1000);
+            Interval<Integer> interval = new Interval<>(lo, lo + random.nextInt(50));
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                Interval<Integer> victim = expected.remove(random.nextInt(expected.size()));
+                assertNotNull(tree.remove(victim.getLo(), victim.getHi()));
+            } else {
+                tree.insert(interval, i);
+                expected.add(interval);
+            }
+            int a = random.nextInt(1100) - 50;
+            int b = a + random.nextInt(30);
+            List<Interval<Integer>> actual = new ArrayList<>();
+            tree.overlapping(a, b, $0 -> actual.add($0.getKey()));
+            List<Interval<Integer>> overlapping = new ArrayList<>();
+            for (Interval<Integer> e : expected) {
+                if (e.overlaps(a, b)) {
+                    overlapping.add(e);
+                }
+            }
+            overlapping.sort(null);
+            assertEquals(overlapping, actual);
+            assertEquals(!overlapping.isEmpty(), tree.overlaps(a, b));
+        }
+        assertValidTree(tree);
+    }
+
+    @Test
+    public void testBulkLoadAndSplit() {
+        IntervalTree<Integer, Integer> tree = new IntervalTree<>();
+        List<Entry<Interval<Integer>, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new Entry<>(new Interval<>(i, i + (i % 7) * 10), i));
+        }
+        tree.addAll(entries);
+        assertValidTree(tree);
+        IntervalTree<Integer, Integer> right = (IntervalTree<Integer, Integer>) tree.split(new Interval<>(500, 500));
+        assertValidTree(tree);
+        assertValidTree(right);
+        // 左半部分只剩左端点小于500的区间，它们的右端点最多延伸到559
+        int count = 0;
+        for (int i = 0; i < 500; i++) {
+            if (i + (i % 7) * 10 >= 500) count++;
+        }
+        assertEquals(count, tree.overlapping(500, 2000).size());
+        assertEquals(1000 - 500, right.overlapping(500, 2000).size());
+        assertTrue(tree.overlapping(560, 2000).isEmpty());
+    }
+
+    private static List<String> valuesOf(List<Entry<Interval<Integer>, String>> entries) {
+        List<String> values = new ArrayList<>();
+        for (Entry<Interval<Integer>, String> e : entries) {
+            values.add(e.getValue());
+        }
+        return values;
+    }
+
+    private static <V> void assertValidTree(IntervalTree<Integer, V> tree) {
+        if (tree._root != null) {
+            assertMaxHi(tree._root);
+        }
+    }
+
+    @SuppressWarnings("all")
+    private static <V> int assertMaxHi(@Nullable BinaryNode<Interval<Integer>, V> node) {
+        if (node == null) return Integer.MIN_VALUE;
+        int max = Math.max(node.entry.getKey().getHi(), Math.max(assertMaxHi(node.left), assertMaxHi(node.right)));
+        assertEquals(max, (int) ((IntervalTree.Node<Integer, V>) node).maxHi);
+        assertTrue(((AVLTree.Node<Interval<Integer>, V>) node).isBalanced());
+        return max;
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class LockFreeSkipListTest {
+
+    @Test
+    public void testBasic() {
+        LockFreeSkipList<String, Integer> list = new LockFreeSkipList<>();
+        assertTrue(list.isEmpty());
+        assertNull(list.remove("a"));
+        list.insert("b", 1);
+        list.insert("a", 2);
+        list.insert("c", 3);
+        // 已存在的键只替换值
+        list.insert("b", 4);
+        assertEquals(3, list.size());
+        assertEquals(4, (int) list.searchValue("b"));
+        assertTrue(list.containsKey("c"));
+        assertFalse(list.containsKey("d"));
+        assertEquals("{a=2, b=4, c=3}", list.toString());
+        assertEquals(new Entry<>("b", 4), list.remove("b"));
+        assertNull(list.remove("b"));
+        assertEquals(2, list.size());
+        assertNull(list.search("b"));
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        LockFreeSkipList<Integer, Integer> list = new LockFreeSkipList<>(Comparator.reverseOrder());
+        TreeMap<Integer, Integer> expected = new TreeMap<>(Comparator.reverseOrder());
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                Integer value = expected.remove(key);
+                Entry<Integer, Integer> removed = list.remove(key);
+                assertEquals(value, removed == null ? null : removed.getValue());
+            } else {
+                expected.put(key, i);
+                list.insert(key, i);
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        list.traverseInOrder(entries::add);
+        assertEquals(new ArrayList<>(expected.entrySet()), entries);
+        // 区间[200, 100)，比较器为逆序
+        List<Map.Entry<Integer, Integer>> range = new ArrayList<>();
+        list.range(200, 100).forEachRemaining(range::add);
+        assertEquals(new ArrayList<>(expected.subMap(200, true, 100, false).entrySet()), range);
+    }
+
+    @Test
+    public void testTraversals() {
+        LockFreeSkipList<Integer, Integer> list = new LockFreeSkipList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.insert(i, i);
+        }
+        List<Integer> pre = new ArrayList<>();
+        list.traversePreOrder($0 -> pre.add($0.getKey()));
+        List<Integer> post = new ArrayList<>();
+        list.traversePostOrder($0 -> post.add($0.getKey()));
+        List<Integer> level = new ArrayList<>();
+        list.traverseLevel($0 -> level.add($0.getKey()));
+        assertEquals(1000, pre.size());
+        for (int i = 0; i < pre.size(); i++) {
+            assertEquals(i, (int) pre.get(i));
+        }
+        assertEquals(new HashSet<>(pre), new HashSet<>(post));
+        assertEquals(new HashSet<>(pre), new HashSet<>(level));
+        // 较高的节点排在它所覆盖的节点之后，与升序不同
+        assertNotEquals(pre, post);
+    }
+
+    @Test
+    public void testConcurrentInsertAndRemove() throws Exception {
+        LockFreeSkipList<Integer, Integer> list = new LockFreeSkipList<>();
+        int threads = 8;
+        int perThread = 5000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    // 交错的键，各线程之间频繁竞争同一位置
+                    for (int i = 0; i < perThread; i++) {
+                        list.insert(i * threads + offset, offset);
+                    }
+                    for (int i = 0; i < perThread; i += 2) {
+                        assertNotNull(list.remove(i * threads + offset));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * perThread / 2, list.size());
+        int count = 0;
+        int previous = -1;
+        for (Entry<Integer, Integer> e : list) {
+            int key = e.getKey();
+            assertTrue(key > previous);
+            assertEquals(1, (key / threads) % 2);
+            assertEquals(key % threads, (int) e.getValue());
+            previous = key;
+            count++;
+        }
+        assertEquals(threads * perThread / 2, count);
+    }
+
+    @Test
+    public void testReplaceRacingRemove() throws Exception {
+        // 替换值的线程已经定位到节点、还没写入时，另一个线程删除了这个节点；
+        // 删除拿到的是旧值，新值就必须留下来，否则插入凭空丢失
+        PausingComparator comparator = new PausingComparator(5);
+        LockFreeSkipList<Integer, Integer> list = new LockFreeSkipList<>(comparator);
+        for (int i = 0; i < 10; i++) {
+            list.insert(i, 0);
+        }
+        // 先数出替换一次要做几次相等的比较，最后一次发生在定位完成之后
+        comparator.countOn(Thread.currentThread());
+        list.insert(5, 1);
+        int equalities = comparator.count();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> inserter = executor.submit(() -> {
+                comparator.pauseOn(Thread.currentThread(), equalities);
+                list.insert(5, 2);
+            });
+            comparator.awaitPaused();
+            assertEquals(new Entry<>(5, 1), list.remove(5));
+            comparator.resume();
+            inserter.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(Integer.valueOf(2), list.searchValue(5));
+        assertEquals(10, list.size());
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        LockFreeSkipList<Integer, Integer> list = new LockFreeSkipList<>();
+        for (int i = 0; i < 1000; i += 2) {
+            list.insert(i, i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        // 弱一致的迭代总是有序的，偶数键始终存在
+                        int previous = -1;
+                        int evens = 0;
+                        for (Iterator<Entry<Integer, Integer>> iter = list.range(0, 1000); iter.hasNext(); ) {
+                            int key = iter.next().getKey();
+                            assertTrue(key > previous);
+                            if (key % 2 == 0) evens++;
+                            previous = key;
+                        }
+                        assertEquals(500, evens);
+                        assertTrue(list.containsKey(500));
+                    }
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                Random random = new Random(42);
+                for (int i = 0; i < 20000; i++) {
+                    int key = random.nextInt(500) * 2 + 1;
+                    if (random.nextBoolean()) {
+                        list.insert(key, key);
+                    } else {
+                        list.remove(key);
+                    }
+                }
+                done.set(true);
+            });
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 在指定线程第n次比较hot与自身时阻塞，直到{@link #resume()}
+     */
+    private static class PausingComparator implements Comparator<Integer> {
+
+        private final int _hot;
+
+        private final CountDownLatch _paused = new CountDownLatch(1);
+
+        private final CountDownLatch _resumed = new CountDownLatch(1);
+
+        private volatile Thread _thread;
+
+        private volatile int _pauseAt;
+
+        private int _count;
+
+        PausingComparator(int hot) {
+            _hot = hot;
+        }
+
+        void countOn(Thread thread) {
+            _count = 0;
+            _pauseAt = 0;
+            _thread = thread;
+        }
+
+        int count() {
+            _thread = null;
+            return _count;
+        }
+
+        void pauseOn(Thread thread, int n) {
+            _count = 0;
+            _pauseAt = n;
+            _thread = thread;
+        }
+
+        void awaitPaused() throws InterruptedException {
+            assertTrue(_paused.await(10, TimeUnit.SECONDS));
+        }
+
+        void resume() {
+            _resumed.countDown();
+        }
+
+        @Override
+        public int compare(Integer lhs, Integer rhs) {
+            int result = Integer.compare(lhs, rhs);
+            if (result == 0 && lhs == _hot && Thread.currentThread() == _thread && ++_count == _pauseAt) {
+                _paused.countDown();
+                try {
+                    _resumed.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MergingIteratorTest {
+
+    @Test
+    public void testMergeSortedArrays() {
+        SortedArray<Integer> s0 = new SortedArray<>();
+        s0.addAll(Arrays.asList(5, 1, 9));
+        SortedArray<Integer> s1 = new SortedArray<>();
+        s1.addAll(Arrays.asList(2, 8, 4, 6));
+        SortedArray<Integer> s2 = new SortedArray<>();
+        MergingIterator<Integer> iterator = new MergingIterator<>(
+                Arrays.asList(s0.iterator(), s1.iterator(), s2.iterator()));
+        List<Integer> merged = new ArrayList<>();
+        iterator.forEachRemaining(merged::add);
+        assertEquals(Arrays.asList(1, 2, 4, 5, 6, 8, 9), merged);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testStableMerge() {
+        // 按长度排序，相同长度的字符串按来源次序输出
+        List<String> r0 = Arrays.asList("a", "bb", "ccc");
+        List<String> r1 = Arrays.asList("d", "ee", "fff");
+        MergingIterator<String> iterator = new MergingIterator<>(
+                Arrays.asList(r0.iterator(), r1.iterator()), Comparator.comparingInt(String::length));
+        List<String> merged = new ArrayList<>();
+        iterator.forEachRemaining(merged::add);
+        assertEquals(Arrays.asList("a", "d", "bb", "ee", "ccc", "fff"), merged);
+    }
+
+    @Test
+    public void testRandomRuns() {
+        Random random = new Random();
+        List<Iterator<Integer>> runs = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            List<Integer> run = new ArrayList<>();
+            for (int j = random.nextInt(100); j > 0; j--) {
+                run.add(random.nextInt(1000));
+            }
+            Collections.sort(run);
+            expected.addAll(run);
+            runs.add(run.iterator());
+        }
+        Collections.sort(expected);
+        List<Integer> merged = new ArrayList<>();
+        new MergingIterator<>(runs).forEachRemaining(merged::add);
+        assertEquals(expected, merged);
+    }
+
+}
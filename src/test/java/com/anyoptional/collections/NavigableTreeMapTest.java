@@ -0,0 +1,217 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NavigableTreeMapTest {
+
+    @Test
+    public void testTreeNavigation() {
+        BinarySearchTree<Integer, String> tree = new AVLTree<>();
+        assertNull(tree.firstEntry());
+        assertNull(tree.floorEntry(1));
+        for (int k : new int[]{50, 20, 80, 10, 30, 70, 90}) {
+            tree.insert(k, String.valueOf(k));
+        }
+        assertEquals(10, (int) tree.firstEntry().getKey());
+        assertEquals(90, (int) tree.lastEntry().getKey());
+        assertEquals(30, (int) tree.floorEntry(30).getKey());
+        assertEquals(30, (int) tree.floorEntry(45).getKey());
+        assertEquals(20, (int) tree.lowerEntry(30).getKey());
+        assertEquals(30, (int) tree.ceilingEntry(30).getKey());
+        assertEquals(50, (int) tree.ceilingEntry(31).getKey());
+        assertEquals(50, (int) tree.higherEntry(30).getKey());
+        assertNull(tree.lowerEntry(10));
+        assertNull(tree.higherEntry(90));
+    }
+
+    @Test
+    public void testMap() {
+        NavigableMap<String, Integer> map = new RedBlackTree<String, Integer>().asNavigableMap();
+        assertTrue(map.isEmpty());
+        assertNull(map.put("b", 1));
+        assertNull(map.put("a", 2));
+        assertNull(map.put("c", 3));
+        // 已存在的键只替换值
+        assertEquals(1, (int) map.put("b", 4));
+        assertEquals(3, map.size());
+        assertEquals(4, (int) map.get("b"));
+        assertEquals("{a=2, b=4, c=3}", map.toString());
+        assertEquals("{c=3, b=4, a=2}", map.descendingMap().toString());
+        assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map.keySet()));
+        assertEquals(Arrays.asList(2, 4, 3), new ArrayList<>(map.values()));
+
+        TreeMap<String, Integer> expected = new TreeMap<>(map);
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        for (Map.Entry<String, Integer> e : map.entrySet()) {
+            e.setValue(e.getValue() * 10);
+        }
+        assertEquals(40, (int) map.get("b"));
+        assertEquals(40, (int) map.remove("b"));
+        assertNull(map.remove("b"));
+        assertFalse(map.containsKey("b"));
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testViews() {
+        NavigableMap<Integer, Integer> map = new AVLTree<Integer, Integer>().asNavigableMap();
+        for (int i = 0; i < 20; i += 2) {
+            map.put(i, i);
+        }
+        NavigableMap<Integer, Integer> sub = map.subMap(4, true, 12, false);
+        assertEquals("[4, 6, 8, 10]", sub.keySet().toString());
+        assertEquals(4, sub.size());
+        assertEquals(10, (int) sub.lastKey());
+        assertNull(sub.get(12));
+        assertNull(sub.higherKey(10));
+        assertEquals(4, (int) sub.higherKey(-100));
+        try {
+            sub.put(12, 12);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            sub.subMap(2, 8);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        // 写入视图作用于整棵树
+        sub.put(5, 5);
+        assertTrue(map.containsKey(5));
+        assertEquals("[10, 8, 6, 5, 4]", sub.descendingKeySet().toString());
+        assertEquals("[8, 6]", sub.descendingMap().subMap(9, 5).keySet().toString());
+        assertEquals("[10, 8]", sub.descendingMap().headMap(8, true).keySet().toString());
+        assertEquals("[5, 4]", sub.descendingMap().tailMap(5, true).keySet().toString());
+        assertEquals(Integer.valueOf(6), sub.descendingMap().higherKey(8));
+        assertEquals(Integer.valueOf(10), sub.descendingMap().firstKey());
+
+        sub.clear();
+        assertEquals("[0, 2, 12, 14, 16, 18]", map.keySet().toString());
+        assertTrue(sub.isEmpty());
+        assertEquals(0, sub.size());
+        assertEquals(3, map.headMap(12, true).size());
+        assertEquals(2, map.tailMap(15).size());
+    }
+
+    @Test
+    public void testPollAndIteratorRemove() {
+        NavigableMap<Integer, Integer> map = new RedBlackTree<Integer, Integer>().asNavigableMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertEquals(Integer.valueOf(0), map.pollFirstEntry().getKey());
+        assertEquals(Integer.valueOf(99), map.pollLastEntry().getKey());
+        // 逐个删除偶数
+        for (Iterator<Integer> iter = map.keySet().iterator(); iter.hasNext(); ) {
+            if (iter.next() % 2 == 0) {
+                iter.remove();
+            }
+        }
+        assertEquals(49, map.size());
+        int expected = 1;
+        for (int key : map.keySet()) {
+            assertEquals(expected, key);
+            expected += 2;
+        }
+        // 逆序删除
+        for (Iterator<Integer> iter = map.descendingKeySet().iterator(); iter.hasNext(); ) {
+            if (iter.next() % 3 == 0) {
+                iter.remove();
+            }
+        }
+        for (int key : map.keySet()) {
+            assertTrue(key % 2 == 1 && key % 3 != 0);
+        }
+        // 视图边界上的删除
+        NavigableMap<Integer, Integer> head = map.headMap(50, false);
+        for (Iterator<Integer> iter = head.keySet().iterator(); iter.hasNext(); ) {
+            iter.next();
+            iter.remove();
+        }
+        assertEquals(Integer.valueOf(53), map.firstKey());
+    }
+
+    @Test
+    public void testIteratorRemoveOnRotatingTrees() {
+        // Treap删除时把节点旋转到叶子方向，而不是搬动后继的词条
+        List<BinarySearchTree<Integer, Integer>> trees = Arrays.asList(
+                new AVLTree<>(), new RedBlackTree<>(), new SplayTree<>(), new Treap<>());
+        for (BinarySearchTree<Integer, Integer> tree : trees) {
+            NavigableMap<Integer, Integer> map = tree.asNavigableMap();
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, i);
+            }
+            int visited = 0;
+            for (Iterator<Integer> iter = map.keySet().iterator(); iter.hasNext(); ) {
+                if (iter.next() % 2 == 0) {
+                    iter.remove();
+                }
+                visited++;
+            }
+            assertEquals(1000, visited);
+            assertEquals(500, map.size());
+            visited = 0;
+            for (Iterator<Integer> iter = map.descendingKeySet().iterator(); iter.hasNext(); ) {
+                if (iter.next() % 3 == 0) {
+                    iter.remove();
+                }
+                visited++;
+            }
+            assertEquals(500, visited);
+            for (int key : map.keySet()) {
+                assertTrue(key % 2 == 1 && key % 3 != 0);
+            }
+        }
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        NavigableMap<Integer, Integer> map = new AVLTree<Integer, Integer>().asNavigableMap();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            int lo = random.nextInt(220) - 10;
+            int hi = lo + random.nextInt(50);
+            boolean loInclusive = random.nextBoolean();
+            boolean hiInclusive = random.nextBoolean();
+            assertViewEquals(expected.subMap(lo, loInclusive, hi, hiInclusive), map.subMap(lo, loInclusive, hi, hiInclusive), lo, hi);
+            assertViewEquals(expected.descendingMap().subMap(hi, hiInclusive, lo, loInclusive),
+                    map.descendingMap().subMap(hi, hiInclusive, lo, loInclusive), lo, hi);
+        }
+        assertViewEquals(expected, map, -10, 210);
+    }
+
+    private static void assertViewEquals(NavigableMap<Integer, Integer> expected, NavigableMap<Integer, Integer> actual,
+                                         int lo, int hi) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        assertEquals(new ArrayList<>(expected.descendingKeySet()), new ArrayList<>(actual.descendingKeySet()));
+        assertEquals(expected.firstEntry(), actual.firstEntry());
+        assertEquals(expected.lastEntry(), actual.lastEntry());
+        for (int key = lo - 2; key <= hi + 2; key++) {
+            assertEquals(expected.floorKey(key), actual.floorKey(key));
+            assertEquals(expected.ceilingKey(key), actual.ceilingKey(key));
+            assertEquals(expected.higherEntry(key), actual.higherEntry(key));
+            assertEquals(expected.lowerEntry(key), actual.lowerEntry(key));
+            assertEquals(expected.get(key), actual.get(key));
+        }
+    }
+
+}
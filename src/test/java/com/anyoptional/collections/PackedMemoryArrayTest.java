@@ -0,0 +1,96 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PackedMemoryArrayTest {
+
+    @Test
+    public void testInsert() {
+        PackedMemoryArray<Integer> pma = new PackedMemoryArray<>();
+        assertTrue(pma.isEmpty());
+        pma.addAll(Arrays.asList(3, 1, 7, 4, 0, 8, 6));
+        assertEquals(7, pma.size());
+        assertArrayEquals(new Integer[]{0, 1, 3, 4, 6, 7, 8}, pma.toArray(new Integer[0]));
+        assertEquals(4, (int) pma.get(3));
+        assertTrue(pma.contains(6));
+        assertFalse(pma.contains(5));
+        assertFalse(pma.contains("6"));
+        System.out.println(pma);
+    }
+
+    @Test
+    public void testDuplicatesWithComparator() {
+        PackedMemoryArray<String> pma = new PackedMemoryArray<>(Comparator.comparingInt(String::length));
+        pma.addAll(Arrays.asList("bb", "a", "ccc", "dd"));
+        // 新元素排在与之相等的元素之前
+        assertEquals(Arrays.asList("a", "dd", "bb", "ccc"), new ArrayList<>(pma));
+        assertTrue(pma.remove("bb"));
+        assertFalse(pma.remove("ee"));
+        assertEquals(Arrays.asList("a", "dd", "ccc"), new ArrayList<>(pma));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random();
+        PackedMemoryArray<Integer> pma = new PackedMemoryArray<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextInt(3) > 0) {
+                pma.insert(value);
+                int index = Collections.binarySearch(expected, value);
+                expected.add(index < 0 ? -index - 1 : index, value);
+            } else {
+                assertEquals(expected.remove((Integer) value), pma.remove(value));
+            }
+            assertEquals(expected.size(), pma.size());
+            if (i % 500 == 0) {
+                assertEquals(expected, new ArrayList<>(pma));
+                assertValidCounts(pma);
+            }
+        }
+        assertEquals(expected, new ArrayList<>(pma));
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(expected.get(i), pma.get(i));
+        }
+        // 全部删除后缩容
+        for (Integer value : expected) {
+            assertTrue(pma.remove(value));
+        }
+        assertTrue(pma.isEmpty());
+        assertEquals(16, pma.capacity());
+    }
+
+    @Test
+    public void testSequentialInsert() {
+        PackedMemoryArray<Integer> pma = new PackedMemoryArray<>();
+        for (int i = 0; i < 10000; i++) {
+            pma.insert(i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, (int) pma.get(i));
+        }
+        assertValidCounts(pma);
+        pma.clear();
+        assertTrue(pma.isEmpty());
+        assertFalse(pma.iterator().hasNext());
+    }
+
+    private void assertValidCounts(PackedMemoryArray<?> pma) {
+        int total = 0;
+        for (int s = 0; s < pma._counts.length; s++) {
+            int count = 0;
+            for (int i = s * pma._segmentSize; i < (s + 1) * pma._segmentSize; i++) {
+                if (pma._slots[i] != null) count++;
+            }
+            assertEquals(count, pma._counts[s]);
+            total += count;
+        }
+        assertEquals(pma.size(), total);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PersistentRedBlackTreeTest {
+
+    @Test
+    public void testInsertAndSearch() {
+        PersistentRedBlackTree<String, Integer> empty = new PersistentRedBlackTree<>();
+        assertTrue(empty.isEmpty());
+        assertNull(empty.firstEntry());
+        PersistentRedBlackTree<String, Integer> tree = empty.insert("b", 1).insert("a", 2).insert("c", 3);
+        assertTrue(empty.isEmpty());
+        assertEquals(3, tree.size());
+        assertEquals(2, (int) tree.searchValue("a"));
+        assertFalse(tree.containsKey("d"));
+        assertEquals("{a=2, b=1, c=3}", tree.toString());
+        // 已存在的键只替换值
+        PersistentRedBlackTree<String, Integer> replaced = tree.insert("b", 4);
+        assertEquals(3, replaced.size());
+        assertEquals(4, (int) replaced.searchValue("b"));
+        assertEquals(1, (int) tree.searchValue("b"));
+        // 返回的词条是拷贝
+        tree.search("a").setValue(100);
+        assertEquals(2, (int) tree.searchValue("a"));
+        assertSame(tree, tree.remove("d"));
+        assertEquals("a", tree.firstEntry().getKey());
+        assertEquals("c", tree.lastEntry().getKey());
+    }
+
+    @Test
+    public void testComparator() {
+        PersistentRedBlackTree<Integer, Integer> tree = new PersistentRedBlackTree<>(Comparator.reverseOrder());
+        for (int i = 0; i < 10; i++) {
+            tree = tree.insert(i, i);
+        }
+        assertEquals(9, (int) tree.firstEntry().getKey());
+        assertEquals(Integer.valueOf(7), tree.select(2).getKey());
+        assertEquals(2, tree.rank(7));
+    }
+
+    @Test
+    public void testSnapshots() {
+        Random random = new Random(42);
+        List<PersistentRedBlackTree<Integer, Integer>> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> expected = new ArrayList<>();
+        PersistentRedBlackTree<Integer, Integer> tree = new PersistentRedBlackTree<>();
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                tree = tree.remove(key);
+                map.remove(key);
+            } else {
+                tree = tree.insert(key, i);
+                map.put(key, i);
+            }
+            assertValid(tree);
+            assertEquals(map.size(), tree.size());
+            if (i % 500 == 0) {
+                versions.add(tree);
+                expected.add(new TreeMap<>(map));
+            }
+        }
+        // 旧版本不受后续修改的影响
+        for (int i = 0; i < versions.size(); i++) {
+            assertEntries(expected.get(i), versions.get(i));
+        }
+        assertEntries(map, tree);
+        List<Integer> keys = new ArrayList<>(map.keySet());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i), tree.select(i).getKey());
+            assertEquals(i, tree.rank(keys.get(i)));
+        }
+        // 全部删除
+        for (int key : keys) {
+            tree = tree.remove(key);
+            assertValid(tree);
+        }
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        PersistentRedBlackTree<Integer, Integer> lhs = new PersistentRedBlackTree<>();
+        PersistentRedBlackTree<Integer, Integer> rhs = new PersistentRedBlackTree<>();
+        for (int i = 0; i < 100; i++) {
+            lhs = lhs.insert(i, i);
+            rhs = rhs.insert(99 - i, 99 - i);
+        }
+        assertEquals(lhs, rhs);
+        assertEquals(lhs.hashCode(), rhs.hashCode());
+        assertNotEquals(lhs, rhs.remove(0));
+    }
+
+    private static void assertEntries(TreeMap<Integer, Integer> expected, PersistentRedBlackTree<Integer, Integer> tree) {
+        assertEquals(expected.size(), tree.size());
+        Iterator<Entry<Integer, Integer>> iter = tree.iterator();
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e, iter.next());
+        }
+        assertFalse(iter.hasNext());
+    }
+
+    private static <K, V> void assertValid(PersistentRedBlackTree<K, V> tree) {
+        // 树根必须为黑色
+        assertTrue(tree._root == null || !tree._root.red);
+        blackHeight(tree._root);
+    }
+
+    /**
+     * 校验红节点的孩子为黑、左右黑高度相等以及子树规模，返回黑高度
+     */
+    private static <K, V> int blackHeight(@Nullable PersistentRedBlackTree.Node<K, V> node) {
+        if (node == null) return 1;
+        if (node.red) {
+            assertTrue(node.left == null || !node.left.red);
+            assertTrue(node.right == null || !node.right.red);
+        }
+        int lh = blackHeight(node.left);
+        int rh = blackHeight(node.right);
+        assertEquals(lh, rh);
+        int ls = node.left != null ? node.left.size : 0;
+        int rs = node.right != null ? node.right.size : 0;
+        assertEquals(ls + rs + 1, node.size);
+        return lh + (node.red ? 0 : 1);
+    }
+
+}
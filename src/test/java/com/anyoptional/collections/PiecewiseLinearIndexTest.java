@@ -0,0 +1,95 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PiecewiseLinearIndexTest {
+
+    @Test
+    public void testEmpty() {
+        PiecewiseLinearIndex index = new PiecewiseLinearIndex(new long[0]);
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.segments());
+        assertEquals(0, index.lowerBound(42));
+        assertFalse(index.contains(42));
+    }
+
+    @Test
+    public void testLinearKeys() {
+        long[] keys = new long[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1000 + 3L * i;
+        }
+        PiecewiseLinearIndex index = new PiecewiseLinearIndex(keys, 0);
+        // 严格线性的数据只需要一条线段
+        assertEquals(1, index.segments());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, index.predict(keys[i]));
+            assertEquals(i, index.indexOf(keys[i]));
+        }
+        assertEquals(1, index.lowerBound(1001));
+        assertFalse(index.contains(1001));
+    }
+
+    @Test
+    public void testErrorBound() {
+        Random random = new Random(42);
+        long[] keys = randomKeys(random, 100000, 1L << 40);
+        int epsilon = 16;
+        PiecewiseLinearIndex index = new PiecewiseLinearIndex(keys, epsilon);
+        assertTrue(index.segments() < keys.length / 10);
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0 && keys[i - 1] == keys[i]) continue;
+            // 考虑浮点误差，允许多偏差1
+            assertTrue(Math.abs(index.predict(keys[i]) - i) <= epsilon + 1);
+        }
+    }
+
+    @Test
+    public void testLowerBound() {
+        Random random = new Random(7);
+        for (int epsilon : new int[]{0, 1, 4, 64}) {
+            // 取值范围较小时有大量重复的键
+            long[] keys = randomKeys(random, 5000, 2000);
+            PiecewiseLinearIndex index = new PiecewiseLinearIndex(keys, epsilon);
+            for (long key = -1; key <= 2001; key++) {
+                assertEquals(lowerBound(keys, key), index.lowerBound(key));
+                assertEquals(Arrays.binarySearch(keys, key) >= 0, index.contains(key));
+            }
+        }
+    }
+
+    @Test
+    public void testIntKeys() {
+        PiecewiseLinearIndex index = new PiecewiseLinearIndex(new int[]{1, 3, 3, 3, 7, 9}, 1);
+        assertEquals(0, index.lowerBound(0));
+        assertEquals(1, index.lowerBound(3));
+        assertEquals(4, index.lowerBound(4));
+        assertEquals(6, index.lowerBound(10));
+        assertEquals(7, index.get(4));
+        assertEquals(-1, index.indexOf(8));
+        assertArrayEquals(new long[]{1, 3, 3, 3, 7, 9}, index.toArray());
+    }
+
+    private static long[] randomKeys(Random random, int n, long bound) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (long) (random.nextDouble() * bound);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int i = 0;
+        while (i < keys.length && keys[i] < key) {
+            i++;
+        }
+        return i;
+    }
+
+}
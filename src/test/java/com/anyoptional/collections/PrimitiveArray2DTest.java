@@ -0,0 +1,248 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveArray2DTest {
+
+    @Test
+    public void testIntArray2D() {
+        for (GridLayout layout : GridLayout.values()) {
+            IntArray2D array = new IntArray2D(3, 4, layout);
+            assertEquals(3, array.getRows());
+            assertEquals(4, array.getColumns());
+            assertEquals(12, array.size());
+            assertEquals(layout, array.getLayout());
+            assertFalse(array.isOffHeap());
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 4; j++) {
+                    assertEquals(0, array.get(i, j));
+                    array.set(i, j, i * 10 + j);
+                }
+            }
+            assertArrayEquals(new int[]{0, 1, 2, 3, 10, 11, 12, 13, 20, 21, 22, 23}, array.toArray());
+            assertEquals("[[0, 1, 2, 3], [10, 11, 12, 13], [20, 21, 22, 23]]", array.toString());
+        }
+    }
+
+    @Test
+    public void testOffHeap() {
+        for (GridLayout layout : GridLayout.values()) {
+            LongArray2D heap = new LongArray2D(5, 7, layout);
+            LongArray2D direct = LongArray2D.offHeap(5, 7, layout);
+            assertTrue(direct.isOffHeap());
+            for (int i = 0; i < 5; i++) {
+                for (int j = 0; j < 7; j++) {
+                    heap.set(i, j, (long) i << 40 | j);
+                    direct.set(i, j, (long) i << 40 | j);
+                }
+            }
+            assertEquals(heap, direct);
+            assertEquals(heap.hashCode(), direct.hashCode());
+            direct.fill(-1);
+            assertEquals(-1, direct.get(4, 6));
+            assertNotEquals(heap, direct);
+        }
+    }
+
+    @Test
+    public void testOffHeapAcrossBuffers() {
+        // 元素个数超过单块direct buffer的容量，跨越块边界的读写、填充与映射
+        int rows = 1100;
+        int columns = 1000;
+        assertTrue((long) rows * columns > 1 << PrimitiveArray2D.BUFFER_SHIFT);
+        for (GridLayout layout : GridLayout.values()) {
+            IntArray2D heap = new IntArray2D(rows, columns, layout);
+            IntArray2D direct = IntArray2D.offHeap(rows, columns, layout);
+            direct.fill(7);
+            assertEquals(7, direct.get(rows - 1, columns - 1));
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    heap.set(i, j, i * columns + j);
+                    direct.set(i, j, i * columns + j);
+                }
+            }
+            assertEquals(heap, direct);
+            heap.mapInPlace($0 -> -$0);
+            direct.mapInPlace($0 -> -$0);
+            assertEquals(heap, direct);
+            assertEquals(-(rows * columns - 1), direct.get(rows - 1, columns - 1));
+        }
+    }
+
+    @Test
+    public void testEqualsAcrossLayouts() {
+        DoubleArray2D a = new DoubleArray2D(2, 3, GridLayout.ROW_MAJOR);
+        DoubleArray2D b = DoubleArray2D.offHeap(2, 3, GridLayout.COLUMN_MAJOR);
+        a.fill(0.5);
+        b.fill(0.5);
+        b.set(1, 2, 1.5);
+        assertNotEquals(a, b);
+        a.set(1, 2, 1.5);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertArrayEquals(new double[]{0.5, 0.5, 0.5, 0.5, 0.5, 1.5}, b.toArray(), 0);
+        assertNotEquals(a, new DoubleArray2D(3, 2));
+    }
+
+    @Test
+    public void testBounds() {
+        IntArray2D array = new IntArray2D(2, 2);
+        try {
+            array.get(2, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            array.set(0, -1, 1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        Array2D<Integer> boxed = new Array2D<>(2, 2);
+        try {
+            boxed.get(-1, 0);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        IntArray2D array = IntArray2D.offHeap(0, 5, GridLayout.ROW_MAJOR);
+        assertEquals(0, array.size());
+        assertEquals(0, array.toArray().length);
+        assertEquals("[]", array.toString());
+    }
+
+    @Test
+    public void testTiledLayout() {
+        // 行、列数都不是块边长的倍数
+        IntArray2D tiled = new IntArray2D(70, 45, GridLayout.TILED);
+        IntArray2D plain = new IntArray2D(70, 45);
+        assertEquals(96 * 64, tiled.capacity());
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j < 45; j++) {
+                tiled.set(i, j, i * 100 + j);
+                plain.set(i, j, i * 100 + j);
+            }
+        }
+        assertEquals(plain, tiled);
+        assertArrayEquals(plain.toArray(), tiled.toArray());
+        // 块内逐行存放
+        assertEquals(tiled.offset(0, 0) + 1, tiled.offset(0, 1));
+        assertEquals(tiled.offset(0, 0) + PrimitiveArray2D.TILE_SIZE, tiled.offset(1, 0));
+    }
+
+    @Test
+    public void testTranspose() {
+        Random random = new Random(42);
+        for (GridLayout layout : GridLayout.values()) {
+            LongArray2D array = new LongArray2D(150, 97, layout);
+            for (int i = 0; i < array.getRows(); i++) {
+                for (int j = 0; j < array.getColumns(); j++) {
+                    array.set(i, j, random.nextLong());
+                }
+            }
+            LongArray2D transposed = array.transpose();
+            assertEquals(97, transposed.getRows());
+            assertEquals(150, transposed.getColumns());
+            assertEquals(layout, transposed.getLayout());
+            for (int i = 0; i < array.getRows(); i++) {
+                for (int j = 0; j < array.getColumns(); j++) {
+                    assertEquals(array.get(i, j), transposed.get(j, i));
+                }
+            }
+            assertEquals(array, transposed.transpose());
+        }
+        IntArray2D direct = IntArray2D.offHeap(3, 2, GridLayout.ROW_MAJOR);
+        direct.set(2, 1, 7);
+        assertTrue(direct.transpose().isOffHeap());
+        assertEquals(7, direct.transpose().get(1, 2));
+    }
+
+    @Test
+    public void testMultiply() {
+        Random random = new Random(7);
+        int n = 130;
+        int m = 70;
+        int p = 90;
+        for (GridLayout layout : GridLayout.values()) {
+            IntArray2D a = new IntArray2D(n, m, layout);
+            IntArray2D b = new IntArray2D(m, p, layout);
+            a.mapInPlace(x -> random.nextInt(100));
+            b.mapInPlace(x -> random.nextInt(100));
+            IntArray2D c = a.multiply(b);
+            assertEquals(n, c.getRows());
+            assertEquals(p, c.getColumns());
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < p; j++) {
+                    int sum = 0;
+                    for (int k = 0; k < m; k++) {
+                        sum += a.get(i, k) * b.get(k, j);
+                    }
+                    assertEquals(sum, c.get(i, j));
+                }
+            }
+        }
+        DoubleArray2D x = new DoubleArray2D(2, 2);
+        x.set(0, 0, 1.5);
+        x.set(0, 1, 2);
+        x.set(1, 0, -1);
+        x.set(1, 1, 0.5);
+        assertArrayEquals(new double[]{0.25, 4, -2, -1.75}, x.multiply(x).toArray(), 1e-12);
+        try {
+            x.multiply(new DoubleArray2D(3, 2));
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMapInPlace() {
+        for (GridLayout layout : GridLayout.values()) {
+            // 超过并行粒度，且不是块边长的倍数
+            IntArray2D array = new IntArray2D(301, 203, layout);
+            AtomicLong calls = new AtomicLong();
+            array.mapInPlace(x -> {
+                calls.incrementAndGet();
+                return x + 3;
+            });
+            assertEquals(array.size(), calls.get());
+            array.mapInPlace(x -> x * 2);
+            for (int i = 0; i < array.getRows(); i++) {
+                for (int j = 0; j < array.getColumns(); j++) {
+                    assertEquals(6, array.get(i, j));
+                }
+            }
+            DoubleArray2D direct = DoubleArray2D.offHeap(200, 100, layout);
+            direct.mapInPlace(x -> x + 0.5);
+            assertEquals(0.5, direct.get(199, 99), 0);
+        }
+    }
+
+    @Test
+    public void testForEachRow() {
+        LongArray2D array = new LongArray2D(1000, 50, GridLayout.TILED);
+        AtomicIntegerArray visits = new AtomicIntegerArray(array.getRows());
+        array.forEachRow(row -> {
+            visits.incrementAndGet(row);
+            for (int j = 0; j < array.getColumns(); j++) {
+                array.set(row, j, row);
+            }
+        });
+        for (int i = 0; i < array.getRows(); i++) {
+            assertEquals(1, visits.get(i));
+            assertEquals(i, array.get(i, 49));
+        }
+    }
+
+}
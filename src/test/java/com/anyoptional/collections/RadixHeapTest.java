@@ -0,0 +1,125 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RadixHeapTest {
+
+    @Test
+    public void testEmptyHeap() {
+        RadixHeap<String> heap = new RadixHeap<>();
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertNull(heap.peek());
+        assertNull(heap.remove());
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        RadixHeap<String> heap = new RadixHeap<>();
+        heap.insert(5, "e");
+        heap.insert(1, "a");
+        heap.insert(3, "c");
+        heap.insert(3, "c'");
+        assertEquals(4, heap.size());
+        assertEquals(1, heap.peekKey());
+        assertEquals("a", heap.remove());
+        assertEquals(1, heap.lastKey());
+        assertEquals(3, heap.peekKey());
+        assertTrue(heap.remove().startsWith("c"));
+        assertTrue(heap.remove().startsWith("c"));
+        // 单调性：不小于最近一次弹出的优先级即可
+        heap.insert(3, "d");
+        assertEquals("d", heap.remove());
+        assertEquals("e", heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonMonotoneInsert() {
+        RadixHeap<String> heap = new RadixHeap<>();
+        heap.insert(5, "e");
+        heap.remove();
+        heap.insert(4, "d");
+    }
+
+    @Test
+    public void testNegativeKeys() {
+        RadixHeap<Long> heap = new RadixHeap<>();
+        long[] keys = {-7, 12, -1, 0, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long key : keys) {
+            heap.insert(key, key);
+        }
+        long last = Long.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            long key = heap.peekKey();
+            assertEquals(key, (long) heap.remove());
+            assertTrue(key >= last);
+            last = key;
+        }
+    }
+
+    @Test
+    public void testRandomMonotone() {
+        Random random = new Random();
+        RadixHeap<Long> heap = new RadixHeap<>();
+        java.util.PriorityQueue<Long> expected = new java.util.PriorityQueue<>();
+        for (int i = 0; i < 10000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                long key = heap.lastKey() == Long.MIN_VALUE ? random.nextInt(100) : heap.lastKey() + random.nextInt(1000);
+                heap.insert(key, key);
+                expected.add(key);
+            } else {
+                assertEquals(expected.poll(), heap.remove());
+            }
+            assertEquals(expected.size(), heap.size());
+        }
+        while (!expected.isEmpty()) {
+            assertEquals(expected.poll(), heap.remove());
+        }
+    }
+
+    @Test
+    public void testPeekThenInsert() {
+        RadixHeap<String> heap = new RadixHeap<>();
+        heap.insert(10, "a");
+        heap.insert(20, "b");
+        assertEquals("a", heap.remove());
+        // peek不会越过尚未弹出的最小值
+        assertEquals("b", heap.peek());
+        assertEquals(20, heap.peekKey());
+        assertEquals(10, heap.lastKey());
+        heap.insert(15, "c");
+        assertEquals("c", heap.peek());
+        assertEquals("c", heap.remove());
+        assertEquals("b", heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testPeekMatchesRemove() {
+        Random random = new Random(42);
+        RadixHeap<Integer> heap = new RadixHeap<>();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(4);
+            if (heap.isEmpty() || op < 2) {
+                // 大量相等的优先级
+                heap.insert(heap.lastKey() == Long.MIN_VALUE ? 0 : heap.lastKey() + random.nextInt(8), i);
+            } else if (op == 2) {
+                Integer peeked = heap.peek();
+                long key = heap.peekKey();
+                assertEquals(peeked, heap.peek());
+                assertTrue(key >= heap.lastKey());
+            } else {
+                Integer peeked = heap.peek();
+                long key = heap.peekKey();
+                assertEquals(peeked, heap.remove());
+                assertEquals(key, heap.lastKey());
+            }
+        }
+    }
+
+}
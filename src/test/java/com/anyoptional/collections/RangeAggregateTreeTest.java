@@ -0,0 +1,149 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class RangeAggregateTreeTest {
+
+    @Test
+    public void testSumMinMax() {
+        RangeAggregateTree<Integer, Long> sum = new RangeAggregateTree<>(Long::sum);
+        RangeAggregateTree<Integer, Long> min = new RangeAggregateTree<>(Math::min);
+        RangeAggregateTree<Integer, Long> max = new RangeAggregateTree<>(Math::max);
+        assertNull(sum.aggregate());
+        assertNull(sum.aggregate(0, 10));
+        for (int i = 1; i <= 100; i++) {
+            long value = (i * 37) % 101;
+            sum.insert(i, value);
+            min.insert(i, value);
+            max.insert(i, value);
+        }
+        long total = 0;
+        for (int i = 1; i <= 100; i++) total += (i * 37) % 101;
+        assertEquals(Long.valueOf(total), sum.aggregate());
+        assertEquals(Long.valueOf(1), min.aggregate());
+        assertEquals(Long.valueOf(100), max.aggregate());
+        // [10, 13)
+        assertEquals(Long.valueOf(370 % 101 + 407 % 101 + 444 % 101), sum.aggregate(10, 13));
+        assertNull(sum.aggregate(13, 10));
+        assertNull(sum.aggregate(200, 300));
+
+        assertEquals(Long.valueOf((10 * 37) % 101), sum.replace(10, 1000L));
+        assertEquals(Long.valueOf(1000 + 407 % 101 + 444 % 101), sum.aggregate(10, 13));
+        assertNull(sum.replace(1000, 1L));
+        try {
+            sum.insert(200, null);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOrderPreserved() {
+        // 字符串拼接满足结合律但不满足交换律
+        RangeAggregateTree<Integer, String> tree = new RangeAggregateTree<>(String::concat);
+        for (int i = 9; i >= 0; i--) {
+            tree.insert(i, String.valueOf(i));
+        }
+        assertEquals("0123456789", tree.aggregate());
+        assertEquals("3456", tree.aggregate(3, 7));
+        tree.remove(5);
+        assertEquals("346", tree.aggregate(3, 7));
+        NavigableMap<Integer, String> map = tree.asNavigableMap();
+        map.put(4, "x");
+        assertEquals("3x6", tree.aggregate(3, 7));
+    }
+
+    @Test
+    public void testMapViewUpdatesAggregate() {
+        RangeAggregateTree<Integer, Long> tree = new RangeAggregateTree<>(Long::sum);
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i, 1L);
+        }
+        NavigableMap<Integer, Long> map = tree.asNavigableMap();
+        map.replaceAll((k, v) -> 2L);
+        assertEquals(Long.valueOf(200), tree.aggregate());
+        for (Map.Entry<Integer, Long> e : map.subMap(10, 20).entrySet()) {
+            assertEquals(Long.valueOf(2), e.setValue(3L));
+        }
+        assertEquals(Long.valueOf(210), tree.aggregate());
+        assertEquals(Long.valueOf(30), tree.aggregate(10, 20));
+    }
+
+    @Test
+    public void testSetOperationsRequireSameCombiner() {
+        RangeAggregateTree<Integer, Long> sum = new RangeAggregateTree<>(Long::sum);
+        RangeAggregateTree<Integer, Long> max = new RangeAggregateTree<>(Math::max);
+        for (int i = 0; i < 50; i++) {
+            sum.insert(i, 1L);
+            max.insert(i + 50, 5L);
+        }
+        try {
+            sum.union(max);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertEquals(Long.valueOf(50), sum.aggregate());
+
+        RangeAggregateTree<Integer, Long> other = new RangeAggregateTree<>(sum.combiner());
+        for (int i = 50; i < 100; i++) {
+            other.insert(i, 5L);
+        }
+        sum.union(other);
+        assertEquals(Long.valueOf(300), sum.aggregate());
+        assertEquals(Long.valueOf(250), sum.aggregate(50, 100));
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        RangeAggregateTree<Integer, Long> tree = new RangeAggregateTree<>(Long::sum);
+        TreeMap<Integer, Long> expected = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(500);
+            long value = random.nextInt(1000);
+            int op = random.nextInt(4);
+            if (op == 0) {
+                assertEquals(expected.remove(key) != null, tree.remove(key) != null);
+            } else if (op == 1) {
+                assertEquals(expected.containsKey(key) ? expected.put(key, value) : null, tree.replace(key, value));
+            } else if (!expected.containsKey(key)) {
+                tree.insert(key, value);
+                expected.put(key, value);
+            }
+            int lo = random.nextInt(520) - 10;
+            int hi = lo + random.nextInt(200);
+            assertEquals(sumOf(expected.subMap(lo, hi)), tree.aggregate(lo, hi));
+        }
+        assertEquals(sumOf(expected), tree.aggregate());
+
+        RangeAggregateTree<Integer, Long> bulk = new RangeAggregateTree<>(Long::sum);
+        List<Entry<Integer, Long>> entries = new ArrayList<>();
+        for (Map.Entry<Integer, Long> e : expected.entrySet()) {
+            entries.add(new Entry<>(e.getKey(), e.getValue()));
+        }
+        bulk.addAll(entries);
+        assertEquals(sumOf(expected), bulk.aggregate());
+        AVLTree<Integer, Long> right = bulk.split(250);
+        assertEquals(sumOf(expected.headMap(250)), bulk.aggregate());
+        assertEquals(sumOf(expected.tailMap(250)), ((RangeAggregateTree<Integer, Long>) right).aggregate());
+    }
+
+    private static Long sumOf(Map<Integer, Long> map) {
+        if (map.isEmpty()) return null;
+        long sum = 0;
+        for (long v : map.values()) sum += v;
+        return sum;
+    }
+
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.TreeSet;
 import java.util.function.Consumer;
 import static org.junit.Assert.*;
 
@@ -48,6 +49,8 @@ public class RedBlackTreeTest {
             @Override
             public void accept(BinaryNode<K, V> node) {
                 list.add(node.entry.getKey());
+                // 左、右子树黑高度相等
+                assertTrue(((RedBlackTree.Node<K, V>) node).isBalanced());
                 if (node.isLeaf()) {
                     RedBlackTree.Node<K, V> cur = (RedBlackTree.Node<K, V>) node;
                     int h = 1;
@@ -95,4 +98,118 @@ public class RedBlackTreeTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testOrderStatistics() {
+        BinarySearchTreeTest.assertOrderStatistics(new RedBlackTree<>(), new Random(42), 3000);
+    }
+
+    @Test
+    public void testBulkLoad() {
+        Random random = new Random(42);
+        for (int n : new int[]{1, 2, 3, 4, 7, 8, 100, 1023, 1024, 5000}) {
+            List<Entry<Integer, Integer>> entries = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                entries.add(new Entry<>(random.nextInt(n), i));
+            }
+            RedBlackTree<Integer, Integer> rbTree = new RedBlackTree<>();
+            rbTree.addAll(entries);
+            assertEquals(n, rbTree.size());
+            assertEquals(n, rbTree._root.subtreeSize);
+            assertValidRBTree(rbTree);
+            // 构建之后仍可正常增删
+            for (int j = 0; j < 200; j++) {
+                rbTree.insert(random.nextInt(n), null);
+                assertValidRBTree(rbTree);
+                rbTree.remove(random.nextInt(n));
+                assertValidRBTree(rbTree);
+            }
+        }
+    }
+
+    @Test
+    public void testBulkLoadIntoNonEmpty() {
+        RedBlackTree<Integer, Integer> rbTree = new RedBlackTree<>();
+        for (int i = 0; i < 50; i++) {
+            rbTree.insert(i * 3, null);
+        }
+        List<Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(new Entry<>(i, null));
+        }
+        rbTree.addAll(entries);
+        assertEquals(150, rbTree.size());
+        assertValidRBTree(rbTree);
+        BinarySearchTreeTest.assertOrderStatistics(rbTree, new Random(7), 500);
+        assertValidRBTree(rbTree);
+    }
+
+    @Test
+    public void testSplitAndJoin() {
+        Random random = new Random(42);
+        for (int n : new int[]{0, 1, 2, 3, 10, 1000}) {
+            for (int round = 0; round < 20; round++) {
+                RedBlackTree<Integer, Integer> rbTree = new RedBlackTree<>();
+                for (int i = 0; i < n; i++) {
+                    rbTree.insert(random.nextInt(2 * n), i);
+                }
+                int key = n == 0 ? 0 : random.nextInt(2 * n);
+                RedBlackTree<Integer, Integer> right = rbTree.split(key);
+                assertEquals(n, rbTree.size() + right.size());
+                assertValidRBTree(rbTree);
+                assertValidRBTree(right);
+                rbTree.traverseInOrder($0 -> assertTrue($0.getKey() < key));
+                right.traverseInOrder($0 -> assertTrue($0.getKey() >= key));
+                rbTree.join(key, null, right);
+                assertTrue(right.isEmpty());
+                assertEquals(n + 1, rbTree.size());
+                assertEquals(n + 1, rbTree._root.subtreeSize);
+                assertValidRBTree(rbTree);
+            }
+        }
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(42);
+        for (int n : new int[]{0, 1, 50, 3000, 20000}) {
+            for (int operation = 0; operation < 3; operation++) {
+                TreeSet<Integer> expected = new TreeSet<>();
+                TreeSet<Integer> others = new TreeSet<>();
+                RedBlackTree<Integer, Integer> rbTree = new RedBlackTree<>();
+                RedBlackTree<Integer, Integer> other = new RedBlackTree<>();
+                for (int i = 0; i < n; i++) {
+                    int key = random.nextInt(2 * n);
+                    if (expected.add(key)) rbTree.insert(key, null);
+                }
+                // 规模悬殊的两棵树
+                for (int i = 0; i < (operation + 1) * n / 4; i++) {
+                    int key = random.nextInt(2 * n);
+                    if (others.add(key)) other.insert(key, null);
+                }
+                if (operation == 0) {
+                    rbTree.union(other);
+                    expected.addAll(others);
+                } else if (operation == 1) {
+                    rbTree.intersection(other);
+                    expected.retainAll(others);
+                } else {
+                    rbTree.difference(other);
+                    expected.removeAll(others);
+                }
+                assertTrue(other.isEmpty());
+                assertEquals(expected.size(), rbTree.size());
+                List<Integer> keys = new ArrayList<>();
+                rbTree.traverseInOrder($0 -> keys.add($0.getKey()));
+                assertEquals(new ArrayList<>(expected), keys);
+                assertValidRBTree(rbTree);
+                // 运算之后仍可正常增删
+                for (int i = 0; i < 100 && n > 0; i++) {
+                    rbTree.insert(random.nextInt(2 * n), null);
+                    rbTree.remove(random.nextInt(2 * n));
+                }
+                assertValidRBTree(rbTree);
+            }
+        }
+    }
+
+}
@@ -2,8 +2,7 @@ package com.anyoptional.collections;
 
 import org.junit.Test;
 
-import java.util.Arrays;
-import java.util.Random;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -58,6 +57,135 @@ public class SortedArrayTest {
         }
     }
 
+    @Test
+    public void testIndexOf() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.addAll(Arrays.asList(5, 1, 3, 3, 9));
+        assertEquals(0, sortedArray.indexOf(1));
+        assertEquals(1, sortedArray.indexOf(3));
+        assertEquals(4, sortedArray.indexOf(9));
+        assertEquals(-1, sortedArray.indexOf(4));
+        assertEquals(-1, sortedArray.indexOf("3"));
+        assertEquals(-1, sortedArray.indexOf(null));
+        assertTrue(sortedArray.contains(5));
+        assertFalse(sortedArray.contains(6));
+        assertTrue(sortedArray.remove(3));
+        assertEquals(Arrays.asList(1, 3, 5, 9), Arrays.asList(sortedArray.toArray()));
+        assertFalse(sortedArray.remove(4));
+    }
+
+    @Test
+    public void testIndexOfWithComparator() {
+        // 按长度排序，长度相同的字符串在比较意义上相等，但equals未必成立
+        SortedArray<String> sortedArray = new SortedArray<>(Comparator.comparingInt(String::length));
+        sortedArray.addAll(Arrays.asList("ccc", "a", "bb", "dd", "ee"));
+        assertTrue(sortedArray.contains("dd"));
+        assertFalse(sortedArray.contains("ff"));
+        assertTrue(sortedArray.remove("dd"));
+        assertFalse(sortedArray.contains("dd"));
+        assertTrue(sortedArray.contains("bb"));
+        assertTrue(sortedArray.contains("ee"));
+    }
+
+    @Test
+    public void testInsertAll() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.insertAll(Arrays.asList(5, 1, 9));
+        sortedArray.insertAll(Arrays.asList(0, 6, 10, 5));
+        assertArrayEquals(new Integer[]{0, 1, 5, 5, 6, 9, 10}, sortedArray.toArray(new Integer[0]));
+        sortedArray.insertAll(Collections.emptyList());
+        assertEquals(7, sortedArray.size());
+    }
+
+    @Test
+    public void testStableInsertAll() {
+        // 比较相等时新元素排在前面，与逐个插入一致
+        SortedArray<String> sortedArray = new SortedArray<>(Comparator.comparingInt(String::length));
+        sortedArray.insertAll(Arrays.asList("bb", "c"));
+        sortedArray.insertAll(Arrays.asList("dd", "a", "ee", "fff"));
+        assertArrayEquals(new String[]{"a", "c", "ee", "dd", "bb", "fff"}, sortedArray.toArray(new String[0]));
+    }
+
+    @Test
+    public void testAddAllMatchesAdd() {
+        // 只比较长度，长度相同而内容不同的字符串在比较意义上相等，但equals不成立
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        Random random = new Random(42);
+        SortedArray<String> one = new SortedArray<>(byLength);
+        SortedArray<String> bulk = new SortedArray<>(byLength);
+        for (int round = 0; round < 5; round++) {
+            List<String> batch = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                // 内容互不相同，长度只有4种
+                batch.add(String.format("%d-%03d", round, i) + "xxx".substring(random.nextInt(4)));
+            }
+            for (String e : batch) {
+                one.add(e);
+            }
+            bulk.addAll(batch);
+            assertEquals(Arrays.asList(one.toArray()), Arrays.asList(bulk.toArray()));
+        }
+    }
+
+    @Test
+    public void testLargeInsertAll() {
+        Random random = new Random();
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            List<Integer> batch = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                batch.add(random.nextInt(100000));
+            }
+            sortedArray.addAll(batch);
+            expected.addAll(batch);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, Arrays.asList(sortedArray.toArray()));
+    }
+
+    @Test
+    public void testBounds() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.addAll(Arrays.asList(1, 3, 3, 3, 7, 9));
+        assertEquals(0, sortedArray.lowerBound(0));
+        assertEquals(1, sortedArray.lowerBound(3));
+        assertEquals(4, sortedArray.upperBound(3));
+        assertEquals(4, sortedArray.lowerBound(5));
+        assertEquals(4, sortedArray.upperBound(5));
+        assertEquals(6, sortedArray.lowerBound(10));
+        assertEquals(6, sortedArray.upperBound(9));
+    }
+
+    @Test
+    public void testRangeViews() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.addAll(Arrays.asList(1, 3, 3, 3, 7, 9));
+        assertEquals(Arrays.asList(3, 3, 3, 7), sortedArray.range(2, 9));
+        assertEquals(Collections.emptyList(), sortedArray.range(9, 2));
+        assertEquals(4, sortedArray.countInRange(3, 8));
+        assertEquals(0, sortedArray.countInRange(8, 3));
+        assertEquals(Arrays.asList(1, 3, 3, 3), sortedArray.headView(7));
+        assertEquals(Arrays.asList(7, 9), sortedArray.tailView(4));
+        assertEquals(Collections.emptyList(), sortedArray.tailView(10));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnlyView() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.addAll(Arrays.asList(1, 2, 3));
+        sortedArray.range(1, 3).set(0, 5);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testStaleView() {
+        SortedArray<Integer> sortedArray = new SortedArray<>();
+        sortedArray.addAll(Arrays.asList(1, 2, 3));
+        List<Integer> view = sortedArray.tailView(2);
+        sortedArray.insert(4);
+        view.size();
+    }
+
     private <E extends Comparable<E>> boolean isSorted(SortedArray<E> sortedArray) {
         for (int i = 0; i < sortedArray.size(); i++) {
             for (int j = i + 1; j < sortedArray.size(); j++) {
@@ -0,0 +1,129 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class SortedIntArrayTest {
+
+    @Test
+    public void testInsert() {
+        SortedIntArray array = new SortedIntArray(0);
+        assertTrue(array.isEmpty());
+        array.insert(5);
+        array.insert(1);
+        array.insert(3);
+        array.insert(3);
+        array.insert(9);
+        assertEquals(5, array.size());
+        assertArrayEquals(new int[]{1, 3, 3, 5, 9}, array.toArray());
+        assertEquals(0, array.insert(0));
+        assertEquals(6, array.insert(10));
+        assertEquals(10, array.get(6));
+    }
+
+    @Test
+    public void testDelete() {
+        SortedIntArray array = SortedIntArray.of(4, 2, 8, 6, 2);
+        assertEquals(2, array.delete(0));
+        assertEquals(8, array.delete(3));
+        assertArrayEquals(new int[]{2, 4, 6}, array.toArray());
+        assertTrue(array.remove(4));
+        assertFalse(array.remove(4));
+        assertArrayEquals(new int[]{2, 6}, array.toArray());
+        try {
+            array.delete(2);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSearch() {
+        SortedIntArray array = SortedIntArray.of(1, 3, 3, 3, 7, 9);
+        assertEquals(1, array.indexOf(3));
+        assertEquals(-1, array.indexOf(4));
+        assertEquals(1, array.lowerBound(3));
+        assertEquals(4, array.upperBound(3));
+        assertEquals(0, array.lowerBound(0));
+        assertEquals(6, array.upperBound(9));
+        assertTrue(array.contains(9));
+        assertFalse(array.contains(10));
+        for (int v = 0; v <= 10; v++) {
+            assertEquals(array.indexOf(v), array.interpolationSearch(v));
+        }
+        assertEquals(-1, new SortedIntArray().interpolationSearch(1));
+        assertEquals(0, SortedIntArray.of(2, 2, 2).interpolationSearch(2));
+    }
+
+    @Test
+    public void testInterpolationSearchRandom() {
+        Random random = new Random(42);
+        SortedIntArray array = new SortedIntArray();
+        for (int i = 0; i < 10000; i++) {
+            array.insert(random.nextInt(20000));
+        }
+        for (int i = 0; i < 1000; i++) {
+            int v = random.nextInt(20000);
+            assertEquals(array.indexOf(v), array.interpolationSearch(v));
+        }
+    }
+
+    @Test
+    public void testIntersectionAndUnion() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            SortedIntArray a = new SortedIntArray();
+            SortedIntArray b = new SortedIntArray();
+            TreeSet<Integer> sa = new TreeSet<>();
+            TreeSet<Integer> sb = new TreeSet<>();
+            int n = random.nextInt(50);
+            int m = random.nextInt(2000);
+            for (int i = 0; i < n; i++) {
+                int v = random.nextInt(1000);
+                a.insert(v);
+                sa.add(v);
+            }
+            for (int i = 0; i < m; i++) {
+                int v = random.nextInt(1000);
+                b.insert(v);
+                sb.add(v);
+            }
+            TreeSet<Integer> intersection = new TreeSet<>(sa);
+            intersection.retainAll(sb);
+            TreeSet<Integer> union = new TreeSet<>(sa);
+            union.addAll(sb);
+            assertArrayEquals(intersection.stream().mapToInt(x -> x).toArray(), a.intersection(b).toArray());
+            assertArrayEquals(intersection.stream().mapToInt(x -> x).toArray(), b.intersection(a).toArray());
+            assertArrayEquals(union.stream().mapToInt(x -> x).toArray(), a.union(b).toArray());
+        }
+    }
+
+    @Test
+    public void testStream() {
+        SortedIntArray array = SortedIntArray.of(3, 1, 2);
+        array.delete(2);
+        assertEquals(3, array.stream().sum());
+        assertArrayEquals(new int[]{1, 2}, array.stream().toArray());
+    }
+
+    @Test
+    public void testEquals() {
+        SortedIntArray a = SortedIntArray.of(1, 2, 3);
+        SortedIntArray b = new SortedIntArray();
+        b.insert(3);
+        b.insert(2);
+        b.insert(1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(Arrays.toString(new int[]{1, 2, 3}), a.toString());
+        b.clear();
+        assertNotEquals(a, b);
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SparseMatrixTest {
+
+    @Test
+    public void testCoo() {
+        CooMatrix coo = new CooMatrix(3, 4);
+        coo.add(2, 1, 1.5);
+        coo.add(0, 3, 2);
+        coo.add(2, 1, 0.5);
+        coo.add(1, 0, -1);
+        assertEquals(3, coo.getRows());
+        assertEquals(4, coo.getColumns());
+        assertEquals(4, coo.nnz());
+        assertEquals(2, coo.get(2, 1), 0);
+        assertEquals(0, coo.get(0, 0), 0);
+        try {
+            coo.add(3, 0, 1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
+        CsrMatrix csr = coo.toCsr();
+        CscMatrix csc = coo.toCsc();
+        // 重复的位置被合并
+        assertEquals(3, csr.nnz());
+        assertEquals(3, csc.nnz());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(coo.get(i, j), csr.get(i, j), 0);
+                assertEquals(coo.get(i, j), csc.get(i, j), 0);
+            }
+        }
+        assertEquals(coo.toDense(), csr.toDense());
+        assertEquals(coo.toDense(), csc.toDense());
+    }
+
+    @Test
+    public void testForEachNonZero() {
+        CsrMatrix csr = randomCoo(new Random(1), 20, 30, 50).toCsr();
+        int[] previous = {-1, -1};
+        csr.forEachNonZero((row, column, value) -> {
+            // 逐行，行内按列递增
+            assertTrue(row > previous[0] || (row == previous[0] && column > previous[1]));
+            previous[0] = row;
+            previous[1] = column;
+        });
+        int[] count = {0};
+        csr.toCsc().forEachNonZero((row, column, value) -> count[0]++);
+        assertEquals(csr.nnz(), count[0]);
+    }
+
+    @Test
+    public void testConversion() {
+        Random random = new Random(42);
+        CooMatrix coo = randomCoo(random, 40, 25, 200);
+        CsrMatrix csr = coo.toCsr();
+        CscMatrix csc = coo.toCsc();
+        assertEquals(csr.toDense(), csc.toCsr().toDense());
+        assertEquals(csc.toDense(), csr.toCsc().toDense());
+        assertEquals(csr.toDense(), CsrMatrix.fromDense(csr.toDense()).toDense());
+        // 转置共享存储
+        CscMatrix transposed = csr.transpose();
+        assertEquals(25, transposed.getRows());
+        assertEquals(40, transposed.getColumns());
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 25; j++) {
+                assertEquals(csr.get(i, j), transposed.get(j, i), 0);
+            }
+        }
+        assertEquals(csr.toDense(), csc.transpose().transpose().toDense());
+    }
+
+    @Test
+    public void testSlicing() {
+        CooMatrix coo = randomCoo(new Random(7), 30, 20, 120);
+        CsrMatrix csr = coo.toCsr();
+        CsrMatrix rows = csr.rows(5, 17);
+        assertEquals(12, rows.getRows());
+        assertEquals(20, rows.getColumns());
+        CscMatrix columns = coo.toCsc().columns(3, 9);
+        assertEquals(30, columns.getRows());
+        assertEquals(6, columns.getColumns());
+        int nnz = 0;
+        for (int i = 0; i < 30; i++) {
+            for (int j = 0; j < 20; j++) {
+                if (i >= 5 && i < 17) {
+                    assertEquals(csr.get(i, j), rows.get(i - 5, j), 0);
+                    if (rows.get(i - 5, j) != 0) nnz++;
+                }
+                if (j >= 3 && j < 9) {
+                    assertEquals(csr.get(i, j), columns.get(i, j - 3), 0);
+                }
+            }
+        }
+        assertEquals(nnz, rows.nnz());
+        assertEquals(0, csr.rows(4, 4).nnz());
+    }
+
+    @Test
+    public void testMultiply() {
+        Random random = new Random(3);
+        CsrMatrix a = randomCoo(random, 20, 15, 60).toCsr();
+        CsrMatrix b = randomCoo(random, 15, 25, 70).toCsr();
+        DoubleArray2D da = a.toDense();
+        DoubleArray2D db = b.toDense();
+        DoubleArray2D expected = da.multiply(db);
+
+        assertDenseEquals(expected, a.multiply(b).toDense());
+        assertDenseEquals(expected, a.multiply(db));
+
+        double[] x = new double[15];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextDouble();
+        }
+        double[] y = a.multiply(x);
+        assertArrayEquals(y, a.toCsc().multiply(x), 1e-9);
+        for (int i = 0; i < 20; i++) {
+            double sum = 0;
+            for (int k = 0; k < 15; k++) {
+                sum += da.get(i, k) * x[k];
+            }
+            assertEquals(sum, y[i], 1e-9);
+        }
+        try {
+            a.multiply(a);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static void assertDenseEquals(DoubleArray2D expected, DoubleArray2D actual) {
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getColumns(), actual.getColumns());
+        assertArrayEquals(expected.toArray(), actual.toArray(), 1e-9);
+    }
+
+    private static CooMatrix randomCoo(Random random, int rows, int columns, int count) {
+        CooMatrix coo = new CooMatrix(rows, columns);
+        for (int i = 0; i < count; i++) {
+            coo.add(random.nextInt(rows), random.nextInt(columns), random.nextInt(9) + 1);
+        }
+        return coo;
+    }
+
+}
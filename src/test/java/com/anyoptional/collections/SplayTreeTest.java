@@ -0,0 +1,119 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class SplayTreeTest {
+
+    @Test
+    public void testAccessSplaysToRoot() {
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i, i);
+            // 新插入的节点总在根上
+            assertEquals(i, (int) tree._root.entry.getKey());
+        }
+        assertEquals(Integer.valueOf(37), tree.searchValue(37));
+        assertEquals(37, (int) tree._root.entry.getKey());
+        assertTrue(tree.containsKey(80));
+        assertEquals(80, (int) tree._root.entry.getKey());
+        // 未命中时伸展最后访问的节点
+        assertNull(tree.search(1000));
+        assertEquals(99, (int) tree._root.entry.getKey());
+        assertValidTree(tree);
+    }
+
+    @Test
+    public void testHotKeysStayShallow() {
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            tree.insert(random.nextInt(1 << 20), i);
+        }
+        int[] hot = {3, 17, 101};
+        for (int key : hot) {
+            tree.insert(key, key);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int key : hot) {
+                assertEquals(Integer.valueOf(key), tree.searchValue(key));
+            }
+        }
+        // 最近访问的若干热点都集中在根附近
+        for (int key : hot) {
+            assertTrue(depthOf(tree.searchBinaryNode(key)) < hot.length);
+        }
+        assertValidTree(tree);
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(7);
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                Entry<Integer, Integer> removed = tree.remove(key);
+                assertEquals(expected.remove(key) != null, removed != null);
+            } else if (op == 1) {
+                if (!expected.containsKey(key)) {
+                    tree.insert(key, i);
+                    expected.put(key, i);
+                }
+            } else {
+                assertEquals(expected.get(key), tree.searchValue(key));
+            }
+            assertEquals(expected.size(), tree.size());
+        }
+        assertValidTree(tree);
+        List<Integer> keys = new ArrayList<>();
+        tree.traverseInOrder($0 -> keys.add($0.getKey()));
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        BinarySearchTreeTest.assertOrderStatistics(new SplayTree<>(), new Random(42), 3000);
+    }
+
+    private static int depthOf(BinaryNode<?, ?> node) {
+        int depth = 0;
+        for (BinaryNode<?, ?> cur = node; cur.parent != null; cur = cur.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static void assertValidTree(SplayTree<Integer, Integer> tree) {
+        if (tree._root == null) return;
+        assertNull(tree._root.parent);
+        assertValidNode(tree._root);
+        assertEquals(tree.size(), tree._root.subtreeSize);
+    }
+
+    private static int assertValidNode(@Nullable BinaryNode<Integer, Integer> node) {
+        if (node == null) return -1;
+        if (node.left != null) {
+            assertSame(node, node.left.parent);
+            assertTrue(node.left.entry.getKey() <= node.entry.getKey());
+        }
+        if (node.right != null) {
+            assertSame(node, node.right.parent);
+            assertTrue(node.right.entry.getKey() >= node.entry.getKey());
+        }
+        int height = Math.max(assertValidNode(node.left), assertValidNode(node.right)) + 1;
+        assertEquals(height, node.height);
+        assertEquals(node.size(), node.subtreeSize);
+        return height;
+    }
+
+}
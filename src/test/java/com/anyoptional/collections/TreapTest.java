@@ -0,0 +1,146 @@
+package com.anyoptional.collections;
+
+import com.anyoptional.lang.Nullable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class TreapTest {
+
+    @Test
+    public void testInsertSorted() {
+        Treap<Integer, Integer> treap = new Treap<>();
+        for (int i = 0; i < 10000; i++) {
+            treap.insert(i, i);
+        }
+        assertValidTreap(treap);
+        // 优先级随机，顺序插入也不会退化成链表
+        assertTrue(treap._root.height < 60);
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(7);
+        Treap<Integer, Integer> treap = new Treap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Entry<Integer, Integer> removed = treap.remove(key);
+                Integer value = expected.remove(key);
+                if (value == null) {
+                    assertNull(removed);
+                } else {
+                    // 旋转到叶子方向再摘除，返回的就是被删除的词条
+                    assertEquals(key, (int) removed.getKey());
+                    assertEquals(value, removed.getValue());
+                }
+            } else if (!expected.containsKey(key)) {
+                treap.insert(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), treap.size());
+        }
+        assertValidTreap(treap);
+        List<Integer> keys = new ArrayList<>();
+        treap.traverseInOrder($0 -> keys.add($0.getKey()));
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        BinarySearchTreeTest.assertOrderStatistics(new Treap<>(), new Random(42), 3000);
+    }
+
+    @Test
+    public void testBulkLoad() {
+        Treap<Integer, Integer> treap = new Treap<>();
+        List<Entry<Integer, Integer>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new Entry<>(i, i));
+        }
+        treap.addAll(entries);
+        assertValidTreap(treap);
+        // 批量构建之后继续插入、删除，堆序依然成立
+        for (int i = 1000; i < 1500; i++) {
+            treap.insert(i, i);
+        }
+        for (int i = 0; i < 1500; i += 3) {
+            assertNotNull(treap.remove(i));
+        }
+        assertValidTreap(treap);
+        assertEquals(1000, treap.size());
+    }
+
+    @Test
+    public void testSplitAndMerge() {
+        Random random = new Random(42);
+        for (int n : new int[]{0, 1, 2, 100, 3000}) {
+            Treap<Integer, Integer> treap = new Treap<>();
+            for (int i = 0; i < n; i++) {
+                treap.insert(i * 2, i);
+            }
+            int key = n == 0 ? 0 : random.nextInt(n * 2 + 2) - 1;
+            Treap<Integer, Integer> right = treap.split(key);
+            assertValidTreap(treap);
+            assertValidTreap(right);
+            assertEquals(n, treap.size() + right.size());
+            if (!treap.isEmpty()) assertTrue(treap.lastEntry().getKey() < key);
+            if (!right.isEmpty()) assertTrue(right.firstEntry().getKey() >= key);
+
+            treap.merge(right);
+            assertTrue(right.isEmpty());
+            assertValidTreap(treap);
+            assertEquals(n, treap.size());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i * 2, (int) treap.select(i).getKey());
+            }
+        }
+        Treap<Integer, Integer> left = new Treap<>();
+        left.insert(5, 5);
+        Treap<Integer, Integer> right = new Treap<>();
+        right.insert(3, 3);
+        try {
+            left.merge(right);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static void assertValidTreap(Treap<Integer, Integer> treap) {
+        if (treap._root == null) {
+            assertEquals(0, treap.size());
+            return;
+        }
+        assertNull(treap._root.parent);
+        assertValidNode(treap._root);
+        assertEquals(treap.size(), treap._root.subtreeSize);
+    }
+
+    @SuppressWarnings("all")
+    private static int assertValidNode(@Nullable BinaryNode<Integer, Integer> node) {
+        if (node == null) return -1;
+        int priority = ((Treap.Node<Integer, Integer>) node).priority;
+        if (node.left != null) {
+            assertSame(node, node.left.parent);
+            assertTrue(node.left.entry.getKey() <= node.entry.getKey());
+            assertTrue(((Treap.Node<Integer, Integer>) node.left).priority <= priority);
+        }
+        if (node.right != null) {
+            assertSame(node, node.right.parent);
+            assertTrue(node.right.entry.getKey() >= node.entry.getKey());
+            assertTrue(((Treap.Node<Integer, Integer>) node.right).priority <= priority);
+        }
+        int height = Math.max(assertValidNode(node.left), assertValidNode(node.right)) + 1;
+        assertEquals(height, node.height);
+        assertEquals(node.size(), node.subtreeSize);
+        return height;
+    }
+
+}
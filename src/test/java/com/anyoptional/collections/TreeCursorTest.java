@@ -0,0 +1,147 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class TreeCursorTest {
+
+    @Test
+    public void testEmptyTree() {
+        TreeCursor<Integer, String> cursor = new AVLTree<Integer, String>().cursor();
+        assertFalse(cursor.isValid());
+        assertFalse(cursor.seekFirst());
+        assertFalse(cursor.seekLast());
+        assertFalse(cursor.seek(1));
+        assertFalse(cursor.next());
+        assertFalse(cursor.prev());
+        try {
+            cursor.key();
+            fail();
+        } catch (NoSuchElementException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testScan() {
+        BinarySearchTree<Integer, String> tree = new RedBlackTree<>();
+        for (int k : new int[]{50, 20, 80, 10, 30, 70, 90, 60}) {
+            tree.insert(k, String.valueOf(k));
+        }
+        TreeCursor<Integer, String> cursor = tree.cursor();
+        List<Integer> keys = new ArrayList<>();
+        for (boolean ok = cursor.seekFirst(); ok; ok = cursor.next()) {
+            assertEquals(String.valueOf(cursor.key()), cursor.value());
+            keys.add(cursor.key());
+        }
+        assertEquals(Arrays.asList(10, 20, 30, 50, 60, 70, 80, 90), keys);
+
+        keys.clear();
+        for (boolean ok = cursor.seekLast(); ok; ok = cursor.next()) {
+            keys.add(cursor.key());
+        }
+        assertEquals(Arrays.asList(90), keys);
+
+        keys.clear();
+        for (boolean ok = cursor.seek(55); ok; ok = cursor.prev()) {
+            keys.add(cursor.key());
+        }
+        assertEquals(Arrays.asList(60, 50, 30, 20, 10), keys);
+
+        assertTrue(cursor.seek(30));
+        assertEquals(30, (int) cursor.key());
+        assertFalse(cursor.seek(91));
+        assertFalse(cursor.isValid());
+
+        // 来回移动
+        assertTrue(cursor.seek(60));
+        assertTrue(cursor.next());
+        assertTrue(cursor.prev());
+        assertTrue(cursor.prev());
+        assertEquals(50, (int) cursor.key());
+
+        cursor.reset();
+        assertFalse(cursor.isValid());
+        assertTrue(cursor.seek(0));
+        assertEquals(10, (int) cursor.key());
+    }
+
+    @Test
+    public void testDegenerateTree() {
+        // 顺序插入的普通二叉搜索树退化成链表，路径栈需要扩容
+        BinarySearchTree<Integer, Integer> tree = new BinarySearchTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i, i);
+        }
+        TreeCursor<Integer, Integer> cursor = tree.cursor();
+        int expected = 99;
+        for (boolean ok = cursor.seek(99); ok; ok = cursor.prev()) {
+            assertEquals(expected--, (int) cursor.key());
+        }
+        assertEquals(-1, expected);
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        BinarySearchTree<Integer, Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 30; i++) {
+            tree.insert(i % 3, i);
+        }
+        List<Integer> expected = new ArrayList<>();
+        tree.traverseInOrder($0 -> expected.add($0.getValue()));
+        List<Integer> actual = new ArrayList<>();
+        TreeCursor<Integer, Integer> cursor = tree.cursor();
+        for (boolean ok = cursor.seek(1); ok; ok = cursor.next()) {
+            actual.add(cursor.value());
+        }
+        // seek停在键为1的第一个词条上
+        assertEquals(expected.subList(10, 30), actual);
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(7);
+        BinarySearchTree<Integer, Integer> tree = new AVLTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(5000);
+            if (!expected.containsKey(key)) {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+        TreeCursor<Integer, Integer> cursor = tree.cursor();
+        for (int i = 0; i < 500; i++) {
+            int lo = random.nextInt(5200) - 100;
+            boolean ok = cursor.seek(lo);
+            for (Map.Entry<Integer, Integer> e : expected.tailMap(lo, true).entrySet()) {
+                if (random.nextInt(20) == 0) break;
+                assertTrue(ok);
+                assertEquals(e.getKey(), cursor.key());
+                assertEquals(e.getValue(), cursor.value());
+                ok = cursor.next();
+            }
+            ok = cursor.seek(lo);
+            if (ok) {
+                for (Integer key : expected.headMap(cursor.key(), true).descendingKeySet()) {
+                    assertTrue(ok);
+                    assertEquals(key, cursor.key());
+                    ok = cursor.prev();
+                }
+                assertFalse(ok);
+            } else {
+                assertNull(expected.ceilingKey(lo));
+            }
+        }
+    }
+
+}
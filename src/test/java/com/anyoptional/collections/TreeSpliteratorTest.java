@@ -0,0 +1,166 @@
+package com.anyoptional.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TreeSpliteratorTest {
+
+    private static final int N = 20000;
+
+    @Test
+    public void testBinarySearchTrees() {
+        List<BinaryTree<Integer, Integer>> trees = new ArrayList<>();
+        trees.add(new BinarySearchTree<>());
+        trees.add(new AVLTree<>());
+        trees.add(new RedBlackTree<>());
+        trees.add(new CompactAVLTree<>());
+        trees.add(new ConcurrentAVLTree<>());
+        trees.add(new LockFreeSkipList<>());
+        List<Integer> keys = shuffledKeys();
+        for (BinaryTree<Integer, Integer> tree : trees) {
+            for (int key : keys) {
+                tree.insert(key, key * 2);
+            }
+            assertStreams(tree.stream().map(Entry::getKey).collect(Collectors.toList()),
+                    tree.parallelStream().map(Entry::getKey).collect(Collectors.toList()),
+                    tree.reduce(0L, (sum, e) -> sum + e.getValue(), Long::sum));
+
+            LongAdder visited = new LongAdder();
+            tree.parallelTraverseInOrder($0 -> visited.add($0.getKey()));
+            assertEquals((long) N * (N - 1) / 2, visited.sum());
+        }
+    }
+
+    @Test
+    public void testSubtreeSplitting() {
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        for (int key : shuffledKeys()) {
+            tree.insert(key, key);
+        }
+        Spliterator<Entry<Integer, Integer>> rest = tree.spliterator();
+        assertTrue(rest.hasCharacteristics(Spliterator.SORTED | Spliterator.ORDERED
+                | Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(N, rest.getExactSizeIfKnown());
+        Spliterator<Entry<Integer, Integer>> prefix = rest.trySplit();
+        assertNotNull(prefix);
+        // 按子树拆分，两边的规模精确且大致均衡
+        assertEquals(N, prefix.getExactSizeIfKnown() + rest.getExactSizeIfKnown());
+        assertTrue(prefix.getExactSizeIfKnown() > N / 4 && rest.getExactSizeIfKnown() > N / 4);
+
+        List<Integer> keys = new ArrayList<>();
+        assertTrue(prefix.tryAdvance($0 -> keys.add($0.getKey())));
+        assertEquals(0, (int) keys.get(0));
+        // 开始遍历后不再拆分
+        assertNull(prefix.trySplit());
+        prefix.forEachRemaining($0 -> keys.add($0.getKey()));
+        rest.forEachRemaining($0 -> keys.add($0.getKey()));
+        assertEquals(N, keys.size());
+        for (int i = 0; i < N; i++) {
+            assertEquals(i, (int) keys.get(i));
+        }
+        assertEquals(0, rest.estimateSize());
+        assertTrue(rest.getComparator().compare(new Entry<>(1, 9), new Entry<>(2, 0)) < 0);
+    }
+
+    @Test
+    public void testSplitToSingletons() {
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i, i);
+        }
+        List<Integer> keys = new ArrayList<>();
+        splitAll(tree.spliterator(), keys);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) keys.get(i));
+        }
+    }
+
+    @Test
+    public void testBTree() {
+        for (int order = 3; order <= 9; order += 3) {
+            BTree<Integer, Integer> tree = new BTree<>(order);
+            assertEquals(0, tree.stream().count());
+            for (int key : shuffledKeys()) {
+                tree.insert(key, key * 2);
+            }
+            Spliterator<Entry<Integer, Integer>> spliterator = tree.spliterator();
+            assertEquals(N, spliterator.getExactSizeIfKnown());
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SORTED | Spliterator.ORDERED));
+            Spliterator<Entry<Integer, Integer>> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            // 拆分后的规模只是估计值
+            assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+
+            assertStreams(tree.stream().map(Entry::getKey).collect(Collectors.toList()),
+                    tree.parallelStream().map(Entry::getKey).collect(Collectors.toList()),
+                    tree.reduce(0L, (sum, e) -> sum + e.getValue(), Long::sum));
+
+            List<Integer> keys = new ArrayList<>();
+            splitAll(tree.spliterator(), keys);
+            assertEquals(N, keys.size());
+            for (int i = 0; i < N; i++) {
+                assertEquals(i, (int) keys.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMixedAdvance() {
+        BTree<Integer, Integer> tree = new BTree<>(4);
+        for (int i = 0; i < 500; i++) {
+            tree.insert(i, i);
+        }
+        List<Integer> keys = new ArrayList<>();
+        Spliterator<Entry<Integer, Integer>> spliterator = tree.spliterator();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(spliterator.tryAdvance($0 -> keys.add($0.getKey())));
+        }
+        spliterator.forEachRemaining($0 -> keys.add($0.getKey()));
+        assertFalse(spliterator.tryAdvance($0 -> fail()));
+        assertEquals(500, keys.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) keys.get(i));
+        }
+    }
+
+    /**
+     * 尽可能地拆分，再按中序次序收集各部分
+     */
+    private static void splitAll(Spliterator<Entry<Integer, Integer>> spliterator, List<Integer> keys) {
+        Spliterator<Entry<Integer, Integer>> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining($0 -> keys.add($0.getKey()));
+        } else {
+            splitAll(prefix, keys);
+            splitAll(spliterator, keys);
+        }
+    }
+
+    private static void assertStreams(List<Integer> sequential, List<Integer> parallel, long sum) {
+        assertEquals(N, sequential.size());
+        for (int i = 0; i < N; i++) {
+            assertEquals(i, (int) sequential.get(i));
+        }
+        assertEquals(sequential, parallel);
+        assertEquals((long) N * (N - 1), sum);
+    }
+
+    private static List<Integer> shuffledKeys() {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < N; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(17));
+        return keys;
+    }
+
+}
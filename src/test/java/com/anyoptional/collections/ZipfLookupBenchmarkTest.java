@@ -0,0 +1,115 @@
+package com.anyoptional.collections;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Zipf分布下各种二叉搜索树的查找耗时
+ *
+ * 计时受JIT、GC影响，不适合放进常规构建，需要时单独运行：
+ * mvn test -Dtest=ZipfLookupBenchmarkTest -DfailIfNoTests=false
+ * 并暂时去掉{@link Ignore}。
+ */
+public class ZipfLookupBenchmarkTest {
+
+    private static final int KEYS = 1 << 20;
+
+    private static final int LOOKUPS = 1 << 22;
+
+    private static final double EXPONENT = 1.1;
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void testZipfStream() {
+        int[] stream = zipfStream(1000, 100_000, EXPONENT, new Random(7));
+        int[] counts = new int[1000];
+        for (int key : stream) {
+            counts[key]++;
+        }
+        // 前10名约占48%，前100名约占77%
+        int top10 = 0;
+        int top100 = 0;
+        for (int i = 0; i < 100; i++) {
+            if (i < 10) top10 += counts[i];
+            top100 += counts[i];
+        }
+        assertEquals(0.48, (double) top10 / stream.length, 0.02);
+        assertEquals(0.77, (double) top100 / stream.length, 0.02);
+        assertTrue(counts[0] > counts[9] && counts[9] > counts[99]);
+    }
+
+    @Ignore("benchmark, run manually")
+    @Test
+    public void benchmarkZipfLookups() {
+        Map<String, Supplier<BinarySearchTree<Integer, Integer>>> trees = new LinkedHashMap<>();
+        trees.put("AVLTree", AVLTree::new);
+        trees.put("RedBlackTree", RedBlackTree::new);
+        trees.put("SplayTree", SplayTree::new);
+        trees.put("Treap", Treap::new);
+
+        // 访问频率的排名与键的大小无关
+        List<Integer> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(42));
+        int[] ranks = zipfStream(KEYS, LOOKUPS, EXPONENT, new Random(43));
+        int[] lookups = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = keys.get(ranks[i]);
+        }
+
+        for (Map.Entry<String, Supplier<BinarySearchTree<Integer, Integer>>> e : trees.entrySet()) {
+            BinarySearchTree<Integer, Integer> tree = e.getValue().get();
+            for (int key : keys) {
+                tree.insert(key, key);
+            }
+            long[] nanos = new long[ROUNDS];
+            long checksum = 0;
+            // 第一轮用于预热
+            for (int round = -1; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (int key : lookups) {
+                    checksum += tree.searchValue(key);
+                }
+                if (round >= 0) {
+                    nanos[round] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%-14s median %6.1f ns/lookup (checksum %d)%n",
+                    e.getKey(), (double) nanos[ROUNDS / 2] / LOOKUPS, checksum);
+        }
+    }
+
+    /**
+     * 按Zipf分布生成count个[0, n)之间的排名，排名r被选中的概率正比于1 / (r + 1)^s
+     */
+    private static int[] zipfStream(int n, int count, double s, Random random) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        int[] stream = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            stream[i] = index >= 0 ? index : Math.min(-index - 1, n - 1);
+        }
+        return stream;
+    }
+
+}
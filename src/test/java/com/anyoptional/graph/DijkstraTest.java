@@ -0,0 +1,39 @@
+package com.anyoptional.graph;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DijkstraTest {
+
+    @Test
+    public void testSmallGraph() {
+        //  0 --1--> 1 --2--> 2
+        //  |                 ^
+        //  +--------5--------+
+        Graph graph = new Graph(4);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 2, 2);
+        graph.addEdge(0, 2, 5);
+        for (Dijkstra.Strategy strategy : Dijkstra.Strategy.values()) {
+            long[] distances = Dijkstra.shortestPaths(graph, 0, strategy);
+            assertArrayEquals(new long[]{0, 1, 3, Dijkstra.UNREACHABLE}, distances);
+        }
+    }
+
+    @Test
+    public void testStrategiesAgree() {
+        Random random = new Random();
+        int n = 2000;
+        Graph graph = new Graph(n);
+        for (int i = 0; i < n * 5; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(1000));
+        }
+        long[] expected = Dijkstra.shortestPaths(graph, 0, Dijkstra.Strategy.HEAP);
+        assertArrayEquals(expected, Dijkstra.shortestPaths(graph, 0, Dijkstra.Strategy.INDEXED_HEAP));
+        assertArrayEquals(expected, Dijkstra.shortestPaths(graph, 0, Dijkstra.Strategy.RADIX_HEAP));
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.anyoptional.sort;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ExternalMergeSortTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInMemory() throws IOException {
+        ExternalMergeSort<Integer> sorter = new ExternalMergeSort<>(Codec.INTEGER, 100);
+        sorter.setTempDirectory(folder.getRoot().toPath());
+        List<Integer> sorted = drain(sorter.sort(Arrays.asList(3, 1, 2).iterator()));
+        assertEquals(Arrays.asList(1, 2, 3), sorted);
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testSpillAndMerge() throws IOException {
+        Random random = new Random();
+        List<Long> input = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            input.add(random.nextLong());
+        }
+        ExternalMergeSort<Long> sorter = new ExternalMergeSort<>(Codec.LONG, 97);
+        sorter.setTempDirectory(folder.getRoot().toPath());
+        sorter.setFanIn(4);
+        sorter.setBufferSize(64);
+        ExternalMergeSort.Result<Long> result = sorter.sort(input.iterator());
+        assertTrue(countFiles() > 0);
+        assertTrue(countFiles() <= 4);
+        List<Long> sorted = drain(result);
+        Collections.sort(input);
+        assertEquals(input, sorted);
+        // 耗尽以后临时文件被删除
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testStableWithLargeRecords() throws IOException {
+        // 长度只有三种且都超过缓冲区，开头的序号区分内容相同长度的记录
+        Random random = new Random(42);
+        List<String> input = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.setLength(0);
+            sb.append(String.format("%04d", i));
+            int length = 150 + 100 * random.nextInt(3);
+            while (sb.length() < length) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            input.add(sb.toString());
+        }
+        Comparator<String> byLength = Comparator.comparingInt(String::length);
+        ExternalMergeSort<String> sorter = new ExternalMergeSort<>(Codec.STRING, 10, byLength);
+        sorter.setTempDirectory(folder.getRoot().toPath());
+        sorter.setFanIn(3);
+        sorter.setBufferSize(128);
+        ExternalMergeSort.Result<String> result = sorter.sort(input.iterator());
+        assertTrue(countFiles() > 0);
+        List<String> sorted = drain(result);
+        assertEquals(input.size(), sorted.size());
+        // 长度相同的记录保持输入时的先后次序
+        for (int i = 1; i < sorted.size(); i++) {
+            String prev = sorted.get(i - 1);
+            String curr = sorted.get(i);
+            assertTrue(prev.length() <= curr.length());
+            if (prev.length() == curr.length()) {
+                assertTrue(prev.substring(0, 4).compareTo(curr.substring(0, 4)) < 0);
+            }
+        }
+        List<String> expected = new ArrayList<>(input);
+        expected.sort(byLength);
+        assertEquals(expected, sorted);
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        ExternalMergeSort<Integer> sorter = new ExternalMergeSort<>(Codec.INTEGER, 2);
+        sorter.setTempDirectory(folder.getRoot().toPath());
+        ExternalMergeSort.Result<Integer> result = sorter.sort(Arrays.asList(5, 4, 3, 2, 1).iterator());
+        assertEquals(1, (int) result.next());
+        result.close();
+        assertFalse(result.hasNext());
+        assertEquals(0, countFiles());
+    }
+
+    private int countFiles() {
+        File[] files = folder.getRoot().listFiles();
+        return files == null ? 0 : files.length;
+    }
+
+    private <E> List<E> drain(Iterator<E> iterator) {
+        List<E> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+
+}